@@ -0,0 +1,18 @@
+package com.edusmart.cache;
+
+/**
+ * Broadcasts cache invalidations to the other application nodes so they can drop
+ * their in-process copies of the affected entries
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Bus used when the application runs on a single node without Redis
+     */
+    CacheInvalidationBus NONE = (cacheName, key) -> { };
+
+    /**
+     * Publish an invalidation; a null key clears the whole cache
+     */
+    void publish(String cacheName, String key);
+}
@@ -0,0 +1,29 @@
+package com.edusmart.cache;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Records which cache keys depend on which tags (e.g. a catalog page on the courses it lists),
+ * so a change can evict exactly the entries that depend on it
+ */
+public interface CacheTagIndex {
+
+    /**
+     * Record that the entry stored under {@code key} depends on each of {@code tags}
+     */
+    void tag(String cacheName, String key, Collection<String> tags);
+
+    /**
+     * Remove a tag and return the keys that were recorded against it.
+     * Advances the cache's generation before the tag is removed.
+     */
+    Set<String> removeTag(String cacheName, String tag);
+
+    /**
+     * Counter advanced by every {@link #removeTag} of the cache. An entry tagged after it was stored
+     * may have missed a removal of its tags while untagged; if the generation read before loading the
+     * entry has moved by the time it is tagged, the entry must be evicted.
+     */
+    long generation(String cacheName);
+}
@@ -0,0 +1,24 @@
+package com.edusmart.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Value stored in both cache tiers, with the load metadata needed to refresh hot entries
+ * shortly before they expire. Non-final with a default constructor so that the
+ * polymorphic Redis JSON serializer can round-trip it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedValue {
+
+    private Object value;
+
+    // Epoch millis when the value was loaded
+    private long loadedAt;
+
+    // How long the load took, in millis
+    private long loadMillis;
+}
@@ -0,0 +1,28 @@
+package com.edusmart.cache;
+
+import java.util.Collection;
+
+/**
+ * Named long counters that can be adjusted atomically without reading them first.
+ * A counter is absent until it is initialized from its source of truth; adjustments to an
+ * absent counter are dropped, so the next read reloads it instead of trusting a partial value.
+ */
+public interface CounterStore {
+
+    /**
+     * Current value, or null if the counter is not initialized
+     */
+    Long get(String key);
+
+    /**
+     * Initialize a counter unless another caller already did
+     */
+    void setIfAbsent(String key, long value);
+
+    /**
+     * Add {@code delta} to each of the counters that are initialized
+     */
+    void addIfPresent(Collection<String> keys, long delta);
+
+    void remove(String key);
+}
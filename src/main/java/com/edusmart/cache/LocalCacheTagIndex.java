@@ -0,0 +1,54 @@
+package com.edusmart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process tag index for local mode. A tag expires once no entry has been tagged with it for
+ * the lifetime of an entry, so it outlives everything it points to and the index stays bounded
+ * by what the local cache can hold.
+ */
+public class LocalCacheTagIndex implements CacheTagIndex {
+
+    private final Cache<String, Set<String>> index;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public LocalCacheTagIndex(Duration timeToLive) {
+        this.index = Caffeine.newBuilder()
+                .expireAfterAccess(timeToLive)
+                .build();
+    }
+
+    @Override
+    public void tag(String cacheName, String key, Collection<String> tags) {
+        for (String tag : tags) {
+            index.asMap()
+                    .computeIfAbsent(indexKey(cacheName, tag), k -> ConcurrentHashMap.newKeySet())
+                    .add(key);
+        }
+    }
+
+    @Override
+    public Set<String> removeTag(String cacheName, String tag) {
+        generations.computeIfAbsent(cacheName, name -> new AtomicLong()).incrementAndGet();
+        Set<String> keys = index.asMap().remove(indexKey(cacheName, tag));
+        return keys != null ? keys : Set.of();
+    }
+
+    @Override
+    public long generation(String cacheName) {
+        AtomicLong generation = generations.get(cacheName);
+        return generation != null ? generation.get() : 0;
+    }
+
+    private static String indexKey(String cacheName, String tag) {
+        return cacheName + "::" + tag;
+    }
+}
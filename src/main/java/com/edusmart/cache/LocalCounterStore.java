@@ -0,0 +1,55 @@
+package com.edusmart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process counters for local mode. Each counter is a striped {@link LongAdder}, so
+ * concurrent adjustments of a hot counter do not contend. Counters expire a fixed time after
+ * they were initialized, which bounds how long any drift from the source can last.
+ */
+public class LocalCounterStore implements CounterStore {
+
+    private final Cache<String, LongAdder> counters;
+
+    public LocalCounterStore(long maximumSize, Duration timeToLive) {
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    @Override
+    public Long get(String key) {
+        LongAdder counter = counters.getIfPresent(key);
+        return counter != null ? counter.sum() : null;
+    }
+
+    @Override
+    public void setIfAbsent(String key, long value) {
+        counters.asMap().computeIfAbsent(key, k -> {
+            LongAdder counter = new LongAdder();
+            counter.add(value);
+            return counter;
+        });
+    }
+
+    @Override
+    public void addIfPresent(Collection<String> keys, long delta) {
+        for (String key : keys) {
+            LongAdder counter = counters.getIfPresent(key);
+            if (counter != null) {
+                counter.add(delta);
+            }
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        counters.invalidate(key);
+    }
+}
@@ -0,0 +1,60 @@
+package com.edusmart.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Invalidation bus over Redis pub/sub. Messages have the form
+ * {@code nodeId|E|cacheName|key} for a single key or {@code nodeId|C|cacheName|} for a clear;
+ * a node ignores the messages it published itself.
+ */
+@Slf4j
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, MessageListener {
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile TwoTierCacheManager cacheManager;
+
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * Attach the cache manager whose local tier receives invalidations from other nodes
+     */
+    public void bind(TwoTierCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        String message = String.join("|", nodeId, key != null ? EVICT : CLEAR, cacheName, key != null ? key : "");
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            // Other nodes fall back to the L1 time-to-live
+            log.warn("Failed to publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        TwoTierCacheManager manager = cacheManager;
+        if (parts.length < 4 || manager == null || nodeId.equals(parts[0])) {
+            return;
+        }
+        manager.applyRemoteInvalidation(parts[2], CLEAR.equals(parts[1]) ? null : parts[3]);
+    }
+}
@@ -0,0 +1,80 @@
+package com.edusmart.cache;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tag index shared by all nodes, kept as one Redis set of keys per tag.
+ * Each set expires with the longest-lived entry it could point to.
+ */
+public class RedisCacheTagIndex implements CacheTagIndex {
+
+    private static final String PREFIX = "edusmart:cache-tags:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration timeToLive;
+
+    public RedisCacheTagIndex(StringRedisTemplate redisTemplate, Duration timeToLive) {
+        this.redisTemplate = redisTemplate;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public void tag(String cacheName, String key, Collection<String> tags) {
+        RedisSerializer<String> serializer = redisTemplate.getStringSerializer();
+        byte[] member = serializer.serialize(key);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String tag : tags) {
+                byte[] indexKey = serializer.serialize(indexKey(cacheName, tag));
+                connection.setCommands().sAdd(indexKey, member);
+                connection.keyCommands().expire(indexKey, timeToLive.toSeconds());
+            }
+            return null;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> removeTag(String cacheName, String tag) {
+        String indexKey = indexKey(cacheName, tag);
+        String generationKey = generationKey(cacheName);
+        // Advance the generation, read and delete atomically so a key tagged concurrently is not lost
+        List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                K key = (K) indexKey;
+                operations.multi();
+                operations.opsForValue().increment((K) generationKey);
+                operations.opsForSet().members(key);
+                operations.delete(key);
+                return operations.exec();
+            }
+        });
+        if (results == null || results.size() < 2 || !(results.get(1) instanceof Set<?> members)) {
+            return Set.of();
+        }
+        return (Set<String>) members;
+    }
+
+    @Override
+    public long generation(String cacheName) {
+        String generation = redisTemplate.opsForValue().get(generationKey(cacheName));
+        return generation != null ? Long.parseLong(generation) : 0;
+    }
+
+    private static String indexKey(String cacheName, String tag) {
+        return PREFIX + cacheName + "::" + tag;
+    }
+
+    private static String generationKey(String cacheName) {
+        return PREFIX + cacheName + ":generation";
+    }
+}
@@ -0,0 +1,65 @@
+package com.edusmart.cache;
+
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Counters shared by all nodes, one Redis string per counter adjusted with INCRBY.
+ * A script increments only existing keys, so an expired counter is reloaded rather than
+ * recreated from a delta. Keys expire a fixed time after they were initialized.
+ */
+public class RedisCounterStore implements CounterStore {
+
+    private static final String PREFIX = "edusmart:counters:";
+
+    private static final byte[] INCREMENT_IF_EXISTS = (
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "return redis.call('INCRBY', KEYS[1], ARGV[1]) end " +
+            "return nil").getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration timeToLive;
+
+    public RedisCounterStore(StringRedisTemplate redisTemplate, Duration timeToLive) {
+        this.redisTemplate = redisTemplate;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public Long get(String key) {
+        String value = redisTemplate.opsForValue().get(PREFIX + key);
+        return value != null ? Long.parseLong(value) : null;
+    }
+
+    @Override
+    public void setIfAbsent(String key, long value) {
+        redisTemplate.opsForValue().setIfAbsent(PREFIX + key, Long.toString(value), timeToLive);
+    }
+
+    @Override
+    public void addIfPresent(Collection<String> keys, long delta) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        RedisSerializer<String> serializer = redisTemplate.getStringSerializer();
+        byte[] amount = serializer.serialize(Long.toString(delta));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.scriptingCommands().eval(INCREMENT_IF_EXISTS, ReturnType.INTEGER, 1,
+                        serializer.serialize(PREFIX + key), amount);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(String key) {
+        redisTemplate.delete(PREFIX + key);
+    }
+}
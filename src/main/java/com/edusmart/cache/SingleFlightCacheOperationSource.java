@@ -0,0 +1,67 @@
+package com.edusmart.cache;
+
+import org.springframework.cache.interceptor.CacheOperation;
+import org.springframework.cache.interceptor.CacheOperationSource;
+import org.springframework.cache.interceptor.CacheableOperation;
+import org.springframework.core.MethodClassKey;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Treats every eligible {@code @Cacheable} as {@code sync = true}, so misses go through
+ * {@link org.springframework.cache.Cache#get(Object, java.util.concurrent.Callable)} where
+ * {@link TwoTierCache} coalesces concurrent loads and refreshes hot entries early.
+ * Operations that cannot be synchronized (an {@code unless} clause, several caches,
+ * or other cache operations on the same method) are left unchanged.
+ */
+public class SingleFlightCacheOperationSource implements CacheOperationSource {
+
+    private static final List<CacheOperation> NONE = List.of();
+
+    private final CacheOperationSource delegate;
+    private final Map<MethodClassKey, Collection<CacheOperation>> operations = new ConcurrentHashMap<>();
+
+    public SingleFlightCacheOperationSource(CacheOperationSource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isCandidateClass(Class<?> targetClass) {
+        return delegate.isCandidateClass(targetClass);
+    }
+
+    @Override
+    @Nullable
+    public Collection<CacheOperation> getCacheOperations(Method method, @Nullable Class<?> targetClass) {
+        Collection<CacheOperation> result = operations.computeIfAbsent(new MethodClassKey(method, targetClass), key -> {
+            Collection<CacheOperation> original = delegate.getCacheOperations(method, targetClass);
+            return original != null ? synchronize(original) : NONE;
+        });
+        return result != NONE ? result : null;
+    }
+
+    private static Collection<CacheOperation> synchronize(Collection<CacheOperation> original) {
+        if (original.size() != 1 || !(original.iterator().next() instanceof CacheableOperation cacheable)
+                || cacheable.isSync() || StringUtils.hasText(cacheable.getUnless())
+                || cacheable.getCacheNames().size() != 1) {
+            return original;
+        }
+
+        CacheableOperation.Builder builder = new CacheableOperation.Builder();
+        builder.setName(cacheable.getName());
+        builder.setCacheNames(cacheable.getCacheNames().toArray(String[]::new));
+        builder.setKey(cacheable.getKey());
+        builder.setKeyGenerator(cacheable.getKeyGenerator());
+        builder.setCacheManager(cacheable.getCacheManager());
+        builder.setCacheResolver(cacheable.getCacheResolver());
+        builder.setCondition(cacheable.getCondition());
+        builder.setSync(true);
+        return List.of(builder.build());
+    }
+}
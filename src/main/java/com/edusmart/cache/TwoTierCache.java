@@ -0,0 +1,302 @@
+package com.edusmart.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache with a bounded in-process L1 in front of an optional shared L2 (Redis).
+ * Reads are served from L1 when possible and fall back to L2, copying hits into L1.
+ * Writes and evictions go to both tiers and are broadcast so other nodes drop their L1 copy.
+ * Without an L2 the cache behaves as a plain bounded local cache.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} are coalesced per key on each node, and a hot
+ * entry is refreshed early with a probability that grows as it approaches expiry (XFetch),
+ * so callers keep getting the current value while a single caller reloads it.
+ */
+@Slf4j
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final long timeToLiveMillis;
+    private final double earlyRefreshBeta;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder remoteEvictions = new LongAdder();
+    private final LongAdder invalidationsPublished = new LongAdder();
+    private final LongAdder invalidationsReceived = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+
+    public TwoTierCache(String name,
+                        com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                        @Nullable Cache remote,
+                        CacheInvalidationBus invalidationBus,
+                        Duration timeToLive,
+                        double earlyRefreshBeta) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    @Nullable
+    protected Object lookup(Object key) {
+        CachedValue entry = lookupEntry(key, localKey(key));
+        return entry != null ? entry.getValue() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        CachedValue entry = lookupEntry(key, localKey);
+        if (entry == null) {
+            return (T) load(key, localKey, valueLoader);
+        }
+        if (inFlight.containsKey(localKey) || !shouldRefreshEarly(entry)) {
+            return (T) fromStoreValue(entry.getValue());
+        }
+
+        earlyRefreshes.increment();
+        try {
+            return (T) load(key, localKey, valueLoader);
+        } catch (ValueRetrievalException e) {
+            // The current value is still valid, so a failed early refresh is not the caller's problem
+            log.warn("Early refresh of {} in cache {} failed: {}", key, name, e.getCause().getMessage());
+            return (T) fromStoreValue(entry.getValue());
+        }
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        store(key, new CachedValue(toStoreValue(value), System.currentTimeMillis(), 0));
+        publish(localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (remote != null) {
+            remote.evict(key);
+            remoteEvictions.increment();
+        }
+        local.invalidate(localKey(key));
+        publish(localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean removed = false;
+        if (remote != null) {
+            removed = remote.evictIfPresent(key);
+            remoteEvictions.increment();
+        }
+        removed |= local.asMap().remove(localKey(key)) != null;
+        publish(localKey(key));
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        if (remote != null) {
+            remote.clear();
+            remoteEvictions.increment();
+        }
+        local.invalidateAll();
+        publish(null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = local.estimatedSize() > 0;
+        if (remote != null) {
+            notEmpty |= remote.invalidate();
+            remoteEvictions.increment();
+        }
+        local.invalidateAll();
+        publish(null);
+        return notEmpty;
+    }
+
+    /**
+     * Drop L1 entries after another node changed them; a null key clears the whole L1
+     */
+    void applyRemoteInvalidation(@Nullable String key) {
+        invalidationsReceived.increment();
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    boolean hasRemote() {
+        return remote != null;
+    }
+
+    CacheStats localStats() {
+        return local.stats();
+    }
+
+    long localSize() {
+        return local.estimatedSize();
+    }
+
+    long remoteHitCount() {
+        return remoteHits.sum();
+    }
+
+    long remoteMissCount() {
+        return remoteMisses.sum();
+    }
+
+    long remoteEvictionCount() {
+        return remoteEvictions.sum();
+    }
+
+    long invalidationsPublishedCount() {
+        return invalidationsPublished.sum();
+    }
+
+    long invalidationsReceivedCount() {
+        return invalidationsReceived.sum();
+    }
+
+    long loadCount() {
+        return loads.sum();
+    }
+
+    long coalescedLoadCount() {
+        return coalescedLoads.sum();
+    }
+
+    long earlyRefreshCount() {
+        return earlyRefreshes.sum();
+    }
+
+    @Nullable
+    private CachedValue lookupEntry(Object key, String localKey) {
+        Object value = local.getIfPresent(localKey);
+        if (value != null || remote == null) {
+            return (CachedValue) value;
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        value = wrapper != null ? wrapper.get() : null;
+        if (value == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        // Entries written before load metadata was kept are treated as freshly loaded
+        CachedValue entry = value instanceof CachedValue cached
+                ? cached
+                : new CachedValue(value, System.currentTimeMillis(), 0);
+        local.put(localKey, entry);
+        return entry;
+    }
+
+    /**
+     * Run the loader once per key on this node; concurrent callers wait for its result
+     */
+    private Object load(Object key, String localKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> loading = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey, loading);
+        if (existing != null) {
+            coalescedLoads.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            loads.increment();
+            long start = System.currentTimeMillis();
+            Object value = valueLoader.call();
+            long end = System.currentTimeMillis();
+            // A freshly loaded value cannot make another node's L1 stale, so it is not broadcast
+            if (value != null) {
+                store(key, new CachedValue(toStoreValue(value), end, end - start));
+            }
+            loading.complete(value);
+            return value;
+        } catch (Exception e) {
+            loading.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(localKey, loading);
+        }
+    }
+
+    private void store(Object key, CachedValue entry) {
+        if (remote != null) {
+            remote.put(key, entry);
+        }
+        local.put(localKey(key), entry);
+    }
+
+    /**
+     * XFetch: refresh when {@code now - loadTime * beta * ln(random)} passes the expiry time.
+     * Slow loads start refreshing earlier, and the chance rises sharply near expiry.
+     */
+    private boolean shouldRefreshEarly(CachedValue entry) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        long expiresAt = entry.getLoadedAt() + timeToLiveMillis;
+        double gap = -Math.max(entry.getLoadMillis(), 1) * earlyRefreshBeta
+                * Math.log(ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0));
+        return System.currentTimeMillis() + gap >= expiresAt;
+    }
+
+    private void publish(@Nullable String key) {
+        if (invalidationBus == CacheInvalidationBus.NONE) {
+            return;
+        }
+        invalidationsPublished.increment();
+        invalidationBus.publish(name, key);
+    }
+
+    // Redis stores keys in their string form, so L1 uses the same form to match invalidations
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,137 @@
+package com.edusmart.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Cache manager building {@link TwoTierCache}s: a size-bounded Caffeine L1 per node in front of
+ * the caches of an optional L2 manager (Redis). Without an L2 manager it runs in local mode,
+ * which keeps the same abstraction for development and single-node setups.
+ * Per-tier hit, miss and eviction counts are registered as {@code cache.tier.*} meters,
+ * and loads, coalesced loads and early refreshes as {@code cache.loads}.
+ */
+public class TwoTierCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final Collection<String> initialCacheNames;
+    private final long localMaximumSize;
+    private final Duration localTimeToLive;
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, TwoTierCache> twoTierCaches = new ConcurrentHashMap<>();
+
+    private double earlyRefreshBeta = 1.0;
+
+    public TwoTierCacheManager(Collection<String> initialCacheNames,
+                               long localMaximumSize,
+                               Duration localTimeToLive,
+                               @Nullable CacheManager remoteCacheManager,
+                               CacheInvalidationBus invalidationBus,
+                               @Nullable MeterRegistry meterRegistry) {
+        this.initialCacheNames = List.copyOf(initialCacheNames);
+        this.localMaximumSize = localMaximumSize;
+        this.localTimeToLive = localTimeToLive;
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Weight of the probabilistic early refresh; larger values refresh earlier, 0 disables it
+     */
+    public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return initialCacheNames.stream().map(this::createCache).toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    /**
+     * Apply an invalidation published by another node to the local tier only
+     */
+    public void applyRemoteInvalidation(String cacheName, @Nullable String key) {
+        TwoTierCache cache = twoTierCaches.get(cacheName);
+        if (cache != null) {
+            cache.applyRemoteInvalidation(key);
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        return twoTierCaches.computeIfAbsent(name, cacheName -> {
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                    .maximumSize(localMaximumSize)
+                    .expireAfterWrite(localTimeToLive)
+                    .recordStats()
+                    .build();
+            Cache remote = remoteCacheManager != null ? remoteCacheManager.getCache(cacheName) : null;
+            TwoTierCache cache = new TwoTierCache(cacheName, local, remote, invalidationBus,
+                    entryTimeToLive(remote), earlyRefreshBeta);
+            if (meterRegistry != null) {
+                bindMetrics(cache);
+            }
+            return cache;
+        });
+    }
+
+    // Entries live as long as the tier that outlasts the other, which is Redis when present
+    private Duration entryTimeToLive(@Nullable Cache remote) {
+        if (remote instanceof RedisCache redisCache) {
+            Duration ttl = redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(Object.class, null);
+            if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+                return ttl;
+            }
+        }
+        return localTimeToLive;
+    }
+
+    private void bindMetrics(TwoTierCache cache) {
+        Tags tags = Tags.of("cache", cache.getName());
+
+        counter("cache.tier.gets", cache, c -> c.localStats().hitCount(), tags.and("tier", "l1", "result", "hit"));
+        counter("cache.tier.gets", cache, c -> c.localStats().missCount(), tags.and("tier", "l1", "result", "miss"));
+        counter("cache.tier.evictions", cache, c -> c.localStats().evictionCount(), tags.and("tier", "l1"));
+        Gauge.builder("cache.tier.size", cache, TwoTierCache::localSize)
+                .tags(tags.and("tier", "l1"))
+                .register(meterRegistry);
+        counter("cache.loads", cache, TwoTierCache::loadCount, tags.and("result", "loaded"));
+        counter("cache.loads", cache, TwoTierCache::coalescedLoadCount, tags.and("result", "coalesced"));
+        counter("cache.loads", cache, TwoTierCache::earlyRefreshCount, tags.and("result", "early-refresh"));
+
+        if (cache.hasRemote()) {
+            counter("cache.tier.gets", cache, TwoTierCache::remoteHitCount, tags.and("tier", "l2", "result", "hit"));
+            counter("cache.tier.gets", cache, TwoTierCache::remoteMissCount, tags.and("tier", "l2", "result", "miss"));
+            counter("cache.tier.evictions", cache, TwoTierCache::remoteEvictionCount, tags.and("tier", "l2"));
+            counter("cache.tier.invalidations", cache, TwoTierCache::invalidationsPublishedCount,
+                    tags.and("direction", "published"));
+            counter("cache.tier.invalidations", cache, TwoTierCache::invalidationsReceivedCount,
+                    tags.and("direction", "received"));
+        }
+    }
+
+    private void counter(String name, TwoTierCache cache, ToDoubleFunction<TwoTierCache> count, Tags tags) {
+        FunctionCounter.builder(name, cache, count).tags(tags).register(meterRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.edusmart.config;
+
+import com.edusmart.cache.SingleFlightCacheOperationSource;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache Configuration shared by the local and Redis cache setups
+ */
+@Configuration
+public class CacheConfig {
+    
+    /**
+     * Route every eligible @Cacheable through the coalescing load path of the cache.
+     * The interceptor is created with the proxy infrastructure, ahead of regular
+     * post-processors, so its operation source is wrapped once all singletons exist.
+     */
+    @Bean
+    public SmartInitializingSingleton singleFlightCacheOperations(CacheInterceptor cacheInterceptor) {
+        return () -> {
+            if (cacheInterceptor.getCacheOperationSource() != null
+                    && !(cacheInterceptor.getCacheOperationSource() instanceof SingleFlightCacheOperationSource)) {
+                cacheInterceptor.setCacheOperationSource(
+                        new SingleFlightCacheOperationSource(cacheInterceptor.getCacheOperationSource()));
+            }
+        };
+    }
+}
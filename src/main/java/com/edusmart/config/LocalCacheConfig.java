@@ -0,0 +1,66 @@
+package com.edusmart.config;
+
+import com.edusmart.cache.CacheInvalidationBus;
+import com.edusmart.cache.CacheTagIndex;
+import com.edusmart.cache.CounterStore;
+import com.edusmart.cache.LocalCacheTagIndex;
+import com.edusmart.cache.LocalCounterStore;
+import com.edusmart.cache.TwoTierCacheManager;
+import com.edusmart.security.LocalTokenDenylist;
+import com.edusmart.security.TokenDenylist;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Local Cache Configuration
+ * Uses the two-tier cache manager in local mode (in-process tier only, no Redis)
+ * Only active when spring.cache.type=simple
+ */
+@Configuration
+@ConditionalOnProperty(
+    name = "spring.cache.type",
+    havingValue = "simple"
+)
+public class LocalCacheConfig {
+    
+    @Bean
+    public CacheManager cacheManager(MeterRegistry meterRegistry,
+                                     @Value("${cache.local.maximum-size:1000}") long localMaximumSize,
+                                     @Value("${cache.local.time-to-live-ms:60000}") long localTimeToLiveMs,
+                                     @Value("${cache.early-refresh.beta:1.0}") double earlyRefreshBeta) {
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(
+            List.of("courses", "users", "enrollments"),
+            localMaximumSize,
+            Duration.ofMillis(localTimeToLiveMs),
+            null,
+            CacheInvalidationBus.NONE,
+            meterRegistry
+        );
+        cacheManager.setTransactionAware(true);
+        cacheManager.setEarlyRefreshBeta(earlyRefreshBeta);
+        return cacheManager;
+    }
+    
+    @Bean
+    public CacheTagIndex cacheTagIndex(@Value("${cache.local.time-to-live-ms:60000}") long localTimeToLiveMs) {
+        return new LocalCacheTagIndex(Duration.ofMillis(localTimeToLiveMs));
+    }
+    
+    @Bean
+    public CounterStore counterStore(@Value("${cache.counters.maximum-size:100000}") long maximumSize,
+                                     @Value("${cache.counters.time-to-live-ms:600000}") long timeToLiveMs) {
+        return new LocalCounterStore(maximumSize, Duration.ofMillis(timeToLiveMs));
+    }
+    
+    @Bean
+    public TokenDenylist tokenDenylist() {
+        return new LocalTokenDenylist();
+    }
+}
@@ -1,9 +1,18 @@
 package com.edusmart.config;
 
+import com.edusmart.cache.CacheTagIndex;
+import com.edusmart.cache.CounterStore;
+import com.edusmart.cache.RedisCacheInvalidationBus;
+import com.edusmart.cache.RedisCacheTagIndex;
+import com.edusmart.cache.RedisCounterStore;
+import com.edusmart.cache.TwoTierCacheManager;
+import com.edusmart.security.RedisTokenDenylist;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -12,15 +21,19 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Redis Cache Configuration
- * Configures Redis as the caching provider with proper serialization
+ * Configures a two-tier cache with Redis as the shared tier and proper serialization
  * Only active when spring.cache.type=redis
  */
 @Configuration
@@ -32,10 +45,16 @@ import java.time.Duration;
 public class RedisConfig {
     
     /**
-     * Configure Redis Cache Manager with TTL settings
+     * Two-tier cache manager: a bounded in-process L1 per node in front of Redis (L2).
+     * Evictions are broadcast over pub/sub so every node drops its L1 copy.
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisCacheInvalidationBus cacheInvalidationBus,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${cache.local.maximum-size:1000}") long localMaximumSize,
+                                     @Value("${cache.local.time-to-live-ms:60000}") long localTimeToLiveMs,
+                                     @Value("${cache.early-refresh.beta:1.0}") double earlyRefreshBeta) {
         // Create ObjectMapper for JSON serialization
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -61,19 +80,75 @@ public class RedisConfig {
             )
             .disableCachingNullValues();
         
-        return RedisCacheManager.builder(connectionFactory)
+        // Transaction awareness is applied once, on the two-tier manager
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(defaultConfig)
-            .withCacheConfiguration("courses", 
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(30))) // Courses cache: 30 min
-            .withCacheConfiguration("users", 
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(15))) // Users cache: 15 min
-            .withCacheConfiguration("enrollments", 
-                RedisCacheConfiguration.defaultCacheConfig()
-                    .entryTtl(Duration.ofMinutes(10))) // Enrollments cache: 10 min
-            .transactionAware()
+            .withCacheConfiguration("courses", defaultConfig.entryTtl(Duration.ofMinutes(30))) // Courses cache: 30 min
+            .withCacheConfiguration("users", defaultConfig.entryTtl(Duration.ofMinutes(15))) // Users cache: 15 min
+            .withCacheConfiguration("enrollments", defaultConfig.entryTtl(Duration.ofMinutes(10))) // Enrollments cache: 10 min
             .build();
+        redisCacheManager.initializeCaches();
+        
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(
+            List.of("courses", "users", "enrollments"),
+            localMaximumSize,
+            Duration.ofMillis(localTimeToLiveMs),
+            redisCacheManager,
+            cacheInvalidationBus,
+            meterRegistry
+        );
+        cacheManager.setTransactionAware(true);
+        cacheManager.setEarlyRefreshBeta(earlyRefreshBeta);
+        cacheInvalidationBus.bind(cacheManager);
+        return cacheManager;
+    }
+    
+    /**
+     * Publishes and receives L1 invalidations over Redis pub/sub
+     */
+    @Bean
+    public RedisCacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+                                                          @Value("${cache.invalidation.channel:edusmart:cache:invalidation}") String channel) {
+        return new RedisCacheInvalidationBus(stringRedisTemplate, channel);
+    }
+    
+    /**
+     * Shared index of cache tags; entries live as long as the longest cache TTL
+     */
+    @Bean
+    public CacheTagIndex cacheTagIndex(StringRedisTemplate stringRedisTemplate) {
+        return new RedisCacheTagIndex(stringRedisTemplate, Duration.ofHours(1));
+    }
+    
+    /**
+     * Atomic counters shared by all nodes
+     */
+    @Bean
+    public CounterStore counterStore(StringRedisTemplate stringRedisTemplate,
+                                     @Value("${cache.counters.time-to-live-ms:600000}") long timeToLiveMs) {
+        return new RedisCounterStore(stringRedisTemplate, Duration.ofMillis(timeToLiveMs));
+    }
+    
+    /**
+     * Token denylist checked locally and mirrored to every node through Redis
+     */
+    @Bean
+    public RedisTokenDenylist tokenDenylist(StringRedisTemplate stringRedisTemplate,
+                                            @Value("${security.token-denylist.channel:edusmart:tokens:revoked}") String channel) {
+        return new RedisTokenDenylist(stringRedisTemplate, channel);
+    }
+    
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            RedisCacheInvalidationBus cacheInvalidationBus,
+                                                                            RedisTokenDenylist tokenDenylist,
+                                                                            @Value("${cache.invalidation.channel:edusmart:cache:invalidation}") String channel,
+                                                                            @Value("${security.token-denylist.channel:edusmart:tokens:revoked}") String denylistChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(channel));
+        container.addMessageListener(tokenDenylist, new ChannelTopic(denylistChannel));
+        return container;
     }
     
     /**
@@ -1,10 +1,27 @@
 package com.edusmart.config;
 
+import com.edusmart.messaging.LocalStompRelay;
+import com.edusmart.messaging.RedisStompRelay;
+import com.edusmart.messaging.StompRelayBridge;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * WebSocket Configuration for Real-Time Features
@@ -14,6 +31,39 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    private final StompRelayBridge stompRelayBridge;
+    
+    @Value("${websocket.inbound.core-pool-size:4}")
+    private int inboundCorePoolSize;
+    
+    @Value("${websocket.inbound.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+    
+    @Value("${websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+    
+    @Value("${websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+    
+    @Value("${websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+    
+    @Value("${websocket.outbound.queue-capacity:5000}")
+    private int outboundQueueCapacity;
+    
+    @Value("${websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+    
+    @Value("${websocket.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+    
+    @Value("${websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+    
+    public WebSocketConfig(@Lazy StompRelayBridge stompRelayBridge) {
+        this.stompRelayBridge = stompRelayBridge;
+    }
+    
     /**
      * Configure message broker for pub/sub messaging
      */
@@ -24,6 +74,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Prefix "/queue" for user-specific messages
         config.enableSimpleBroker("/topic", "/queue");
         
+        // Frames to a session go out in the order they were published, despite the outbound pool
+        config.setPreservePublishOrder(true);
+        
+        // Messages published on this node are relayed to the brokers of the other nodes
+        config.configureBrokerChannel().interceptors(stompRelayBridge);
+        
         // Prefix for messages bound for @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
         
@@ -44,5 +100,74 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Alternative endpoint without SockJS
         registry.addEndpoint("/ws-native")
                 .setAllowedOriginPatterns("*");
+        
+        // Frames from a session are handled in the order they were sent, so chat messages keep their order
+        registry.setPreserveReceiveOrder(true);
+    }
+    
+    /**
+     * Bounded pool for frames sent by clients; client SENDs to broker destinations are relayed too
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompRelayBridge);
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+    
+    /**
+     * Bounded pool for frames sent to clients
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+    
+    /**
+     * A client that cannot keep up is disconnected once a send blocks for longer than the time
+     * limit or its buffered frames exceed the buffer limit, instead of holding outbound threads
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+    
+    /**
+     * Relay between nodes of the same JVM; forwards nothing on a single node
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "websocket.relay.type", havingValue = "local", matchIfMissing = true)
+    public LocalStompRelay localStompRelay() {
+        return new LocalStompRelay();
+    }
+    
+    /**
+     * Relay between nodes over Redis pub/sub
+     */
+    @Bean
+    @ConditionalOnProperty(name = "websocket.relay.type", havingValue = "redis")
+    public RedisStompRelay redisStompRelay(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+                                           @Value("${websocket.relay.channel-prefix:edusmart:stomp}") String channelPrefix,
+                                           @Value("${websocket.relay.user-time-to-live-ms:180000}") long userTimeToLiveMs) {
+        return new RedisStompRelay(stringRedisTemplate, objectMapper, channelPrefix, Duration.ofMillis(userTimeToLiveMs));
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "websocket.relay.type", havingValue = "redis")
+    public RedisMessageListenerContainer stompRelayListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     RedisStompRelay redisStompRelay) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(redisStompRelay, List.of(
+                new ChannelTopic(redisStompRelay.getBroadcastChannel()),
+                new ChannelTopic(redisStompRelay.getNodeChannel())));
+        return container;
     }
 }
@@ -3,6 +3,7 @@ package com.edusmart.controller;
 import com.edusmart.dto.admin.DashboardStatsDTO;
 import com.edusmart.dto.admin.TopCourseDTO;
 import com.edusmart.dto.admin.TopInstructorDTO;
+import com.edusmart.entity.enums.LeaderboardMetric;
 import com.edusmart.service.AdminAnalyticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -38,8 +39,9 @@ public class AdminDashboardController {
      */
     @GetMapping("/top-courses")
     public ResponseEntity<List<TopCourseDTO>> getTopCourses(
-            @RequestParam(defaultValue = "10") int limit) {
-        List<TopCourseDTO> topCourses = analyticsService.getTopCourses(limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "REVENUE") LeaderboardMetric metric) {
+        List<TopCourseDTO> topCourses = analyticsService.getTopCourses(metric, limit);
         return ResponseEntity.ok(topCourses);
     }
     
@@ -48,8 +50,9 @@ public class AdminDashboardController {
      */
     @GetMapping("/top-instructors")
     public ResponseEntity<List<TopInstructorDTO>> getTopInstructors(
-            @RequestParam(defaultValue = "10") int limit) {
-        List<TopInstructorDTO> topInstructors = analyticsService.getTopInstructors(limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "REVENUE") LeaderboardMetric metric) {
+        List<TopInstructorDTO> topInstructors = analyticsService.getTopInstructors(metric, limit);
         return ResponseEntity.ok(topInstructors);
     }
     
@@ -2,6 +2,7 @@ package com.edusmart.controller;
 
 import com.edusmart.dto.assessment.*;
 import com.edusmart.service.AssessmentService;
+import com.edusmart.service.RegradeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -24,6 +25,7 @@ import java.util.List;
 public class AssessmentController {
     
     private final AssessmentService assessmentService;
+    private final RegradeService regradeService;
     
     /**
      * Create a new assessment
@@ -50,6 +52,42 @@ public class AssessmentController {
         return ResponseEntity.ok(assessment);
     }
     
+    /**
+     * Replace the correct options of a question
+     */
+    @PutMapping("/{assessmentId}/questions/{questionId}/correct-options")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<AssessmentResponseDTO> updateCorrectOptions(
+            @PathVariable Long assessmentId,
+            @PathVariable Long questionId,
+            @Valid @RequestBody CorrectOptionsRequestDTO request,
+            Authentication authentication) {
+        AssessmentResponseDTO assessment = assessmentService.updateCorrectOptions(
+                assessmentId, questionId, request, authentication.getName());
+        return ResponseEntity.ok(assessment);
+    }
+    
+    /**
+     * Re-grade all submissions of an assessment in the background
+     */
+    @PostMapping("/{assessmentId}/regrade")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<RegradeJobDTO> regrade(
+            @PathVariable Long assessmentId,
+            Authentication authentication) {
+        RegradeJobDTO job = regradeService.startRegrade(assessmentId, authentication.getName());
+        return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+    }
+    
+    /**
+     * Get the progress of a re-grade job
+     */
+    @GetMapping("/regrade-jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    public ResponseEntity<RegradeJobDTO> getRegradeJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(regradeService.getJob(jobId));
+    }
+    
     /**
      * Get assessment by ID
      */
@@ -5,6 +5,7 @@ import com.edusmart.dto.auth.LoginRequest;
 import com.edusmart.dto.auth.RefreshTokenRequest;
 import com.edusmart.dto.auth.RegisterRequest;
 import com.edusmart.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,7 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 /**
  * Authentication REST Controller
- * Handles user registration, login, and token refresh
+ * Handles user registration, login, logout, and token refresh
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -38,8 +39,9 @@ public class AuthController {
      * POST /api/auth/login
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                              HttpServletRequest httpRequest) {
+        AuthResponse response = authService.login(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
     
@@ -53,6 +55,16 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Logout, revoking the session of the refresh token
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request);
+        return ResponseEntity.ok("Logged out successfully");
+    }
+    
     /**
      * Health check endpoint
      * GET /api/auth/health
@@ -0,0 +1,45 @@
+package com.edusmart.controller;
+
+import com.edusmart.dto.chat.ChatMessageDTO;
+import com.edusmart.dto.common.CursorPageDTO;
+import com.edusmart.entity.enums.ChatRoomType;
+import com.edusmart.service.ChatHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the history of live discussion and course chats
+ */
+@RestController
+@RequestMapping("/api/chat")
+@RequiredArgsConstructor
+public class ChatHistoryController {
+    
+    private final ChatHistoryService chatHistoryService;
+    
+    /**
+     * Discussion chat newest first; pass nextCursor back as cursor to load earlier messages
+     */
+    @GetMapping("/discussions/{discussionId}/messages")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPageDTO<ChatMessageDTO>> getDiscussionMessages(
+            @PathVariable Long discussionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(chatHistoryService.history(ChatRoomType.DISCUSSION, discussionId, cursor, size));
+    }
+    
+    /**
+     * Course chat newest first; pass nextCursor back as cursor to load earlier messages
+     */
+    @GetMapping("/courses/{courseId}/messages")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPageDTO<ChatMessageDTO>> getCourseMessages(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(chatHistoryService.history(ChatRoomType.COURSE, courseId, cursor, size));
+    }
+}
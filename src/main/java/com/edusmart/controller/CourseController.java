@@ -1,6 +1,9 @@
 package com.edusmart.controller;
 
+import com.edusmart.dto.common.CursorPageDTO;
 import com.edusmart.dto.course.*;
+import com.edusmart.entity.CourseLevel;
+import com.edusmart.entity.enums.PriceBand;
 import com.edusmart.security.UserPrincipal;
 import com.edusmart.service.CourseService;
 import jakarta.validation.Valid;
@@ -82,18 +85,46 @@ public class CourseController {
         return ResponseEntity.ok(courses);
     }
     
+    /**
+     * Scroll published courses newest first; pass nextCursor back as cursor for the next slice
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<CourseListDTO>> scrollCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        CursorPageDTO<CourseListDTO> courses = courseService.scrollCourses(cursor, size);
+        return ResponseEntity.ok(courses);
+    }
+    
     /**
      * Search courses
      */
     @GetMapping("/search")
-    public ResponseEntity<Page<CourseListDTO>> searchCourses(
-            @RequestParam String keyword,
+    public ResponseEntity<CourseSearchResultDTO> searchCourses(
+            @RequestParam(defaultValue = "") String keyword,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) CourseLevel level,
+            @RequestParam(required = false) PriceBand priceBand,
+            @RequestParam(required = false) Double minRating,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<CourseListDTO> courses = courseService.searchCourses(keyword, pageable);
-        return ResponseEntity.ok(courses);
+        CourseSearchResultDTO results = courseService.searchCourses(keyword, categoryId, level, priceBand, minRating, pageable);
+        return ResponseEntity.ok(results);
+    }
+    
+    /**
+     * Search-as-you-type suggestions over course titles, categories and instructors
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CourseSuggestionDTO>> autocomplete(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        
+        List<CourseSuggestionDTO> suggestions = courseService.autocomplete(query, limit);
+        return ResponseEntity.ok(suggestions);
     }
     
     /**
@@ -1,5 +1,6 @@
 package com.edusmart.controller;
 
+import com.edusmart.dto.common.CursorPageDTO;
 import com.edusmart.dto.discussion.*;
 import com.edusmart.service.DiscussionService;
 import jakarta.validation.Valid;
@@ -61,6 +62,19 @@ public class DiscussionController {
         return ResponseEntity.ok(discussions);
     }
     
+    /**
+     * Scroll discussions for a course; pass nextCursor back as cursor for the next slice
+     */
+    @GetMapping("/course/{courseId}/scroll")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPageDTO<DiscussionListDTO>> scrollCourseDiscussions(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageDTO<DiscussionListDTO> discussions = discussionService.scrollCourseDiscussions(courseId, cursor, size);
+        return ResponseEntity.ok(discussions);
+    }
+    
     /**
      * Add reply to discussion
      */
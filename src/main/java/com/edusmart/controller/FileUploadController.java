@@ -1,19 +1,20 @@
 package com.edusmart.controller;
 
 import com.edusmart.dto.file.FileUploadResponseDTO;
-import com.edusmart.entity.FileUpload;
 import com.edusmart.security.UserPrincipal;
 import com.edusmart.service.FileStorageService;
+import com.edusmart.service.FileStreamingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+
 /**
  * REST controller for file operations
  */
@@ -23,6 +24,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class FileUploadController {
     
     private final FileStorageService fileStorageService;
+    private final FileStreamingService fileStreamingService;
     
     /**
      * Upload file
@@ -78,33 +80,21 @@ public class FileUploadController {
     }
     
     /**
-     * Download file
+     * Download file, honouring Range and conditional request headers
      */
     @GetMapping("/download/{fileId}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable Long fileId) {
-        FileUpload fileUpload = fileStorageService.getFileById(fileId);
-        Resource resource = fileStorageService.downloadFile(fileId);
-        
-        return ResponseEntity.ok()
-            .contentType(MediaType.parseMediaType(fileUpload.getContentType()))
-            .header(HttpHeaders.CONTENT_DISPOSITION, 
-                "attachment; filename=\"" + fileUpload.getOriginalFileName() + "\"")
-            .body(resource);
+    public void downloadFile(@PathVariable Long fileId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        fileStreamingService.serve(fileId, true, request, response);
     }
     
     /**
-     * View file (inline)
+     * View or stream file (inline), e.g. seekable lesson video
      */
-    @GetMapping("/view/{fileId}")
-    public ResponseEntity<Resource> viewFile(@PathVariable Long fileId) {
-        FileUpload fileUpload = fileStorageService.getFileById(fileId);
-        Resource resource = fileStorageService.downloadFile(fileId);
-        
-        return ResponseEntity.ok()
-            .contentType(MediaType.parseMediaType(fileUpload.getContentType()))
-            .header(HttpHeaders.CONTENT_DISPOSITION, 
-                "inline; filename=\"" + fileUpload.getOriginalFileName() + "\"")
-            .body(resource);
+    @GetMapping({"/view/{fileId}", "/stream/{fileId}"})
+    public void viewFile(@PathVariable Long fileId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        fileStreamingService.serve(fileId, false, request, response);
     }
     
     /**
@@ -1,6 +1,8 @@
 package com.edusmart.controller;
 
+import com.edusmart.dto.common.CursorPageDTO;
 import com.edusmart.dto.notification.NotificationDTO;
+import com.edusmart.security.UserPrincipal;
 import com.edusmart.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -9,6 +11,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -36,13 +39,27 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
     
+    /**
+     * Scroll user notifications newest first; pass nextCursor back as cursor for the next slice
+     */
+    @GetMapping("/scroll")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPageDTO<NotificationDTO>> scrollNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        CursorPageDTO<NotificationDTO> notifications = notificationService.scrollUserNotifications(
+                authentication.getName(), cursor, size);
+        return ResponseEntity.ok(notifications);
+    }
+    
     /**
      * Get unread count
      */
     @GetMapping("/unread-count")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Long> getUnreadCount(Authentication authentication) {
-        long count = notificationService.getUnreadCount(authentication.getName());
+    public ResponseEntity<Long> getUnreadCount(@AuthenticationPrincipal UserPrincipal currentUser) {
+        long count = notificationService.getUnreadCount(currentUser.getId());
         return ResponseEntity.ok(count);
     }
     
@@ -63,8 +80,8 @@ public class NotificationController {
      */
     @PatchMapping("/read-all")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Void> markAllAsRead(Authentication authentication) {
-        notificationService.markAllAsRead(authentication.getName());
+    public ResponseEntity<Void> markAllAsRead(@AuthenticationPrincipal UserPrincipal currentUser) {
+        notificationService.markAllAsRead(currentUser.getId());
         return ResponseEntity.ok().build();
     }
     
@@ -81,12 +98,14 @@ public class NotificationController {
     }
     
     /**
-     * Get notifications by user ID
+     * Get the most recent notifications by user ID
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getNotificationsByUserId(@PathVariable Long userId) {
+    public ResponseEntity<?> getNotificationsByUserId(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            var notifications = notificationService.getNotificationsByUserId(userId);
+            var notifications = notificationService.getNotificationsByUserId(userId, size);
             return ResponseEntity.ok(notifications);
         } catch (Exception e) {
             return ResponseEntity.ok(java.util.Collections.emptyList());
@@ -1,5 +1,6 @@
 package com.edusmart.controller;
 
+import com.edusmart.dto.common.CursorPageDTO;
 import com.edusmart.dto.order.CheckoutRequestDTO;
 import com.edusmart.dto.order.OrderResponseDTO;
 import com.edusmart.entity.enums.OrderStatus;
@@ -98,4 +99,17 @@ public class OrderController {
         Page<OrderResponseDTO> orders = orderService.getOrdersByStatus(status, pageRequest);
         return ResponseEntity.ok(orders);
     }
+    
+    /**
+     * Scroll orders by status newest first (ADMIN only); pass nextCursor back as cursor for the next slice
+     */
+    @GetMapping("/status/{status}/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDTO<OrderResponseDTO>> scrollOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageDTO<OrderResponseDTO> orders = orderService.scrollOrdersByStatus(status, cursor, size);
+        return ResponseEntity.ok(orders);
+    }
 }
@@ -1,19 +1,31 @@
 package com.edusmart.controller;
 
+import com.edusmart.dto.chat.ChatMessageDTO;
+import com.edusmart.entity.enums.ChatRoomType;
+import com.edusmart.messaging.RelayedMessage;
+import com.edusmart.service.ChatHistoryService;
+import com.edusmart.service.DiscussionPresenceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * WebSocket Controller for Real-Time Chat and Collaboration
@@ -23,7 +35,13 @@ import java.time.LocalDateTime;
 @Slf4j
 public class WebSocketChatController {
     
+    private static final Pattern DISCUSSION_TOPIC = Pattern.compile("/topic/discussion/(\\d+)");
+    private static final Pattern COURSE_CHAT_TOPIC = Pattern.compile("/topic/course/(\\d+)/chat");
+    
     private final SimpMessagingTemplate messagingTemplate;
+    private final DiscussionPresenceService discussionPresenceService;
+    private final ChatHistoryService chatHistoryService;
+    private final ObjectMapper objectMapper;
     
     /**
      * Handle discussion messages
@@ -33,9 +51,16 @@ public class WebSocketChatController {
     public ChatMessage sendDiscussionMessage(
             @DestinationVariable Long discussionId,
             @Payload ChatMessage message) {
-        log.info("New message in discussion {}: {}", discussionId, message.getContent());
-        message.setTimestamp(LocalDateTime.now());
-        return message;
+        log.debug("New message in discussion {}", discussionId);
+        return record(ChatRoomType.DISCUSSION, discussionId, message);
+    }
+    
+    /**
+     * Latest discussion messages, sent once to a client subscribing to /app/discussion/{discussionId}/history
+     */
+    @SubscribeMapping("/discussion/{discussionId}/history")
+    public List<ChatMessageDTO> discussionHistory(@DestinationVariable Long discussionId) {
+        return chatHistoryService.recent(ChatRoomType.DISCUSSION, discussionId);
     }
     
     /**
@@ -46,11 +71,67 @@ public class WebSocketChatController {
     public ChatMessage sendCourseMessage(
             @DestinationVariable Long courseId,
             @Payload ChatMessage message) {
-        log.info("New message in course {}: {}", courseId, message.getContent());
-        message.setTimestamp(LocalDateTime.now());
+        log.debug("New message in course {}", courseId);
+        return record(ChatRoomType.COURSE, courseId, message);
+    }
+    
+    /**
+     * Latest course chat messages, sent once to a client subscribing to /app/course/{courseId}/chat/history
+     */
+    @SubscribeMapping("/course/{courseId}/chat/history")
+    public List<ChatMessageDTO> courseHistory(@DestinationVariable Long courseId) {
+        return chatHistoryService.recent(ChatRoomType.COURSE, courseId);
+    }
+    
+    private ChatMessage record(ChatRoomType roomType, Long roomId, ChatMessage message) {
+        ChatMessageDTO recorded = chatHistoryService.append(roomType, roomId, message.getSenderId(),
+                message.getSenderName(), message.getContent(), message.getMessageType());
+        message.setId(recorded.getId());
+        message.setTimestamp(recorded.getSentAt());
         return message;
     }
     
+    /**
+     * Chat messages sent through another node; added to this node's history so its replay is complete
+     */
+    @EventListener
+    public void onRelayed(RelayedMessage relayed) {
+        Matcher discussion = DISCUSSION_TOPIC.matcher(relayed.destination());
+        Matcher courseChat = COURSE_CHAT_TOPIC.matcher(relayed.destination());
+        ChatRoomType roomType;
+        Long roomId;
+        if (discussion.matches()) {
+            roomType = ChatRoomType.DISCUSSION;
+            roomId = Long.valueOf(discussion.group(1));
+        } else if (courseChat.matches()) {
+            roomType = ChatRoomType.COURSE;
+            roomId = Long.valueOf(courseChat.group(1));
+        } else {
+            return;
+        }
+        
+        ChatMessage message;
+        try {
+            message = objectMapper.readValue(relayed.payload(), ChatMessage.class);
+        } catch (IOException e) {
+            log.warn("Dropping unreadable relayed chat message for {}: {}", relayed.destination(), e.getMessage());
+            return;
+        }
+        if (message.getId() == null || message.getTimestamp() == null) {
+            return;
+        }
+        chatHistoryService.received(roomType, roomId, ChatMessageDTO.builder()
+                .id(message.getId())
+                .roomType(roomType.name())
+                .roomId(roomId)
+                .senderId(message.getSenderId())
+                .senderName(message.getSenderName())
+                .content(message.getContent())
+                .messageType(message.getMessageType())
+                .sentAt(message.getTimestamp())
+                .build());
+    }
+    
     /**
      * Handle private messages between users
      */
@@ -72,45 +153,41 @@ public class WebSocketChatController {
     }
     
     /**
-     * User joined notification
+     * User joined; members are published to /topic/discussion/{discussionId}/presence as periodic snapshots
      */
     @MessageMapping("/discussion/{discussionId}/join")
-    @SendTo("/topic/discussion/{discussionId}/presence")
-    public PresenceMessage userJoined(
+    public void userJoined(
             @DestinationVariable Long discussionId,
-            @Payload PresenceMessage presence) {
-        log.info("User {} joined discussion {}", presence.getUserName(), discussionId);
-        presence.setAction("JOIN");
-        presence.setTimestamp(LocalDateTime.now());
-        return presence;
+            @Payload PresenceMessage presence,
+            SimpMessageHeaderAccessor headerAccessor) {
+        log.debug("User {} joined discussion {}", presence.getUserName(), discussionId);
+        discussionPresenceService.join(discussionId, headerAccessor.getSessionId(),
+                presence.getUserId(), presence.getUserName());
     }
     
     /**
-     * User left notification
+     * User left; closing the connection leaves all discussions as well
      */
     @MessageMapping("/discussion/{discussionId}/leave")
-    @SendTo("/topic/discussion/{discussionId}/presence")
-    public PresenceMessage userLeft(
+    public void userLeft(
             @DestinationVariable Long discussionId,
-            @Payload PresenceMessage presence) {
-        log.info("User {} left discussion {}", presence.getUserName(), discussionId);
-        presence.setAction("LEAVE");
-        presence.setTimestamp(LocalDateTime.now());
-        return presence;
+            @Payload PresenceMessage presence,
+            SimpMessageHeaderAccessor headerAccessor) {
+        log.debug("User {} left discussion {}", presence.getUserName(), discussionId);
+        discussionPresenceService.leave(discussionId, headerAccessor.getSessionId());
     }
     
     /**
-     * Typing indicator
+     * Typing indicator; who is typing is published to /topic/discussion/{discussionId}/typing as periodic snapshots
      */
     @MessageMapping("/discussion/{discussionId}/typing")
     public void userTyping(
             @DestinationVariable Long discussionId,
-            @Payload TypingIndicator indicator) {
+            @Payload TypingIndicator indicator,
+            SimpMessageHeaderAccessor headerAccessor) {
         log.debug("User {} typing in discussion {}", indicator.getUserName(), discussionId);
-        messagingTemplate.convertAndSend(
-            "/topic/discussion/" + discussionId + "/typing",
-            indicator
-        );
+        discussionPresenceService.typing(discussionId, headerAccessor.getSessionId(),
+                indicator.getUserId(), indicator.getUserName(), indicator.isTyping());
     }
     
     // DTO Classes
@@ -119,6 +196,7 @@ public class WebSocketChatController {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class ChatMessage {
+        private String id;
         private Long senderId;
         private String senderName;
         private String content;
@@ -0,0 +1,22 @@
+package com.edusmart.dto.assessment;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for replacing the correct options of a question
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CorrectOptionsRequestDTO {
+    
+    @NotEmpty(message = "At least one correct option is required")
+    private List<Long> optionIds;
+}
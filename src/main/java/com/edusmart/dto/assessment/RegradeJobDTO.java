@@ -0,0 +1,32 @@
+package com.edusmart.dto.assessment;
+
+import com.edusmart.entity.enums.RegradeJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO reporting the progress of a bulk re-grade job
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RegradeJobDTO {
+    
+    private String jobId;
+    private Long assessmentId;
+    private RegradeJobStatus status;
+    private Long totalSubmissions;
+    private Long processedSubmissions;
+    private Long changedSubmissions;
+    // Changed while the job ran, so their newer marks were kept
+    private Long skippedSubmissions;
+    private Integer progressPercent;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
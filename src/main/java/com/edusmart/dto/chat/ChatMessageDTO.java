@@ -0,0 +1,27 @@
+package com.edusmart.dto.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a chat message from a room's history
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatMessageDTO {
+    
+    private String id;
+    private String roomType;
+    private Long roomId;
+    private Long senderId;
+    private String senderName;
+    private String content;
+    private String messageType;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,46 @@
+package com.edusmart.dto.common;
+
+import com.edusmart.util.PageCursor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO for one slice of a keyset-paginated list. There is no total count;
+ * clients pass nextCursor back as ?cursor= until hasNext is false.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    
+    private List<T> content;
+    
+    private Integer size;
+    
+    private Boolean hasNext;
+    
+    // Null on the last slice
+    private String nextCursor;
+    
+    /**
+     * Build a slice from rows read with {@link PageCursor#limit(int)}, which include one extra row when more follow
+     */
+    public static <E, T> CursorPageDTO<T> of(List<E> rows, int size,
+                                            Function<E, String> cursorOf, Function<E, T> mapper) {
+        int limit = PageCursor.clamp(size);
+        boolean hasNext = rows.size() > limit;
+        List<E> slice = hasNext ? rows.subList(0, limit) : rows;
+        return CursorPageDTO.<T>builder()
+                .content(slice.stream().map(mapper).toList())
+                .size(slice.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(slice.get(slice.size() - 1)) : null)
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.edusmart.dto.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for ranked course search results with facet counts
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSearchResultDTO {
+    
+    private String query;
+    
+    private List<CourseListDTO> content;
+    
+    private Integer page;
+    
+    private Integer size;
+    
+    private Long totalElements;
+    
+    private Integer totalPages;
+    
+    // Facet name (category, level, price, rating) to its options
+    private Map<String, List<SearchFacetDTO>> facets;
+}
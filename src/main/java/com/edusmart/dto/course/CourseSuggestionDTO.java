@@ -0,0 +1,24 @@
+package com.edusmart.dto.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one search-as-you-type suggestion
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSuggestionDTO {
+    
+    // COURSE, CATEGORY or INSTRUCTOR
+    private String type;
+    
+    // Course, category or instructor id
+    private Long id;
+    
+    private String text;
+}
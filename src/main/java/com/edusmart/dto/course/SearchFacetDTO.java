@@ -0,0 +1,23 @@
+package com.edusmart.dto.course;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one option of a search facet and the number of matching courses
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetDTO {
+    
+    // Value to pass back as a filter
+    private String value;
+    
+    private String label;
+    
+    private Long count;
+}
@@ -23,5 +23,6 @@ public class NotificationDTO {
     private String type; // Can be string or NotificationType
     private Boolean isRead;
     private String actionUrl;
+    private Integer occurrenceCount;
     private LocalDateTime createdAt;
 }
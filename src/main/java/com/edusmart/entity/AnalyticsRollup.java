@@ -0,0 +1,208 @@
+package com.edusmart.entity;
+
+import com.edusmart.entity.enums.RollupScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Pre-aggregated analytics counters for one scope (course, instructor or student).
+ * Rows are kept current by atomic delta updates from the write paths and periodically
+ * rebuilt from the source tables by AnalyticsRollupReconciler. Global figures are not
+ * stored; they are the sum of the course rows.
+ */
+@Entity
+@Table(name = "analytics_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"scope", "scope_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = true)
+public class AnalyticsRollup extends BaseEntity {
+    
+    public static final long GLOBAL_SCOPE_ID = 0L;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RollupScope scope;
+    
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+    
+    // Enrollment counters
+    @Builder.Default
+    @Column(name = "total_enrollments", nullable = false)
+    private Long totalEnrollments = 0L;
+    
+    @Builder.Default
+    @Column(name = "active_enrollments", nullable = false)
+    private Long activeEnrollments = 0L;
+    
+    @Builder.Default
+    @Column(name = "completed_enrollments", nullable = false)
+    private Long completedEnrollments = 0L;
+    
+    @Builder.Default
+    @Column(name = "progress_sum", nullable = false)
+    private Long progressSum = 0L;
+    
+    // Sum of progress where completed enrollments count as 100
+    @Builder.Default
+    @Column(name = "completion_score_sum", nullable = false)
+    private Long completionScoreSum = 0L;
+    
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+    
+    // Engagement counters
+    @Builder.Default
+    @Column(name = "lesson_completions", nullable = false)
+    private Long lessonCompletions = 0L;
+    
+    @Builder.Default
+    @Column(name = "total_submissions", nullable = false)
+    private Long totalSubmissions = 0L;
+    
+    @Builder.Default
+    @Column(name = "graded_submissions", nullable = false)
+    private Long gradedSubmissions = 0L;
+    
+    @Builder.Default
+    @Column(name = "marks_sum", nullable = false)
+    private Long marksSum = 0L;
+    
+    @Builder.Default
+    @Column(name = "total_discussions", nullable = false)
+    private Long totalDiscussions = 0L;
+    
+    // Content counters
+    @Builder.Default
+    @Column(name = "total_lessons", nullable = false)
+    private Long totalLessons = 0L;
+    
+    @Builder.Default
+    @Column(name = "total_assessments", nullable = false)
+    private Long totalAssessments = 0L;
+    
+    // Bumped by every delta, so a rebuild only overwrites rows nothing has changed since it read them
+    @Column(name = "revision")
+    private Long revision;
+    
+    public static AnalyticsRollup empty(RollupScope scope, Long scopeId) {
+        return AnalyticsRollup.builder()
+                .scope(scope)
+                .scopeId(scopeId)
+                .build();
+    }
+    
+    public Key key() {
+        return new Key(scope, scopeId);
+    }
+    
+    /**
+     * Overwrite every counter with the values of a freshly computed rollup
+     */
+    public void copyCountersFrom(AnalyticsRollup source) {
+        this.totalEnrollments = source.totalEnrollments;
+        this.activeEnrollments = source.activeEnrollments;
+        this.completedEnrollments = source.completedEnrollments;
+        this.progressSum = source.progressSum;
+        this.completionScoreSum = source.completionScoreSum;
+        this.lastActivityAt = source.lastActivityAt;
+        this.lessonCompletions = source.lessonCompletions;
+        this.totalSubmissions = source.totalSubmissions;
+        this.gradedSubmissions = source.gradedSubmissions;
+        this.marksSum = source.marksSum;
+        this.totalDiscussions = source.totalDiscussions;
+        this.totalLessons = source.totalLessons;
+        this.totalAssessments = source.totalAssessments;
+    }
+    
+    /**
+     * Whether every counter equals that of another rollup
+     */
+    public boolean hasSameCountersAs(AnalyticsRollup other) {
+        return Objects.equals(totalEnrollments, other.totalEnrollments)
+                && Objects.equals(activeEnrollments, other.activeEnrollments)
+                && Objects.equals(completedEnrollments, other.completedEnrollments)
+                && Objects.equals(progressSum, other.progressSum)
+                && Objects.equals(completionScoreSum, other.completionScoreSum)
+                && Objects.equals(lastActivityAt, other.lastActivityAt)
+                && Objects.equals(lessonCompletions, other.lessonCompletions)
+                && Objects.equals(totalSubmissions, other.totalSubmissions)
+                && Objects.equals(gradedSubmissions, other.gradedSubmissions)
+                && Objects.equals(marksSum, other.marksSum)
+                && Objects.equals(totalDiscussions, other.totalDiscussions)
+                && Objects.equals(totalLessons, other.totalLessons)
+                && Objects.equals(totalAssessments, other.totalAssessments);
+    }
+    
+    /**
+     * Add another rollup's counters to this one (used to roll courses up to instructors)
+     */
+    public void add(AnalyticsRollup other) {
+        this.totalEnrollments += other.totalEnrollments;
+        this.activeEnrollments += other.activeEnrollments;
+        this.completedEnrollments += other.completedEnrollments;
+        this.progressSum += other.progressSum;
+        this.completionScoreSum += other.completionScoreSum;
+        this.lessonCompletions += other.lessonCompletions;
+        this.totalSubmissions += other.totalSubmissions;
+        this.gradedSubmissions += other.gradedSubmissions;
+        this.marksSum += other.marksSum;
+        this.totalDiscussions += other.totalDiscussions;
+        this.totalLessons += other.totalLessons;
+        this.totalAssessments += other.totalAssessments;
+    }
+    
+    // Derived metrics
+    @Transient
+    public double getCompletionRate() {
+        return totalEnrollments > 0 ? (completedEnrollments * 100.0) / totalEnrollments : 0.0;
+    }
+    
+    @Transient
+    public double getAverageProgress() {
+        return totalEnrollments > 0 ? (double) progressSum / totalEnrollments : 0.0;
+    }
+    
+    @Transient
+    public double getAverageCompletionScore() {
+        return totalEnrollments > 0 ? (double) completionScoreSum / totalEnrollments : 0.0;
+    }
+    
+    @Transient
+    public double getAverageGrade() {
+        return gradedSubmissions > 0 ? (double) marksSum / gradedSubmissions : 0.0;
+    }
+    
+    /**
+     * Identity of a rollup row
+     */
+    public record Key(RollupScope scope, Long scopeId) {
+    }
+    
+    /**
+     * Signed change to apply to every rollup row touched by a single write
+     */
+    @Getter
+    @Builder
+    public static class Delta {
+        private final long enrollments;
+        private final long activeEnrollments;
+        private final long completedEnrollments;
+        private final long progress;
+        private final long completionScore;
+        private final long lessonCompletions;
+        private final long submissions;
+        private final long gradedSubmissions;
+        private final long marks;
+        private final long discussions;
+        private final long lessons;
+        private final long assessments;
+    }
+}
@@ -0,0 +1,50 @@
+package com.edusmart.entity;
+
+import com.edusmart.entity.enums.ChatRoomType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * ChatLogEntry entity holding one live chat message.
+ * Rows are append-only and written in batches by the chat history service; the id is assigned
+ * when the message arrives and, together with sentAt, orders the history of a room.
+ */
+@Entity
+@Table(name = "chat_log", indexes = {
+    @Index(name = "idx_chat_log_room_sent", columnList = "room_type, room_id, sent_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatLogEntry {
+    
+    // 32 lowercase hex digits, which sort the same in Java and under any database collation
+    @Id
+    @Column(length = 32)
+    private String id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "room_type", nullable = false, length = 20)
+    private ChatRoomType roomType;
+    
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+    
+    @Column(name = "sender_id")
+    private Long senderId;
+    
+    @Column(name = "sender_name")
+    private String senderName;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+    
+    @Column(name = "message_type", length = 20)
+    private String messageType;
+    
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+}
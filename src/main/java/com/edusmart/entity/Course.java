@@ -16,7 +16,9 @@ import java.util.List;
  * Course entity representing educational courses
  */
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+    @Index(name = "idx_courses_published_created", columnList = "is_published, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -101,6 +103,11 @@ public class Course extends BaseEntity {
     @Column(name = "review_count")
     private Integer reviewCount = 0;
     
+    // Number of lessons, so enrollment progress can be derived without counting them
+    @Column(name = "lesson_count")
+    @Builder.Default
+    private Integer lessonCount = 0;
+    
     // Relationships
     @JsonIgnore
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
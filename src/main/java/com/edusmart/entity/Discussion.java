@@ -12,7 +12,9 @@ import java.util.List;
  * Discussion entity representing forum topics
  */
 @Entity
-@Table(name = "discussions")
+@Table(name = "discussions", indexes = {
+    @Index(name = "idx_discussions_course_pinned_created", columnList = "course_id, is_pinned, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
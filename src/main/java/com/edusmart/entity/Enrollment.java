@@ -8,6 +8,7 @@ import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.BitSet;
 
 /**
  * Enrollment entity representing student course enrollments
@@ -15,6 +16,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "enrollments", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"student_id", "course_id"})
+}, indexes = {
+    @Index(name = "idx_enrollments_course_student", columnList = "course_id, student_id")
 })
 @Data
 @NoArgsConstructor
@@ -65,6 +68,14 @@ public class Enrollment extends BaseEntity {
     @Column(name = "last_accessed")
     private LocalDateTime lastAccessed;
     
+    // Bitset of completed lessons indexed by Lesson.completionSlot
+    @Column(name = "completed_lessons", length = 512)
+    private byte[] completedLessons;
+    
+    @Column(name = "completed_lesson_count")
+    @Builder.Default
+    private Integer completedLessonCount = 0;
+    
     @PrePersist
     protected void onCreate() {
         if (enrollmentDate == null) {
@@ -86,4 +97,34 @@ public class Enrollment extends BaseEntity {
     public void markAsAccessed() {
         this.lastAccessed = LocalDateTime.now();
     }
+    
+    public BitSet completedLessonSlots() {
+        return completedLessons != null ? BitSet.valueOf(completedLessons) : new BitSet();
+    }
+    
+    /**
+     * Set or clear the completion bit of a lesson; returns false when it already had that state
+     */
+    public boolean setLessonCompleted(int slot, boolean done) {
+        BitSet slots = completedLessonSlots();
+        if (slots.get(slot) == done) {
+            return false;
+        }
+        slots.set(slot, done);
+        this.completedLessons = slots.toByteArray();
+        this.completedLessonCount = Math.max(0, (completedLessonCount == null ? 0 : completedLessonCount) + (done ? 1 : -1));
+        return true;
+    }
+    
+    /**
+     * Derive progress from the completed lesson count and the course's lesson count
+     */
+    public void recalculateProgress(Integer lessonCount) {
+        this.progress = progressOf(completedLessonCount, lessonCount);
+    }
+    
+    public static int progressOf(Integer completedLessonCount, Integer lessonCount) {
+        int done = completedLessonCount == null ? 0 : completedLessonCount;
+        return lessonCount == null || lessonCount <= 0 ? 0 : Math.min(100, done * 100 / lessonCount);
+    }
 }
@@ -0,0 +1,34 @@
+package com.edusmart.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * FileBlob entity for one stored file content.
+ * Uploads with identical bytes share a blob, keyed by the SHA-256 digest of the content;
+ * the blob is deleted from disk when its last referencing upload is deleted.
+ */
+@Entity
+@Table(name = "file_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileBlob {
+    
+    // 64 lowercase hex digits of the SHA-256 digest
+    @Id
+    @Column(length = 64)
+    private String digest;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    @Column(name = "reference_count", nullable = false)
+    private int referenceCount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -40,6 +40,10 @@ public class FileUpload extends BaseEntity {
     @JoinColumn(name = "uploaded_by")
     private User uploadedBy;
     
+    // SHA-256 of the content, naming the shared blob; null for files stored before deduplication
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @Column(name = "download_count")
     private Integer downloadCount = 0;
 }
@@ -14,7 +14,9 @@ import java.util.List;
  * Lesson entity representing course lessons/modules
  */
 @Entity
-@Table(name = "lessons")
+@Table(name = "lessons", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"course_id", "completion_slot"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +42,10 @@ public class Lesson extends BaseEntity {
     @Column(name = "lesson_order", nullable = false)
     private Integer lessonOrder;
     
+    // Stable bit index of this lesson in Enrollment.completedLessons; never reused within a course
+    @Column(name = "completion_slot")
+    private Integer completionSlot;
+    
     @Column(name = "duration_minutes")
     @PositiveOrZero(message = "Duration must be positive or zero")
     private Integer durationMinutes;
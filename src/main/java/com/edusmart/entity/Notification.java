@@ -9,7 +9,10 @@ import lombok.*;
  * Notification entity for user notifications
  */
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_notifications_read_created", columnList = "is_read, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,6 +58,11 @@ public class Notification extends BaseEntity {
     @Column(name = "related_entity_id")
     private Long relatedEntityId;
     
+    // How many events this row stands for once repeats were collapsed into it
+    @Column(name = "occurrence_count")
+    @Builder.Default
+    private Integer occurrenceCount = 1;
+    
     public void markAsRead() {
         this.isRead = true;
     }
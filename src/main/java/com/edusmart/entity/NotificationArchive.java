@@ -0,0 +1,60 @@
+package com.edusmart.entity;
+
+import com.edusmart.entity.enums.NotificationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read notification moved out of the hot notifications table by the retention job.
+ * Rows keep the id and timestamps they had in notifications and are only ever inserted and purged.
+ */
+@Entity
+@Table(name = "notification_archive", indexes = {
+    @Index(name = "idx_notification_archive_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_notification_archive_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationArchive {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private String title;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "notification_type", length = 50)
+    private NotificationType notificationType;
+    
+    @Column(name = "action_url")
+    private String actionUrl;
+    
+    @Column(name = "related_entity_type", length = 50)
+    private String relatedEntityType;
+    
+    @Column(name = "related_entity_id")
+    private Long relatedEntityId;
+    
+    @Column(name = "occurrence_count")
+    private Integer occurrenceCount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
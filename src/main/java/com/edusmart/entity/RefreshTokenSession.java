@@ -0,0 +1,42 @@
+package com.edusmart.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * RefreshTokenSession entity tracking one login session.
+ * Every refresh rotates the session to a new refresh token id; presenting any other id
+ * means an older token was replayed, and the whole session is revoked.
+ */
+@Entity
+@Table(name = "refresh_token_sessions", indexes = {
+    @Index(name = "idx_refresh_token_sessions_user", columnList = "user_id"),
+    @Index(name = "idx_refresh_token_sessions_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshTokenSession {
+    
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "current_token_id", nullable = false, length = 36)
+    private String currentTokenId;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(nullable = false)
+    private boolean revoked;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
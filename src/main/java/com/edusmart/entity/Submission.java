@@ -19,8 +19,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EqualsAndHashCode(exclude = {"assessment", "student", "files"})
-@ToString(exclude = {"assessment", "student", "files"})
+@EqualsAndHashCode(exclude = {"assessment", "student", "files", "answers"})
+@ToString(exclude = {"assessment", "student", "files", "answers"})
 public class Submission {
     
     @Id
@@ -67,6 +67,11 @@ public class Submission {
     @OneToMany(mappedBy = "submission", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<SubmissionFile> files = new ArrayList<>();
     
+    @JsonIgnore
+    @OneToMany(mappedBy = "submission", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Builder.Default
+    private List<SubmissionAnswer> answers = new ArrayList<>();
+    
     @PrePersist
     protected void onCreate() {
         if (submittedAt == null) {
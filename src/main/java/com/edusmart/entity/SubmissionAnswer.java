@@ -0,0 +1,47 @@
+package com.edusmart.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * SubmissionAnswer entity holding one graded answer of a submission.
+ * Ids come from a pooled sequence so the answers of a submission are inserted as one JDBC batch.
+ */
+@Entity
+@Table(name = "submission_answers", indexes = {
+    @Index(name = "idx_submission_answers_submission", columnList = "submission_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(exclude = {"submission", "question"})
+@ToString(exclude = {"submission", "question"})
+public class SubmissionAnswer {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "submission_answers_seq")
+    @SequenceGenerator(name = "submission_answers_seq", sequenceName = "submission_answers_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "submission_id", nullable = false)
+    private Submission submission;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "question_id", nullable = false)
+    private Question question;
+    
+    @Column(name = "selected_option_id")
+    private Long selectedOptionId;
+    
+    @Column(name = "answer_text", columnDefinition = "TEXT")
+    private String answerText;
+    
+    // Null until a subjective answer is graded manually
+    @Column(name = "is_correct")
+    private Boolean isCorrect;
+    
+    @Column(name = "marks_obtained")
+    private Integer marksObtained;
+}
@@ -1,6 +1,7 @@
 package com.edusmart.entity;
 
 import com.edusmart.entity.enums.Role;
+import com.edusmart.security.UserPrincipalCacheListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -15,6 +16,7 @@ import java.util.List;
  * User entity representing students, instructors, and admins
  */
 @Entity
+@EntityListeners(UserPrincipalCacheListener.class)
 @Table(name = "users")
 @Data
 @NoArgsConstructor
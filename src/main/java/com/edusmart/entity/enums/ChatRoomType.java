@@ -0,0 +1,9 @@
+package com.edusmart.entity.enums;
+
+/**
+ * Kind of live chat a message was sent to
+ */
+public enum ChatRoomType {
+    DISCUSSION,
+    COURSE
+}
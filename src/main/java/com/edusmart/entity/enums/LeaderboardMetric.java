@@ -0,0 +1,10 @@
+package com.edusmart.entity.enums;
+
+/**
+ * Metrics the admin leaderboards can rank by
+ */
+public enum LeaderboardMetric {
+    ENROLLMENTS,
+    REVENUE,
+    RATING
+}
@@ -0,0 +1,41 @@
+package com.edusmart.entity.enums;
+
+import java.math.BigDecimal;
+
+/**
+ * Course price bands used for search facets and filters
+ */
+public enum PriceBand {
+    FREE("Free", 0, 0),
+    UNDER_1000("Under 1,000", 0, 1000),
+    FROM_1000_TO_3000("1,000 - 2,999", 1000, 3000),
+    FROM_3000_TO_5000("3,000 - 4,999", 3000, 5000),
+    OVER_5000("5,000 and above", 5000, Long.MAX_VALUE);
+
+    private final String label;
+    private final long min;
+    private final long maxExclusive;
+
+    PriceBand(String label, long min, long maxExclusive) {
+        this.label = label;
+        this.min = min;
+        this.maxExclusive = maxExclusive;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static PriceBand of(BigDecimal price) {
+        if (price == null || price.signum() <= 0) {
+            return FREE;
+        }
+        for (PriceBand band : values()) {
+            if (band != FREE && price.compareTo(BigDecimal.valueOf(band.min)) >= 0
+                    && (band.maxExclusive == Long.MAX_VALUE || price.compareTo(BigDecimal.valueOf(band.maxExclusive)) < 0)) {
+                return band;
+            }
+        }
+        return OVER_5000;
+    }
+}
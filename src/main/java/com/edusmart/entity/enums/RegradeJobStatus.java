@@ -0,0 +1,11 @@
+package com.edusmart.entity.enums;
+
+/**
+ * Lifecycle of a bulk re-grade job
+ */
+public enum RegradeJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
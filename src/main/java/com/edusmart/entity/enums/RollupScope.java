@@ -0,0 +1,11 @@
+package com.edusmart.entity.enums;
+
+/**
+ * Scope of an analytics rollup row
+ */
+public enum RollupScope {
+    GLOBAL,
+    COURSE,
+    INSTRUCTOR,
+    STUDENT
+}
@@ -0,0 +1,198 @@
+package com.edusmart.grading;
+
+import com.edusmart.entity.Question;
+import com.edusmart.entity.QuestionOption;
+import com.edusmart.entity.enums.QuestionType;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Immutable answer key of one assessment, compiled from its questions and options in one load.
+ * Answers are graded against it in memory, so a submission costs no per-answer queries.
+ * Text answers are matched against expected answers that are normalized once at compile time,
+ * together with their alternatives ("|"-separated in the stored correct answer) and the usual
+ * spellings of true and false. Each question's weight is its points, falling back to its marks.
+ * The key carries the assessment's update time it was compiled from, to detect staleness.
+ */
+public final class QuizAnswerKey {
+
+    private static final Set<String> TRUE_SYNONYMS = Set.of("true", "t", "yes", "y");
+    private static final Set<String> FALSE_SYNONYMS = Set.of("false", "f", "no", "n");
+
+    private final Long assessmentId;
+    private final LocalDateTime version;
+    private final Map<Long, KeyQuestion> questions;
+    private final boolean allAutoGraded;
+    private final double totalWeight;
+
+    private QuizAnswerKey(Long assessmentId, LocalDateTime version, Map<Long, KeyQuestion> questions) {
+        this.assessmentId = assessmentId;
+        this.version = version;
+        this.questions = questions;
+        this.allAutoGraded = questions.values().stream().allMatch(KeyQuestion::autoGraded);
+        this.totalWeight = questions.values().stream().mapToDouble(KeyQuestion::weight).sum();
+    }
+
+    /**
+     * Compile a key from questions loaded together with their options
+     */
+    public static QuizAnswerKey compile(Long assessmentId, LocalDateTime version, Collection<Question> questions) {
+        Map<Long, KeyQuestion> compiled = new HashMap<>();
+        for (Question question : questions) {
+            Map<Long, String> options = new HashMap<>();
+            Set<Long> correct = new HashSet<>();
+            Set<String> accepted = new HashSet<>();
+            for (QuestionOption option : question.getOptions()) {
+                options.put(option.getId(), option.getOptionText());
+                if (Boolean.TRUE.equals(option.getIsCorrect())) {
+                    correct.add(option.getId());
+                    accepted.add(normalize(option.getOptionText()));
+                }
+            }
+            String expected = question.getCorrectAnswer();
+            if (expected != null) {
+                for (String alternative : expected.split("\\|")) {
+                    accepted.add(normalize(alternative));
+                }
+            }
+            accepted.remove("");
+            if (question.getQuestionType() == QuestionType.TRUE_FALSE) {
+                if (accepted.contains("true")) {
+                    accepted.addAll(TRUE_SYNONYMS);
+                } else if (accepted.contains("false")) {
+                    accepted.addAll(FALSE_SYNONYMS);
+                }
+            }
+            if (expected == null && !correct.isEmpty()) {
+                expected = options.get(correct.iterator().next());
+            }
+
+            int marks = question.getMarks() != null ? question.getMarks() : 0;
+            double weight = question.getPoints() != null && question.getPoints().signum() > 0
+                    ? question.getPoints().doubleValue() : Math.max(marks, 1);
+            compiled.put(question.getId(), new KeyQuestion(question.getId(), question.getQuestionText(),
+                    question.getQuestionType(), marks, weight, Map.copyOf(options), Set.copyOf(correct),
+                    expected, Set.copyOf(accepted)));
+        }
+        return new QuizAnswerKey(assessmentId, version, Map.copyOf(compiled));
+    }
+
+    public Long getAssessmentId() {
+        return assessmentId;
+    }
+
+    public boolean isCurrent(LocalDateTime assessmentVersion) {
+        return Objects.equals(version, assessmentVersion);
+    }
+
+    /**
+     * Whether every question is graded automatically, so a submission needs no manual review
+     */
+    public boolean isAllAutoGraded() {
+        return allAutoGraded;
+    }
+
+    /**
+     * Whether the assessment has no stored questions, so answers can only be checked against what they carry
+     */
+    public boolean isEmpty() {
+        return questions.isEmpty();
+    }
+
+    public boolean contains(Long questionId) {
+        return questions.containsKey(questionId);
+    }
+
+    public KeyQuestion question(Long questionId) {
+        return questions.get(questionId);
+    }
+
+    /**
+     * Sum of all question weights, the denominator of a question's share of the score
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Lower-case the answer, trim it and collapse inner whitespace
+     */
+    public static String normalize(String answer) {
+        if (answer == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(answer.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < answer.length(); i++) {
+            char c = answer.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Grade one answer; an option that does not belong to the question counts as no answer.
+     * Subjective questions score 0 and are left for manual grading.
+     */
+    public GradedAnswer grade(Long questionId, Long selectedOptionId, String answerText) {
+        KeyQuestion question = questions.get(questionId);
+        if (question == null) {
+            throw new IllegalArgumentException("Question " + questionId + " is not part of assessment " + assessmentId);
+        }
+        if (!question.autoGraded()) {
+            return new GradedAnswer(question, null, answerText, null, 0);
+        }
+        String optionText = selectedOptionId != null ? question.options().get(selectedOptionId) : null;
+        if (optionText == null) {
+            return new GradedAnswer(question, null, "No answer", false, 0);
+        }
+        boolean correct = question.correctOptionIds().contains(selectedOptionId);
+        return new GradedAnswer(question, selectedOptionId, optionText, correct, correct ? question.marks() : 0);
+    }
+
+    public record KeyQuestion(Long id, String text, QuestionType type, int marks, double weight,
+                              Map<Long, String> options, Set<Long> correctOptionIds,
+                              String expectedAnswer, Set<String> acceptedAnswers) {
+
+        public boolean autoGraded() {
+            return type == QuestionType.MULTIPLE_CHOICE || type == QuestionType.TRUE_FALSE;
+        }
+
+        /**
+         * Whether a free-text answer matches; short answers may also contain or be part of an accepted one
+         */
+        public boolean matches(String answer) {
+            String normalized = normalize(answer);
+            if (normalized.isEmpty()) {
+                return false;
+            }
+            if (acceptedAnswers.contains(normalized)) {
+                return true;
+            }
+            if (type == QuestionType.SHORT_ANSWER) {
+                for (String accepted : acceptedAnswers) {
+                    if (normalized.contains(accepted) || accepted.contains(normalized)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Outcome of one answer; isCorrect is null for answers that need manual grading
+     */
+    public record GradedAnswer(KeyQuestion question, Long selectedOptionId, String studentAnswer,
+                               Boolean isCorrect, int marksObtained) {
+    }
+}
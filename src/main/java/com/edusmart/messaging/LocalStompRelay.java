@@ -0,0 +1,72 @@
+package com.edusmart.messaging;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Relay between nodes running in the same JVM, such as several application contexts started
+ * by one test. All relays created with the same {@link Hub} form a cluster; with a single node
+ * it forwards nothing, which makes it the default for single-node deployments.
+ */
+public class LocalStompRelay implements StompRelay, AutoCloseable {
+
+    private static final Hub SHARED = new Hub();
+
+    private final Hub hub;
+    private final Set<String> localUsers = ConcurrentHashMap.newKeySet();
+    private volatile Consumer<RelayedMessage> receiver;
+
+    public LocalStompRelay() {
+        this(SHARED);
+    }
+
+    public LocalStompRelay(Hub hub) {
+        this.hub = hub;
+        hub.nodes.add(this);
+    }
+
+    @Override
+    public void publish(RelayedMessage message) {
+        for (LocalStompRelay node : hub.nodes) {
+            if (node != this && (message.user() == null || node.localUsers.contains(message.user()))) {
+                node.deliver(message);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RelayedMessage> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void userConnected(String user) {
+        localUsers.add(user);
+    }
+
+    @Override
+    public void userDisconnected(String user) {
+        localUsers.remove(user);
+    }
+
+    @Override
+    public void close() {
+        hub.nodes.remove(this);
+    }
+
+    private void deliver(RelayedMessage message) {
+        Consumer<RelayedMessage> current = receiver;
+        if (current != null) {
+            current.accept(message);
+        }
+    }
+
+    /**
+     * The set of nodes that relay to each other
+     */
+    public static final class Hub {
+        private final Set<LocalStompRelay> nodes = new CopyOnWriteArraySet<>();
+    }
+}
@@ -0,0 +1,141 @@
+package com.edusmart.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Relay over Redis pub/sub. Broadcasts go to a channel every node listens on; user messages go
+ * to the channels of the nodes holding a session of that user. Each user has a sorted set of
+ * node ids scored by when the node last confirmed the session, so the entries of a node that
+ * died without cleaning up stop being used once they are older than the time-to-live.
+ */
+@Slf4j
+public class RedisStompRelay implements StompRelay, MessageListener {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channelPrefix;
+    private final Duration userTimeToLive;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> localUsers = ConcurrentHashMap.newKeySet();
+
+    private volatile Consumer<RelayedMessage> receiver;
+
+    public RedisStompRelay(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                           String channelPrefix, Duration userTimeToLive) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channelPrefix = channelPrefix;
+        this.userTimeToLive = userTimeToLive;
+    }
+
+    public String getBroadcastChannel() {
+        return channelPrefix + ":broadcast";
+    }
+
+    public String getNodeChannel() {
+        return nodeChannel(nodeId);
+    }
+
+    @Override
+    public void publish(RelayedMessage message) {
+        try {
+            String body = objectMapper.writeValueAsString(new Envelope(nodeId, message));
+            if (message.user() == null) {
+                redisTemplate.convertAndSend(getBroadcastChannel(), body);
+                return;
+            }
+            long liveSince = System.currentTimeMillis() - userTimeToLive.toMillis();
+            Set<String> nodes = redisTemplate.opsForZSet().rangeByScore(userKey(message.user()), liveSince, Double.MAX_VALUE);
+            if (nodes != null) {
+                for (String node : nodes) {
+                    if (!node.equals(nodeId)) {
+                        redisTemplate.convertAndSend(nodeChannel(node), body);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Clients on other nodes miss this message; their own node is unaffected
+            log.warn("Failed to relay message for {}: {}", message.destination(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RelayedMessage> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void userConnected(String user) {
+        localUsers.add(user);
+        register(user);
+    }
+
+    @Override
+    public void userDisconnected(String user) {
+        localUsers.remove(user);
+        try {
+            redisTemplate.opsForZSet().remove(userKey(user), nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to unregister STOMP user {}: {}", user, e.getMessage());
+        }
+    }
+
+    /**
+     * Confirm the sessions of this node before their entries expire
+     */
+    @Scheduled(fixedDelayString = "${websocket.relay.user-refresh-ms:60000}")
+    public void refreshUsers() {
+        localUsers.forEach(this::register);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Consumer<RelayedMessage> current = receiver;
+        if (current == null) {
+            return;
+        }
+        try {
+            Envelope envelope = objectMapper.readValue(message.getBody(), Envelope.class);
+            if (!nodeId.equals(envelope.nodeId())) {
+                current.accept(envelope.message());
+            }
+        } catch (IOException e) {
+            log.warn("Dropping unreadable relayed message: {}", e.getMessage());
+        }
+    }
+
+    private void register(String user) {
+        String key = userKey(user);
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.opsForZSet().add(key, nodeId, now);
+            redisTemplate.opsForZSet().removeRangeByScore(key, 0, now - userTimeToLive.toMillis());
+            redisTemplate.expire(key, userTimeToLive);
+        } catch (Exception e) {
+            log.warn("Failed to register STOMP user {}: {}", user, e.getMessage());
+        }
+    }
+
+    private String nodeChannel(String node) {
+        return channelPrefix + ":node:" + node;
+    }
+
+    private String userKey(String user) {
+        return channelPrefix + ":user:" + user;
+    }
+
+    record Envelope(String nodeId, RelayedMessage message) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.edusmart.messaging;
+
+/**
+ * A broker message as it travels between nodes.
+ * {@code user} is set for user destinations ({@code /user/{user}/...}) and null for broadcasts.
+ */
+public record RelayedMessage(String destination, String user, String contentType, byte[] payload) {
+}
@@ -0,0 +1,31 @@
+package com.edusmart.messaging;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries STOMP broker messages between application nodes, so that every node's in-memory
+ * broker can deliver to the clients connected to it. Broadcast messages go to all other nodes;
+ * messages for a user go only to the nodes where that user currently has a session.
+ */
+public interface StompRelay {
+
+    /**
+     * Forward a message published on this node to the other nodes
+     */
+    void publish(RelayedMessage message);
+
+    /**
+     * Receive the messages published by other nodes
+     */
+    void subscribe(Consumer<RelayedMessage> receiver);
+
+    /**
+     * The user opened their first session on this node
+     */
+    void userConnected(String user);
+
+    /**
+     * The user closed their last session on this node
+     */
+    void userDisconnected(String user);
+}
@@ -0,0 +1,120 @@
+package com.edusmart.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connects the in-memory STOMP broker of this node to the {@link StompRelay}.
+ * As an interceptor on the broker channel it forwards broadcasts ({@code /topic}, {@code /queue})
+ * and user messages before they are resolved to sessions; messages arriving from other nodes are
+ * sent into the broker channel, where the local broker and user destination handler deliver them
+ * to this node's sessions and then published as application events, so that services keeping
+ * per-node state about a destination can see what was sent through other nodes. It also
+ * reports which users have sessions on this node.
+ */
+@Component
+@Slf4j
+public class StompRelayBridge implements ChannelInterceptor {
+
+    // Marks messages that came from another node so they are not relayed again
+    private static final String RELAYED_HEADER = "edusmartRelayed";
+
+    private static final String USER_PREFIX = "/user/";
+
+    private final StompRelay relay;
+    private final MessageChannel brokerChannel;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> userSessionCounts = new ConcurrentHashMap<>();
+
+    public StompRelayBridge(StompRelay relay, @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+                            ApplicationEventPublisher eventPublisher) {
+        this.relay = relay;
+        this.brokerChannel = brokerChannel;
+        this.eventPublisher = eventPublisher;
+        relay.subscribe(this::deliver);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE || destination == null
+                || accessor.getHeader(RELAYED_HEADER) != null
+                || accessor.getFirstNativeHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION) != null
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        MimeType contentType = accessor.getContentType();
+        String type = contentType != null ? contentType.toString() : null;
+        if (destination.startsWith(USER_PREFIX)) {
+            int end = destination.indexOf('/', USER_PREFIX.length());
+            if (end > USER_PREFIX.length()) {
+                relay.publish(new RelayedMessage(destination, destination.substring(USER_PREFIX.length(), end), type, payload));
+            }
+        } else if (destination.startsWith("/topic/") || destination.startsWith("/queue/")) {
+            relay.publish(new RelayedMessage(destination, null, type, payload));
+        }
+        return message;
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user == null || sessionId == null || sessionUsers.putIfAbsent(sessionId, user.getName()) != null) {
+            return;
+        }
+        if (userSessionCounts.merge(user.getName(), 1, Integer::sum) == 1) {
+            relay.userConnected(user.getName());
+        }
+    }
+
+    // May be published more than once per session; only the first one counts
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String user = sessionUsers.remove(event.getSessionId());
+        if (user != null && userSessionCounts.computeIfPresent(user, (name, count) -> count > 1 ? count - 1 : null) == null) {
+            relay.userDisconnected(user);
+        }
+    }
+
+    private void deliver(RelayedMessage relayed) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(relayed.destination());
+        if (relayed.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(relayed.contentType()));
+        }
+        accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+        MessageHeaders headers = accessor.getMessageHeaders();
+        try {
+            brokerChannel.send(MessageBuilder.createMessage(relayed.payload(), headers));
+        } catch (Exception e) {
+            log.warn("Failed to deliver relayed message for {}: {}", relayed.destination(), e.getMessage());
+        }
+        try {
+            eventPublisher.publishEvent(relayed);
+        } catch (Exception e) {
+            log.warn("Failed to handle relayed message for {}: {}", relayed.destination(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.edusmart.repository;
+
+import com.edusmart.entity.AnalyticsRollup;
+import com.edusmart.entity.enums.RollupScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for AnalyticsRollup entity
+ */
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, Long> {
+    
+    Optional<AnalyticsRollup> findByScopeAndScopeId(RollupScope scope, Long scopeId);
+    
+    boolean existsByScopeAndScopeId(RollupScope scope, Long scopeId);
+    
+    /**
+     * Atomically add a delta to the course, instructor and student rows identified by the given
+     * ids (a null id skips that scope). Returns the number of rows updated. There is no global
+     * row to update: every write would queue on its lock, so global figures are summed from the
+     * course rows on read instead.
+     */
+    @Modifying
+    @Query("UPDATE AnalyticsRollup r SET " +
+           "r.totalEnrollments = r.totalEnrollments + :#{#d.enrollments}, " +
+           "r.activeEnrollments = r.activeEnrollments + :#{#d.activeEnrollments}, " +
+           "r.completedEnrollments = r.completedEnrollments + :#{#d.completedEnrollments}, " +
+           "r.progressSum = r.progressSum + :#{#d.progress}, " +
+           "r.completionScoreSum = r.completionScoreSum + :#{#d.completionScore}, " +
+           "r.lessonCompletions = r.lessonCompletions + :#{#d.lessonCompletions}, " +
+           "r.totalSubmissions = r.totalSubmissions + :#{#d.submissions}, " +
+           "r.gradedSubmissions = r.gradedSubmissions + :#{#d.gradedSubmissions}, " +
+           "r.marksSum = r.marksSum + :#{#d.marks}, " +
+           "r.totalDiscussions = r.totalDiscussions + :#{#d.discussions}, " +
+           "r.totalLessons = r.totalLessons + :#{#d.lessons}, " +
+           "r.totalAssessments = r.totalAssessments + :#{#d.assessments}, " +
+           "r.revision = COALESCE(r.revision, 0) + 1 " +
+           "WHERE (r.scope = com.edusmart.entity.enums.RollupScope.COURSE AND r.scopeId = :courseId) " +
+           "OR (r.scope = com.edusmart.entity.enums.RollupScope.INSTRUCTOR AND r.scopeId = :instructorId) " +
+           "OR (r.scope = com.edusmart.entity.enums.RollupScope.STUDENT AND r.scopeId = :studentId)")
+    int applyDelta(@Param("d") AnalyticsRollup.Delta delta,
+                   @Param("courseId") Long courseId,
+                   @Param("instructorId") Long instructorId,
+                   @Param("studentId") Long studentId);
+    
+    /**
+     * Add the progress and marks of a delta to one student row only, for changes aggregated per course elsewhere
+     */
+    @Modifying
+    @Query("UPDATE AnalyticsRollup r SET " +
+           "r.progressSum = r.progressSum + :#{#d.progress}, " +
+           "r.completionScoreSum = r.completionScoreSum + :#{#d.completionScore}, " +
+           "r.marksSum = r.marksSum + :#{#d.marks}, " +
+           "r.revision = COALESCE(r.revision, 0) + 1 " +
+           "WHERE r.scope = com.edusmart.entity.enums.RollupScope.STUDENT AND r.scopeId = :studentId")
+    int applyStudentDelta(@Param("d") AnalyticsRollup.Delta delta, @Param("studentId") Long studentId);
+    
+    @Modifying
+    @Query("UPDATE AnalyticsRollup r SET r.lastActivityAt = :activityAt, r.revision = COALESCE(r.revision, 0) + 1 " +
+           "WHERE r.scope = com.edusmart.entity.enums.RollupScope.STUDENT AND r.scopeId = :studentId " +
+           "AND (r.lastActivityAt IS NULL OR r.lastActivityAt < :activityAt)")
+    int touchLastActivity(@Param("studentId") Long studentId, @Param("activityAt") LocalDateTime activityAt);
+    
+    /**
+     * Overwrite the counters of a row with rebuilt values, unless a delta was applied to it
+     * since the revision the rebuild read. Returns 0 when the row has moved on.
+     */
+    @Modifying
+    @Query("UPDATE AnalyticsRollup r SET " +
+           "r.totalEnrollments = :#{#f.totalEnrollments}, " +
+           "r.activeEnrollments = :#{#f.activeEnrollments}, " +
+           "r.completedEnrollments = :#{#f.completedEnrollments}, " +
+           "r.progressSum = :#{#f.progressSum}, " +
+           "r.completionScoreSum = :#{#f.completionScoreSum}, " +
+           "r.lastActivityAt = :#{#f.lastActivityAt}, " +
+           "r.lessonCompletions = :#{#f.lessonCompletions}, " +
+           "r.totalSubmissions = :#{#f.totalSubmissions}, " +
+           "r.gradedSubmissions = :#{#f.gradedSubmissions}, " +
+           "r.marksSum = :#{#f.marksSum}, " +
+           "r.totalDiscussions = :#{#f.totalDiscussions}, " +
+           "r.totalLessons = :#{#f.totalLessons}, " +
+           "r.totalAssessments = :#{#f.totalAssessments}, " +
+           "r.revision = COALESCE(r.revision, 0) + 1 " +
+           "WHERE r.id = :id AND COALESCE(r.revision, 0) = :revision")
+    int overwriteIfUnchanged(@Param("id") Long id, @Param("revision") long revision, @Param("f") AnalyticsRollup fresh);
+    
+    /**
+     * Sum of every course row, which is what a global row would hold
+     */
+    @Query("SELECT COALESCE(SUM(r.totalEnrollments), 0) AS totalEnrollments, " +
+           "COALESCE(SUM(r.activeEnrollments), 0) AS activeEnrollments, " +
+           "COALESCE(SUM(r.completedEnrollments), 0) AS completedEnrollments, " +
+           "COALESCE(SUM(r.progressSum), 0) AS progressSum, " +
+           "COALESCE(SUM(r.completionScoreSum), 0) AS completionScoreSum, " +
+           "COALESCE(SUM(r.lessonCompletions), 0) AS lessonCompletions, " +
+           "COALESCE(SUM(r.totalSubmissions), 0) AS totalSubmissions, " +
+           "COALESCE(SUM(r.gradedSubmissions), 0) AS gradedSubmissions, " +
+           "COALESCE(SUM(r.marksSum), 0) AS marksSum, " +
+           "COALESCE(SUM(r.totalDiscussions), 0) AS totalDiscussions, " +
+           "COALESCE(SUM(r.totalLessons), 0) AS totalLessons, " +
+           "COALESCE(SUM(r.totalAssessments), 0) AS totalAssessments " +
+           "FROM AnalyticsRollup r WHERE r.scope = com.edusmart.entity.enums.RollupScope.COURSE")
+    RollupTotals sumCourseRows();
+    
+    interface RollupTotals {
+        Long getTotalEnrollments();
+        Long getActiveEnrollments();
+        Long getCompletedEnrollments();
+        Long getProgressSum();
+        Long getCompletionScoreSum();
+        Long getLessonCompletions();
+        Long getTotalSubmissions();
+        Long getGradedSubmissions();
+        Long getMarksSum();
+        Long getTotalDiscussions();
+        Long getTotalLessons();
+        Long getTotalAssessments();
+    }
+}
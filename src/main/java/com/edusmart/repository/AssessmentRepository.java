@@ -31,4 +31,8 @@ public interface AssessmentRepository extends JpaRepository<Assessment, Long> {
     // Day 8: Analytics method
     @Query("SELECT COUNT(a) FROM Assessment a WHERE a.course.instructor.id = :instructorId")
     Integer countByInstructorId(Long instructorId);
+    
+    // Analytics rollup reconciliation: [courseId, count]
+    @Query("SELECT a.course.id, COUNT(a) FROM Assessment a GROUP BY a.course.id")
+    List<Object[]> countGroupByCourse();
 }
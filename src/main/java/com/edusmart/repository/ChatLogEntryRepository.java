@@ -0,0 +1,28 @@
+package com.edusmart.repository;
+
+import com.edusmart.entity.ChatLogEntry;
+import com.edusmart.entity.enums.ChatRoomType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for ChatLogEntry entity
+ */
+@Repository
+public interface ChatLogEntryRepository extends JpaRepository<ChatLogEntry, String> {
+    
+    // Keyset pagination on (sentAt, id), newest first
+    @Query("SELECT c FROM ChatLogEntry c WHERE c.roomType = :roomType AND c.roomId = :roomId " +
+           "ORDER BY c.sentAt DESC, c.id DESC")
+    List<ChatLogEntry> findLatest(ChatRoomType roomType, Long roomId, Pageable limit);
+    
+    @Query("SELECT c FROM ChatLogEntry c WHERE c.roomType = :roomType AND c.roomId = :roomId " +
+           "AND (c.sentAt < :sentAt OR (c.sentAt = :sentAt AND c.id < :id)) " +
+           "ORDER BY c.sentAt DESC, c.id DESC")
+    List<ChatLogEntry> findEarlier(ChatRoomType roomType, Long roomId, LocalDateTime sentAt, String id, Pageable limit);
+}
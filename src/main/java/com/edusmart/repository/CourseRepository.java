@@ -7,10 +7,12 @@ import com.edusmart.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -29,16 +31,34 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     
     List<Course> findByLevel(CourseLevel level);
     
+    List<Course> findByLessonCountIsNull();
+    
+    // Lesson counter adjusted in place, so concurrent lesson changes queue on the row lock instead of losing updates
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Course c SET c.lessonCount = CASE WHEN COALESCE(c.lessonCount, 0) + :delta < 0 THEN 0 " +
+           "ELSE COALESCE(c.lessonCount, 0) + :delta END WHERE c.id = :courseId")
+    int addToLessonCount(Long courseId, int delta);
+    
+    @Query("SELECT c.lessonCount FROM Course c WHERE c.id = :courseId")
+    Integer findLessonCountById(Long courseId);
+    
     // Day 3: Pagination and filtering methods
     Page<Course> findByIsPublished(Boolean isPublished, Pageable pageable);
     
+    // Keyset pagination of the published catalog on (createdAt, id), newest first
+    @Query("SELECT c FROM Course c JOIN FETCH c.category JOIN FETCH c.instructor WHERE c.isPublished = true " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Course> findPublishedSlice(Pageable limit);
+    
+    @Query("SELECT c FROM Course c JOIN FETCH c.category JOIN FETCH c.instructor WHERE c.isPublished = true " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Course> findPublishedSliceAfter(LocalDateTime createdAt, Long id, Pageable limit);
+    
     Page<Course> findByCategoryAndIsPublished(Category category, Boolean isPublished, Pageable pageable);
     
     Page<Course> findByInstructor(User instructor, Pageable pageable);
     
-    Page<Course> findByTitleContainingIgnoreCaseOrShortDescriptionContainingIgnoreCaseAndIsPublished(
-            String title, String description, Boolean isPublished, Pageable pageable);
-    
     List<Course> findByIsFeaturedAndIsPublished(Boolean isFeatured, Boolean isPublished);
     
     int countByCategory(Category category);
@@ -49,10 +69,8 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     @Query("SELECT c FROM Course c WHERE c.isPublished = true ORDER BY c.createdAt DESC")
     List<Course> findLatestCourses(Pageable pageable);
     
-    @Query("SELECT c FROM Course c WHERE c.isPublished = true AND " +
-           "(LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(c.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Course> searchCourses(@Param("keyword") String keyword, Pageable pageable);
+    @Query("SELECT c FROM Course c JOIN FETCH c.category JOIN FETCH c.instructor WHERE c.isPublished = true")
+    List<Course> findPublishedForSearchIndex();
     
     @Query("SELECT COUNT(c) FROM Course c WHERE c.instructor.id = :instructorId")
     long countByInstructorId(Long instructorId);
@@ -66,4 +84,21 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     long countByInstructorIdAndIsPublished(Long instructorId, boolean isPublished);
     
     long countByIsPublished(boolean isPublished);
+    
+    // Analytics rollup reconciliation: [courseId, instructorId]
+    @Query("SELECT c.id, c.instructor.id FROM Course c")
+    List<Object[]> findCourseInstructorPairs();
+    
+    // Admin dashboard: course totals in a single pass
+    @Query("SELECT COUNT(c) AS total, SUM(CASE WHEN c.isPublished = true THEN 1 ELSE 0 END) AS published FROM Course c")
+    PublicationCounts countByPublication();
+    
+    interface PublicationCounts {
+        Long getTotal();
+        Long getPublished();
+    }
+    
+    // Leaderboard recompute: [courseId, title, instructorId, instructorFirstName, instructorLastName, instructorEmail]
+    @Query("SELECT c.id, c.title, i.id, i.firstName, i.lastName, i.email FROM Course c JOIN c.instructor i")
+    List<Object[]> findLeaderboardMetadata();
 }
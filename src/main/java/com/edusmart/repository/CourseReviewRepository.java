@@ -32,4 +32,17 @@ public interface CourseReviewRepository extends JpaRepository<CourseReview, Long
     
     @Query("SELECT r FROM CourseReview r WHERE r.course.id = :courseId AND r.isVerified = true ORDER BY r.helpfulCount DESC, r.createdAt DESC")
     Page<CourseReview> findVerifiedReviewsByCourseId(Long courseId, Pageable pageable);
+    
+    // Admin dashboard: review totals in a single pass
+    @Query("SELECT COUNT(r) AS total, AVG(r.rating) AS averageRating FROM CourseReview r")
+    ReviewStats getReviewStats();
+    
+    interface ReviewStats {
+        Long getTotal();
+        Double getAverageRating();
+    }
+    
+    // Leaderboard recompute: [courseId, reviewCount, ratingSum]
+    @Query("SELECT r.course.id, COUNT(r), SUM(r.rating) FROM CourseReview r GROUP BY r.course.id")
+    List<Object[]> aggregateRatingsGroupByCourse();
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,6 +20,19 @@ public interface DiscussionRepository extends JpaRepository<Discussion, Long> {
     
     Page<Discussion> findByCourseIdOrderByIsPinnedDescCreatedAtDesc(Long courseId, Pageable pageable);
     
+    // Keyset pagination on (isPinned, createdAt, id): pinned first, then newest first; a NULL isPinned counts as unpinned
+    @Query("SELECT d FROM Discussion d WHERE d.course.id = :courseId " +
+           "ORDER BY COALESCE(d.isPinned, false) DESC, d.createdAt DESC, d.id DESC")
+    List<Discussion> findSliceByCourseId(Long courseId, Pageable limit);
+    
+    @Query("SELECT d FROM Discussion d WHERE d.course.id = :courseId " +
+           "AND ((COALESCE(d.isPinned, false) = :pinned " +
+           "AND (d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id))) " +
+           "OR (:pinned = true AND COALESCE(d.isPinned, false) = false)) " +
+           "ORDER BY COALESCE(d.isPinned, false) DESC, d.createdAt DESC, d.id DESC")
+    List<Discussion> findSliceByCourseIdAfter(Long courseId, boolean pinned, LocalDateTime createdAt, Long id,
+                                              Pageable limit);
+    
     List<Discussion> findByUserId(Long userId);
     
     @Query("SELECT d FROM Discussion d WHERE d.course.id = :courseId ORDER BY d.isPinned DESC, d.createdAt DESC")
@@ -32,4 +46,11 @@ public interface DiscussionRepository extends JpaRepository<Discussion, Long> {
     
     @Query("SELECT COUNT(d) FROM Discussion d WHERE d.course.instructor.id = :instructorId")
     Integer countByInstructorId(Long instructorId);
+    
+    // Analytics rollup reconciliation: [key, count]
+    @Query("SELECT d.course.id, COUNT(d) FROM Discussion d GROUP BY d.course.id")
+    List<Object[]> countGroupByCourse();
+    
+    @Query("SELECT d.user.id, COUNT(d) FROM Discussion d GROUP BY d.user.id")
+    List<Object[]> countGroupByUser();
 }
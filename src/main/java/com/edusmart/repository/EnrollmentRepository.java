@@ -7,10 +7,12 @@ import com.edusmart.entity.enums.EnrollmentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +30,37 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     
     boolean existsByStudentIdAndCourseId(Long studentId, Long courseId);
     
+    // Lesson completion bitsets
+    @Query("SELECT e FROM Enrollment e WHERE e.course.id = :courseId AND e.student.id IN " +
+           "(SELECT lc.student.id FROM LessonCompletion lc WHERE lc.lesson.id = :lessonId AND lc.completed = true)")
+    List<Enrollment> findByCourseIdAndCompletedLesson(Long courseId, Long lessonId);
+    
+    // Lesson count changes: [id, studentId, progress, status, completedLessonCount, isCompleted]
+    @Query("SELECT e.id, e.student.id, e.progress, e.status, e.completedLessonCount, e.isCompleted " +
+           "FROM Enrollment e WHERE e.course.id = :courseId AND e.completedLessonCount > 0")
+    List<Object[]> findStartedProgressRowsByCourseId(Long courseId);
+    
+    // Students who completed no lesson stay at 0 whatever the lesson count, so only the others are rewritten
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Enrollment e SET e.progress = CASE " +
+           "WHEN :lessonCount <= 0 THEN 0 " +
+           "WHEN e.completedLessonCount >= :lessonCount THEN 100 " +
+           "ELSE e.completedLessonCount * 100 / :lessonCount END " +
+           "WHERE e.course.id = :courseId AND e.completedLessonCount > 0")
+    int recalculateProgressForCourse(Long courseId, int lessonCount);
+    
+    List<Enrollment> findByCompletedLessonsIsNull();
+    
+    // Notification fan-out recipients in keyset order
+    @Query("SELECT e.student.id FROM Enrollment e WHERE e.course.id = :courseId AND e.student.id > :afterStudentId " +
+           "AND (e.status IS NULL OR e.status <> com.edusmart.entity.enums.EnrollmentStatus.DROPPED) ORDER BY e.student.id")
+    List<Long> findNotificationRecipientIds(Long courseId, Long afterStudentId, Pageable pageable);
+    
+    // Write-behind progress flush: [id, progress, status, courseId, instructorId, studentId]
+    @Query("SELECT e.id, e.progress, e.status, e.course.id, e.course.instructor.id, e.student.id " +
+           "FROM Enrollment e WHERE e.id IN :ids")
+    List<Object[]> findProgressRowsByIdIn(Collection<Long> ids);
+    
     // Day 3: Entity-based methods with pagination
     Optional<Enrollment> findByStudentAndCourse(User student, Course course);
     
@@ -75,4 +108,36 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     
     @Query("SELECT AVG(CASE WHEN e.status = 'COMPLETED' THEN 100.0 ELSE e.progress END) FROM Enrollment e WHERE e.course.instructor.id = :instructorId")
     Double getAverageCompletionRateByInstructorId(Long instructorId);
+    
+    // Analytics rollup reconciliation: [key, count, active, completed, progressSum, completionScoreSum, lastAccessedAt]
+    @Query("SELECT e.course.id, COUNT(e), " +
+           "SUM(CASE WHEN e.status = 'ACTIVE' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN e.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+           "SUM(e.progress), " +
+           "SUM(CASE WHEN e.status = 'COMPLETED' THEN 100 ELSE e.progress END), " +
+           "MAX(e.lastAccessedAt) " +
+           "FROM Enrollment e GROUP BY e.course.id")
+    List<Object[]> aggregateByCourse();
+    
+    @Query("SELECT e.student.id, COUNT(e), " +
+           "SUM(CASE WHEN e.status = 'ACTIVE' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN e.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+           "SUM(e.progress), " +
+           "SUM(CASE WHEN e.status = 'COMPLETED' THEN 100 ELSE e.progress END), " +
+           "MAX(e.lastAccessedAt) " +
+           "FROM Enrollment e GROUP BY e.student.id")
+    List<Object[]> aggregateByStudent();
+    
+    // Admin dashboard: enrollment totals in a single pass
+    @Query("SELECT COUNT(e) AS total, " +
+           "SUM(CASE WHEN e.status = 'ACTIVE' THEN 1 ELSE 0 END) AS active, " +
+           "SUM(CASE WHEN e.status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed " +
+           "FROM Enrollment e")
+    StatusCounts countByStatuses();
+    
+    interface StatusCounts {
+        Long getTotal();
+        Long getActive();
+        Long getCompleted();
+    }
 }
@@ -0,0 +1,34 @@
+package com.edusmart.repository;
+
+import com.edusmart.entity.FileBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for FileBlob entity
+ */
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+    
+    // Waits for a concurrent release of the same blob, so a blob being deleted is never revived
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.referenceCount = b.referenceCount + 1 WHERE b.digest = :digest")
+    int incrementReferences(String digest);
+    
+    // A plain INSERT, so losing a race with another upload of the same content fails instead of overwriting
+    @Modifying
+    @Query(value = "INSERT INTO file_blobs (digest, size, reference_count, created_at) VALUES (:digest, :size, 1, :createdAt)",
+           nativeQuery = true)
+    void insert(String digest, long size, LocalDateTime createdAt);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM FileBlob b WHERE b.digest = :digest")
+    Optional<FileBlob> findLockedByDigest(String digest);
+}
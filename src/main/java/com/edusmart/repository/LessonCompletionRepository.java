@@ -34,6 +34,18 @@ public interface LessonCompletionRepository extends JpaRepository<LessonCompleti
     @Query("SELECT COUNT(lc) FROM LessonCompletion lc WHERE lc.lesson.course.id = :courseId AND lc.student.id = :studentId")
     long countCompletedLessonsByCourseAndStudent(Long courseId, Long studentId);
     
+    // Lesson completion bitset backfill: [studentId, courseId, completionSlot]
+    @Query("SELECT lc.student.id, l.course.id, l.completionSlot FROM LessonCompletion lc JOIN lc.lesson l " +
+           "WHERE lc.completed = true AND l.completionSlot IS NOT NULL")
+    List<Object[]> findCompletedSlots();
+    
     // Day 8: Analytics method
     long countByStudentId(Long studentId);
+    
+    // Analytics rollup reconciliation: [key, completedCount]
+    @Query("SELECT lc.lesson.course.id, COUNT(lc) FROM LessonCompletion lc WHERE lc.completed = true GROUP BY lc.lesson.course.id")
+    List<Object[]> countCompletedGroupByCourse();
+    
+    @Query("SELECT lc.student.id, COUNT(lc) FROM LessonCompletion lc WHERE lc.completed = true GROUP BY lc.student.id")
+    List<Object[]> countCompletedGroupByStudent();
 }
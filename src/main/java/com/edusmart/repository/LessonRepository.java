@@ -22,10 +22,19 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
     @Query("SELECT COUNT(l) FROM Lesson l WHERE l.course.id = :courseId")
     long countByCourseId(Long courseId);
     
+    @Query("SELECT MAX(l.completionSlot) FROM Lesson l WHERE l.course.id = :courseId")
+    Integer findMaxCompletionSlot(Long courseId);
+    
+    List<Lesson> findByCompletionSlotIsNullOrderByLessonOrderAscIdAsc();
+    
     // Day 3: Entity-based count method
     int countByCourse(Course course);
     
     // Day 8: Analytics method
     @Query("SELECT COUNT(l) FROM Lesson l WHERE l.course.instructor.id = :instructorId")
     Integer countByInstructorId(Long instructorId);
+    
+    // Analytics rollup reconciliation: [courseId, count]
+    @Query("SELECT l.course.id, COUNT(l) FROM Lesson l GROUP BY l.course.id")
+    List<Object[]> countGroupByCourse();
 }
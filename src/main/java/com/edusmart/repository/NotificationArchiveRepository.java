@@ -0,0 +1,33 @@
+package com.edusmart.repository;
+
+import com.edusmart.entity.NotificationArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for NotificationArchive entity
+ */
+@Repository
+public interface NotificationArchiveRepository extends JpaRepository<NotificationArchive, Long> {
+    
+    @Modifying
+    @Query(value = "INSERT INTO notification_archive (id, user_id, title, message, notification_type, action_url, " +
+                   "related_entity_type, related_entity_id, occurrence_count, created_at, updated_at, archived_at) " +
+                   "SELECT id, user_id, title, message, notification_type, action_url, related_entity_type, " +
+                   "related_entity_id, COALESCE(occurrence_count, 1), created_at, updated_at, :archivedAt " +
+                   "FROM notifications WHERE id IN :ids", nativeQuery = true)
+    int copyFromNotifications(List<Long> ids, LocalDateTime archivedAt);
+    
+    @Query("SELECT a.id FROM NotificationArchive a WHERE a.createdAt < :before ORDER BY a.createdAt")
+    List<Long> findIdsCreatedBefore(LocalDateTime before, Pageable limit);
+    
+    @Modifying
+    @Query("DELETE FROM NotificationArchive a WHERE a.id IN :ids")
+    int deleteByIdIn(List<Long> ids);
+}
@@ -1,12 +1,15 @@
 package com.edusmart.repository;
 
 import com.edusmart.entity.Notification;
+import com.edusmart.entity.enums.NotificationType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -15,10 +18,17 @@ import java.util.List;
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
-    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
-    
     Page<Notification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
     
+    // Keyset pagination on (createdAt, id), newest first
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findSliceByUserId(Long userId, Pageable limit);
+    
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findSliceByUserIdAfter(Long userId, LocalDateTime createdAt, Long id, Pageable limit);
+    
     List<Notification> findByUserIdAndIsRead(Long userId, Boolean isRead);
     
     List<Notification> findByUserIdAndIsReadOrderByCreatedAtDesc(Long userId, Boolean isRead);
@@ -30,4 +40,29 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.isRead = false")
     long countUnreadNotificationsByUserId(Long userId);
+    
+    // Newest unread notification about the same thing, which a repeat collapses into
+    @Query("SELECT n.id FROM Notification n WHERE n.user.id = :userId AND n.isRead = false " +
+           "AND n.notificationType = :type AND n.relatedEntityType = :relatedEntityType " +
+           "AND n.relatedEntityId = :relatedEntityId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Long> findUnreadRelatedIds(Long userId, NotificationType type, String relatedEntityType,
+                                    Long relatedEntityId, Pageable limit);
+    
+    // Counts a repeat into a still-unread row and moves it to the top; 0 when it was read or deleted meanwhile
+    @Modifying
+    @Query("UPDATE Notification n SET n.occurrenceCount = COALESCE(n.occurrenceCount, 1) + 1, " +
+           "n.createdAt = :now, n.updatedAt = :now WHERE n.id = :id AND n.isRead = false")
+    int collapseRepeat(Long id, LocalDateTime now);
+    
+    // Oldest first; archived rows are deleted, so each call returns the next chunk
+    @Query("SELECT n.id FROM Notification n WHERE n.isRead = true AND n.createdAt < :before ORDER BY n.createdAt")
+    List<Long> findReadIdsCreatedBefore(LocalDateTime before, Pageable limit);
+    
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(List<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.updatedAt = :now WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllAsReadByUserId(Long userId, LocalDateTime now);
 }
@@ -22,4 +22,8 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     @Query("SELECT SUM(oi.price) FROM OrderItem oi WHERE oi.course.id = :courseId")
     Double getTotalRevenueForCourse(Long courseId);
+
+    // Leaderboard recompute: [courseId, revenue] over completed orders
+    @Query("SELECT oi.course.id, SUM(oi.price) FROM OrderItem oi WHERE oi.order.status = 'COMPLETED' GROUP BY oi.course.id")
+    List<Object[]> sumCompletedRevenueGroupByCourse();
 }
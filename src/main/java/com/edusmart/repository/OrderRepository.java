@@ -26,6 +26,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Page<Order> findByStatusOrderByCreatedAtDesc(OrderStatus status, Pageable pageable);
 
+    // Keyset pagination on (createdAt, id), newest first
+    @Query("SELECT o FROM Order o WHERE o.status = :status ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findSliceByStatus(OrderStatus status, Pageable limit);
+
+    @Query("SELECT o FROM Order o WHERE o.status = :status " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findSliceByStatusAfter(OrderStatus status, LocalDateTime createdAt, Long id, Pageable limit);
+
     @Query("SELECT o FROM Order o WHERE o.student.id = :studentId AND o.createdAt BETWEEN :startDate AND :endDate")
     List<Order> findByStudentAndDateRange(Long studentId, LocalDateTime startDate, LocalDateTime endDate);
 
@@ -40,4 +49,25 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = 'COMPLETED' AND o.createdAt BETWEEN :startDate AND :endDate")
     Double getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate);
+
+    // Admin dashboard: order counts and revenue windows in a single pass
+    @Query("SELECT COUNT(o) AS total, " +
+           "SUM(CASE WHEN o.status = 'PENDING' THEN 1 ELSE 0 END) AS pending, " +
+           "SUM(CASE WHEN o.status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed, " +
+           "SUM(CASE WHEN o.status = 'FAILED' THEN 1 ELSE 0 END) AS failed, " +
+           "SUM(CASE WHEN o.status = 'COMPLETED' THEN o.totalAmount ELSE 0 END) AS totalRevenue, " +
+           "SUM(CASE WHEN o.status = 'COMPLETED' AND o.createdAt >= :monthStart THEN o.totalAmount ELSE 0 END) AS monthlyRevenue, " +
+           "SUM(CASE WHEN o.status = 'COMPLETED' AND o.createdAt >= :dayStart THEN o.totalAmount ELSE 0 END) AS todayRevenue " +
+           "FROM Order o")
+    OrderStats getOrderStats(LocalDateTime monthStart, LocalDateTime dayStart);
+
+    interface OrderStats {
+        Long getTotal();
+        Long getPending();
+        Long getCompleted();
+        Long getFailed();
+        Double getTotalRevenue();
+        Double getMonthlyRevenue();
+        Double getTodayRevenue();
+    }
 }
@@ -2,6 +2,7 @@ package com.edusmart.repository;
 
 import com.edusmart.entity.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +14,8 @@ import java.util.List;
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     
     List<Question> findByAssessmentIdOrderByQuestionOrderAsc(Long assessmentId);
+    
+    // Whole question/option graph of an assessment in one query, for compiling its answer key
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.options WHERE q.assessment.id = :assessmentId")
+    List<Question> findWithOptionsByAssessmentId(Long assessmentId);
 }
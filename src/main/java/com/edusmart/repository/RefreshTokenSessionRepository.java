@@ -0,0 +1,34 @@
+package com.edusmart.repository;
+
+import com.edusmart.entity.RefreshTokenSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for RefreshTokenSession entity
+ */
+@Repository
+public interface RefreshTokenSessionRepository extends JpaRepository<RefreshTokenSession, String> {
+    
+    // Compare-and-set on the expected token id, so two refreshes with the same token cannot both win
+    @Modifying
+    @Query("UPDATE RefreshTokenSession s SET s.currentTokenId = :nextTokenId, s.expiresAt = :expiresAt " +
+           "WHERE s.id = :id AND s.currentTokenId = :tokenId AND s.revoked = false AND s.expiresAt > :now")
+    int rotate(String id, String tokenId, String nextTokenId, LocalDateTime expiresAt, LocalDateTime now);
+    
+    @Query("SELECT s.id FROM RefreshTokenSession s WHERE s.userId = :userId AND s.revoked = false AND s.expiresAt > :now")
+    List<String> findActiveIdsByUserId(Long userId, LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshTokenSession s SET s.revoked = true WHERE s.id IN :ids")
+    int revokeByIdIn(List<String> ids);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshTokenSession s WHERE s.expiresAt < :before")
+    int deleteExpiredBefore(LocalDateTime before);
+}
@@ -0,0 +1,21 @@
+package com.edusmart.repository;
+
+import com.edusmart.entity.SubmissionAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for SubmissionAnswer entity
+ */
+@Repository
+public interface SubmissionAnswerRepository extends JpaRepository<SubmissionAnswer, Long> {
+    
+    // Re-grading input: [id, submissionId, questionId, selectedOptionId, answerText, isCorrect, marksObtained]
+    @Query("SELECT a.id, a.submission.id, a.question.id, a.selectedOptionId, a.answerText, a.isCorrect, a.marksObtained " +
+           "FROM SubmissionAnswer a WHERE a.submission.id IN :submissionIds")
+    List<Object[]> findGradingRowsBySubmissionIds(Collection<Long> submissionIds);
+}
@@ -54,4 +54,18 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     
     @Query("SELECT COUNT(s) FROM Submission s WHERE s.assessment.course.id = :courseId")
     Integer countByCourseId(Long courseId);
+    
+    // Re-grading chunk in id order: [id, studentId, obtainedMarks]
+    @Query("SELECT s.id, s.student.id, s.obtainedMarks FROM Submission s " +
+           "WHERE s.assessment.id = :assessmentId AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findRegradeChunk(Long assessmentId, Long afterId, Pageable pageable);
+    
+    // Analytics rollup reconciliation: [key, count, gradedCount, marksSum]
+    @Query("SELECT s.assessment.course.id, COUNT(s), COUNT(s.obtainedMarks), SUM(s.obtainedMarks) " +
+           "FROM Submission s GROUP BY s.assessment.course.id")
+    List<Object[]> aggregateByCourse();
+    
+    @Query("SELECT s.student.id, COUNT(s), COUNT(s.obtainedMarks), SUM(s.obtainedMarks) " +
+           "FROM Submission s GROUP BY s.student.id")
+    List<Object[]> aggregateByStudent();
 }
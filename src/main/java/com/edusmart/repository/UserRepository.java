@@ -32,4 +32,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role")
     long countByRole(Role role);
+    
+    // Admin dashboard: user totals per role in a single pass
+    @Query("SELECT COUNT(u) AS total, " +
+           "SUM(CASE WHEN u.role = 'STUDENT' THEN 1 ELSE 0 END) AS students, " +
+           "SUM(CASE WHEN u.role = 'INSTRUCTOR' THEN 1 ELSE 0 END) AS instructors, " +
+           "SUM(CASE WHEN u.role = 'ADMIN' THEN 1 ELSE 0 END) AS admins " +
+           "FROM User u")
+    RoleCounts countByRoles();
+    
+    interface RoleCounts {
+        Long getTotal();
+        Long getStudents();
+        Long getInstructors();
+        Long getAdmins();
+    }
 }
@@ -0,0 +1,276 @@
+package com.edusmart.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie of course titles, category names and instructor names for search-as-you-type.
+ * Every suggestion is inserted once per word it contains, so "dev" completes
+ * "Complete Web Development". Each node keeps its best {@link #TOP_K} suggestions, which turns
+ * a lookup into a walk down the typed prefix. Changes refresh only the nodes on the changed paths.
+ * Courses are weighted by enrollments and rating; categories and instructors by the sum of
+ * their published courses.
+ */
+public class CourseAutocompleteIndex {
+
+    public static final int TOP_K = 10;
+
+    // Suggestions are reachable by their first characters only, which keeps the trie small
+    private static final int MAX_KEY_LENGTH = 40;
+
+    private static final Comparator<Suggestion> RANK = Comparator.comparingDouble(Suggestion::weight).reversed()
+            .thenComparing(Suggestion::type)
+            .thenComparing(Suggestion::text);
+
+    public enum SuggestionType {
+        COURSE, CATEGORY, INSTRUCTOR
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+    private Map<String, Suggestion> suggestions = new HashMap<>();
+    private Map<Long, CourseSearchIndex.CourseDocument> courses = new HashMap<>();
+    private Map<Long, Group> categories = new HashMap<>();
+    private Map<Long, Group> instructors = new HashMap<>();
+
+    // When each course was last changed incrementally, so a rebuild does not undo newer changes
+    private final Map<Long, Long> changedAt = new HashMap<>();
+
+    /**
+     * Add or replace a course together with its category and instructor suggestions
+     */
+    public void index(CourseSearchIndex.CourseDocument document) {
+        lock.writeLock().lock();
+        try {
+            changedAt.put(document.id(), System.nanoTime());
+            removeInternal(document.id());
+            addInternal(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long courseId) {
+        lock.writeLock().lock();
+        try {
+            changedAt.put(courseId, System.nanoTime());
+            removeInternal(courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole trie with a snapshot read from the database.
+     * Courses changed incrementally after the snapshot started keep their current state.
+     */
+    public void replaceAll(Collection<CourseSearchIndex.CourseDocument> snapshot, long snapshotStartedAt) {
+        lock.writeLock().lock();
+        try {
+            Map<Long, CourseSearchIndex.CourseDocument> current = courses;
+            root = new Node();
+            suggestions = new HashMap<>();
+            courses = new HashMap<>();
+            categories = new HashMap<>();
+            instructors = new HashMap<>();
+
+            for (CourseSearchIndex.CourseDocument document : snapshot) {
+                Long changed = changedAt.get(document.id());
+                if (changed == null || changed <= snapshotStartedAt) {
+                    addInternal(document);
+                }
+            }
+            for (Map.Entry<Long, Long> change : changedAt.entrySet()) {
+                CourseSearchIndex.CourseDocument newer = current.get(change.getKey());
+                if (change.getValue() > snapshotStartedAt && newer != null) {
+                    addInternal(newer);
+                }
+            }
+            changedAt.values().removeIf(time -> time <= snapshotStartedAt);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best suggestions for what has been typed so far, at most {@link #TOP_K}
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            return List.of(Arrays.copyOf(node.top, Math.min(limit, node.top.length)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addInternal(CourseSearchIndex.CourseDocument document) {
+        courses.put(document.id(), document);
+        double weight = weight(document);
+        put(new Suggestion(SuggestionType.COURSE, document.id(), document.title(), weight));
+        adjustGroup(categories, SuggestionType.CATEGORY, document.categoryId(), document.categoryName(), weight, 1);
+        adjustGroup(instructors, SuggestionType.INSTRUCTOR, document.instructorId(), document.instructorName(), weight, 1);
+    }
+
+    private void removeInternal(Long courseId) {
+        CourseSearchIndex.CourseDocument existing = courses.remove(courseId);
+        if (existing == null) {
+            return;
+        }
+        double weight = weight(existing);
+        delete(new Suggestion(SuggestionType.COURSE, courseId, existing.title(), weight).key());
+        adjustGroup(categories, SuggestionType.CATEGORY, existing.categoryId(), existing.categoryName(), -weight, -1);
+        adjustGroup(instructors, SuggestionType.INSTRUCTOR, existing.instructorId(), existing.instructorName(), -weight, -1);
+    }
+
+    private void adjustGroup(Map<Long, Group> groups, SuggestionType type, Long id, String name,
+                             double weight, int courseDelta) {
+        if (id == null) {
+            return;
+        }
+        Group group = groups.computeIfAbsent(id, key -> new Group());
+        group.weight += weight;
+        group.courseCount += courseDelta;
+        if (courseDelta > 0) {
+            group.name = name;
+        }
+
+        delete(new Suggestion(type, id, group.name, 0).key());
+        if (group.courseCount <= 0) {
+            groups.remove(id);
+        } else {
+            put(new Suggestion(type, id, group.name, group.weight));
+        }
+    }
+
+    private void put(Suggestion suggestion) {
+        if (suggestion.text() == null || suggestion.text().isBlank()) {
+            return;
+        }
+        delete(suggestion.key());
+        suggestions.put(suggestion.key(), suggestion);
+        for (String key : keys(suggestion.text())) {
+            List<Node> path = path(key, true);
+            path.get(path.size() - 1).terminals.add(suggestion);
+            refresh(path);
+        }
+    }
+
+    private void delete(String suggestionKey) {
+        Suggestion existing = suggestions.remove(suggestionKey);
+        if (existing == null) {
+            return;
+        }
+        for (String key : keys(existing.text())) {
+            List<Node> path = path(key, false);
+            if (path.size() == key.length() + 1) {
+                path.get(path.size() - 1).terminals.removeIf(s -> s.key().equals(suggestionKey));
+                refresh(path);
+                prune(path, key);
+            }
+        }
+    }
+
+    private List<Node> path(String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                if (!create) {
+                    break;
+                }
+                child = new Node();
+                node.children.put(key.charAt(i), child);
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    // Recompute each node's best suggestions from the bottom of the path up
+    private void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Map<String, Suggestion> candidates = new HashMap<>();
+            node.terminals.forEach(s -> candidates.put(s.key(), s));
+            for (Node child : node.children.values()) {
+                for (Suggestion s : child.top) {
+                    candidates.put(s.key(), s);
+                }
+            }
+            node.top = candidates.values().stream().sorted(RANK).limit(TOP_K).toArray(Suggestion[]::new);
+        }
+    }
+
+    private void prune(List<Node> path, String key) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (!node.terminals.isEmpty() || !node.children.isEmpty()) {
+                return;
+            }
+            path.get(i - 1).children.remove(key.charAt(i - 1));
+        }
+    }
+
+    /**
+     * The text from the start of every word that is not a stop word
+     */
+    private static Set<String> keys(String text) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i == 0 || !TextAnalyzer.isStopWord(tokens.get(i))) {
+                String key = String.join(" ", tokens.subList(i, tokens.size()));
+                keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+            }
+        }
+        return keys;
+    }
+
+    // Typed input keeps a trailing partial word; the trie is only MAX_KEY_LENGTH deep
+    private static String normalize(String prefix) {
+        String key = String.join(" ", TextAnalyzer.tokenize(prefix));
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static double weight(CourseSearchIndex.CourseDocument document) {
+        int enrollments = document.enrollmentCount() != null ? document.enrollmentCount() : 0;
+        double rating = document.averageRating() != null ? document.averageRating() : 0.0;
+        return (1 + Math.log1p(enrollments)) * (1 + rating / 5);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final List<Suggestion> terminals = new ArrayList<>(1);
+        private Suggestion[] top = new Suggestion[0];
+    }
+
+    private static final class Group {
+        private String name;
+        private double weight;
+        private int courseCount;
+    }
+
+    public record Suggestion(SuggestionType type, Long id, String text, double weight) {
+
+        String key() {
+            return type + ":" + id;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.edusmart.search;
+
+import com.edusmart.entity.CourseLevel;
+import com.edusmart.entity.enums.PriceBand;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over published courses.
+ * Each term maps to the courses containing it with per-field term frequencies; queries are
+ * ranked with BM25 summed over boosted fields. The last query word also matches as a prefix,
+ * and words without an exact match fall back to terms within a small edit distance.
+ * Facet counts for category, level, price band and rating are computed over the matches.
+ */
+public class CourseSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double FUZZY_WEIGHT = 0.6;
+    private static final int MAX_EXPANSIONS = 30;
+    private static final int[] RATING_THRESHOLDS = {4, 3, 2, 1};
+
+    enum Field {
+        TITLE(3.0),
+        CATEGORY(2.0),
+        INSTRUCTOR(2.0),
+        SHORT_DESCRIPTION(1.5),
+        DESCRIPTION(1.0),
+        LEARNING_OBJECTIVES(1.0);
+
+        private final double boost;
+
+        Field(double boost) {
+            this.boost = boost;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> course id -> term frequency per field
+    private TreeMap<String, Map<Long, int[]>> postings = new TreeMap<>();
+    private Map<Long, IndexedCourse> courses = new HashMap<>();
+    private long[] totalFieldLengths = new long[FIELDS.length];
+
+    // When each course was last changed incrementally, so a rebuild does not undo newer changes
+    private final Map<Long, Long> changedAt = new HashMap<>();
+
+    /**
+     * Add or replace a course
+     */
+    public void index(CourseDocument document) {
+        lock.writeLock().lock();
+        try {
+            changedAt.put(document.id(), System.nanoTime());
+            removeInternal(document.id());
+            addInternal(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long courseId) {
+        lock.writeLock().lock();
+        try {
+            changedAt.put(courseId, System.nanoTime());
+            removeInternal(courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index with a snapshot read from the database.
+     * Courses changed incrementally after the snapshot started keep their current state.
+     */
+    public void replaceAll(Collection<CourseDocument> snapshot, long snapshotStartedAt) {
+        lock.writeLock().lock();
+        try {
+            Map<Long, IndexedCourse> current = courses;
+            postings = new TreeMap<>();
+            courses = new HashMap<>();
+            totalFieldLengths = new long[FIELDS.length];
+
+            for (CourseDocument document : snapshot) {
+                if (!changedSince(document.id(), snapshotStartedAt)) {
+                    addInternal(document);
+                }
+            }
+            for (Map.Entry<Long, Long> change : changedAt.entrySet()) {
+                IndexedCourse newer = current.get(change.getKey());
+                if (change.getValue() > snapshotStartedAt && newer != null) {
+                    addInternal(newer.document());
+                }
+            }
+            changedAt.values().removeIf(time -> time <= snapshotStartedAt);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Run a query and return one page of course ids in rank order, with facet counts
+     */
+    public Result search(Query query) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = score(query.text());
+
+            List<Long> matches = new ArrayList<>();
+            Facets facets = new Facets();
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                CourseDocument document = courses.get(entry.getKey()).document();
+                boolean category = query.categoryId() == null || query.categoryId().equals(document.categoryId());
+                boolean level = query.level() == null || query.level() == document.level();
+                boolean price = query.priceBand() == null || query.priceBand() == PriceBand.of(document.price());
+                boolean rating = query.minRating() == null || rating(document) >= query.minRating();
+
+                // Each facet is counted with every other filter applied, so its own options stay visible
+                if (level && price && rating) {
+                    facets.categories.merge(document.categoryId(), 1L, Long::sum);
+                    facets.categoryNames.putIfAbsent(document.categoryId(), document.categoryName());
+                }
+                if (category && price && rating && document.level() != null) {
+                    facets.levels.merge(document.level(), 1L, Long::sum);
+                }
+                if (category && level && rating) {
+                    facets.priceBands.merge(PriceBand.of(document.price()), 1L, Long::sum);
+                }
+                if (category && level && price) {
+                    for (int threshold : RATING_THRESHOLDS) {
+                        if (rating(document) >= threshold) {
+                            facets.ratings.merge(threshold, 1L, Long::sum);
+                        }
+                    }
+                }
+                if (category && level && price && rating) {
+                    matches.add(entry.getKey());
+                }
+            }
+
+            matches.sort(Comparator.<Long>comparingDouble(scores::get).reversed()
+                    .thenComparing(Comparator.reverseOrder()));
+            int from = Math.min(query.offset(), matches.size());
+            int to = Math.min(from + query.limit(), matches.size());
+            return new Result(List.copyOf(matches.subList(from, to)), matches.size(), facets.toCounts());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(String text) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        Map<Long, Double> scores = new HashMap<>();
+        if (tokens.stream().allMatch(String::isBlank)) {
+            courses.keySet().forEach(id -> scores.put(id, 0.0));
+            return scores;
+        }
+
+        int documentCount = courses.size();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            List<String> analyzed = TextAnalyzer.analyze(token);
+            String term = analyzed.isEmpty() ? null : analyzed.get(0);
+            boolean last = i == tokens.size() - 1;
+
+            Map<String, Double> expansions = new LinkedHashMap<>();
+            if (term != null && postings.containsKey(term)) {
+                expansions.put(term, 1.0);
+            } else if (term != null && term.length() >= 4) {
+                fuzzyMatches(term).forEach(match -> expansions.putIfAbsent(match, FUZZY_WEIGHT));
+            }
+            if (last && token.length() >= 2) {
+                prefixMatches(token).forEach(match -> expansions.putIfAbsent(match, PREFIX_WEIGHT));
+            }
+
+            // A word counts once per course, through its best-scoring expansion
+            Map<Long, Double> best = new HashMap<>();
+            expansions.forEach((expansion, weight) -> {
+                Map<Long, int[]> postingList = postings.get(expansion);
+                double idf = Math.log(1 + (documentCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+                postingList.forEach((courseId, frequencies) ->
+                        best.merge(courseId, weight * idf * fieldScore(courses.get(courseId), frequencies), Math::max));
+            });
+            best.forEach((courseId, score) -> scores.merge(courseId, score, Double::sum));
+        }
+        return scores;
+    }
+
+    private double fieldScore(IndexedCourse course, int[] frequencies) {
+        double score = 0;
+        int documentCount = courses.size();
+        for (Field field : FIELDS) {
+            int tf = frequencies[field.ordinal()];
+            if (tf == 0) {
+                continue;
+            }
+            double averageLength = Math.max(1.0, (double) totalFieldLengths[field.ordinal()] / documentCount);
+            double norm = 1 - B + B * course.fieldLengths()[field.ordinal()] / averageLength;
+            score += field.boost * tf * (K1 + 1) / (tf + K1 * norm);
+        }
+        return score;
+    }
+
+    private List<String> prefixMatches(String prefix) {
+        List<String> matches = new ArrayList<>();
+        for (String term : postings.tailMap(prefix, true).keySet()) {
+            if (!term.startsWith(prefix) || matches.size() >= MAX_EXPANSIONS) {
+                break;
+            }
+            matches.add(term);
+        }
+        return matches;
+    }
+
+    private List<String> fuzzyMatches(String term) {
+        int maxDistance = term.length() >= 8 ? 2 : 1;
+        List<String> matches = new ArrayList<>();
+        for (String candidate : postings.keySet()) {
+            if (Math.abs(candidate.length() - term.length()) <= maxDistance
+                    && editDistance(term, candidate, maxDistance) <= maxDistance) {
+                matches.add(candidate);
+                if (matches.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Damerau-Levenshtein distance (adjacent transpositions count as one edit),
+     * abandoning early once every path exceeds {@code limit}
+     */
+    static int editDistance(String a, String b, int limit) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMin = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, d[i][j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private void addInternal(CourseDocument document) {
+        int[] lengths = new int[FIELDS.length];
+        Map<String, int[]> frequencies = new HashMap<>();
+        for (Field field : FIELDS) {
+            List<String> terms = TextAnalyzer.analyze(document.text(field));
+            lengths[field.ordinal()] = terms.size();
+            totalFieldLengths[field.ordinal()] += terms.size();
+            for (String term : terms) {
+                frequencies.computeIfAbsent(term, t -> new int[FIELDS.length])[field.ordinal()]++;
+            }
+        }
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id(), tf));
+        courses.put(document.id(), new IndexedCourse(document, lengths, frequencies.keySet()));
+    }
+
+    private void removeInternal(Long courseId) {
+        IndexedCourse existing = courses.remove(courseId);
+        if (existing == null) {
+            return;
+        }
+        for (Field field : FIELDS) {
+            totalFieldLengths[field.ordinal()] -= existing.fieldLengths()[field.ordinal()];
+        }
+        for (String term : existing.terms()) {
+            Map<Long, int[]> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(courseId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private boolean changedSince(Long courseId, long time) {
+        Long changed = changedAt.get(courseId);
+        return changed != null && changed > time;
+    }
+
+    private static double rating(CourseDocument document) {
+        return document.averageRating() != null ? document.averageRating() : 0.0;
+    }
+
+    private record IndexedCourse(CourseDocument document, int[] fieldLengths, Set<String> terms) {
+    }
+
+    /**
+     * The searchable text, facet values and popularity of one published course
+     */
+    public record CourseDocument(Long id, String title, String shortDescription, String description,
+                                 String learningObjectives, Long categoryId, String categoryName,
+                                 Long instructorId, String instructorName, CourseLevel level, BigDecimal price,
+                                 Double averageRating, Integer enrollmentCount) {
+
+        String text(Field field) {
+            return switch (field) {
+                case TITLE -> title;
+                case CATEGORY -> categoryName;
+                case INSTRUCTOR -> instructorName;
+                case SHORT_DESCRIPTION -> shortDescription;
+                case DESCRIPTION -> description;
+                case LEARNING_OBJECTIVES -> learningObjectives;
+            };
+        }
+    }
+
+    /**
+     * Search text plus optional facet filters; blank text matches every course
+     */
+    public record Query(String text, Long categoryId, CourseLevel level, PriceBand priceBand,
+                        Double minRating, int offset, int limit) {
+    }
+
+    public record FacetCount(String value, String label, long count) {
+    }
+
+    public record Result(List<Long> courseIds, long total, Map<String, List<FacetCount>> facets) {
+    }
+
+    private static final class Facets {
+        private final Map<Long, Long> categories = new HashMap<>();
+        private final Map<Long, String> categoryNames = new HashMap<>();
+        private final Map<CourseLevel, Long> levels = new EnumMap<>(CourseLevel.class);
+        private final Map<PriceBand, Long> priceBands = new EnumMap<>(PriceBand.class);
+        private final Map<Integer, Long> ratings = new HashMap<>();
+
+        Map<String, List<FacetCount>> toCounts() {
+            List<FacetCount> categoryCounts = new ArrayList<>();
+            categories.forEach((id, count) ->
+                    categoryCounts.add(new FacetCount(String.valueOf(id), categoryNames.get(id), count)));
+            categoryCounts.sort(Comparator.comparingLong(FacetCount::count).reversed()
+                    .thenComparing(FacetCount::label, Comparator.nullsLast(Comparator.naturalOrder())));
+
+            List<FacetCount> levelCounts = new ArrayList<>();
+            levels.forEach((level, count) -> levelCounts.add(new FacetCount(level.name(), level.name(), count)));
+
+            List<FacetCount> priceCounts = new ArrayList<>();
+            priceBands.forEach((band, count) -> priceCounts.add(new FacetCount(band.name(), band.getLabel(), count)));
+
+            List<FacetCount> ratingCounts = new ArrayList<>();
+            for (int threshold : RATING_THRESHOLDS) {
+                Long count = ratings.get(threshold);
+                if (count != null) {
+                    ratingCounts.add(new FacetCount(String.valueOf(threshold), threshold + " & up", count));
+                }
+            }
+
+            Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+            counts.put("category", categoryCounts);
+            counts.put("level", levelCounts);
+            counts.put("price", priceCounts);
+            counts.put("rating", ratingCounts);
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.edusmart.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns text into index terms: Unicode folding, lower-casing, splitting on non-alphanumerics,
+ * stop-word removal and a light English suffix-stripping stemmer
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "its", "of", "on", "or", "that", "the", "this", "to", "with", "your", "you", "will", "how");
+
+    private static final String[] SUFFIXES = {"ing", "ment", "ed", "er", "ly"};
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Analyze text into stemmed terms, in order, keeping duplicates
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            if (!STOP_WORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    static boolean isStopWord(String token) {
+        return STOP_WORDS.contains(token);
+    }
+
+    /**
+     * Split text into folded, lower-cased tokens without stemming
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Strip common inflectional suffixes so that "courses", "learning" and "developers"
+     * match "course", "learn" and "develop"
+     */
+    public static String stem(String token) {
+        if (token.length() <= 3 || !Character.isLetter(token.charAt(token.length() - 1))) {
+            return token;
+        }
+        String term = token;
+
+        // Plurals
+        if (term.endsWith("ies") && term.length() > 4) {
+            term = term.substring(0, term.length() - 3) + "y";
+        } else if (term.endsWith("sses") || term.endsWith("ches") || term.endsWith("shes") || term.endsWith("xes")) {
+            term = term.substring(0, term.length() - 2);
+        } else if (term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us") && !term.endsWith("is")) {
+            term = term.substring(0, term.length() - 1);
+        }
+
+        // One derivational suffix, keeping a stem long enough to stay meaningful
+        for (String suffix : SUFFIXES) {
+            int minStem = suffix.equals("ing") || suffix.equals("ed") ? 3 : 4;
+            if (term.endsWith(suffix) && term.length() - suffix.length() >= minStem) {
+                return undouble(term.substring(0, term.length() - suffix.length()));
+            }
+        }
+        return term;
+    }
+
+    // "programm" -> "program", "runn" -> "run"; keeps "ll", "ss" and "zz" which are usually part of the word
+    private static String undouble(String term) {
+        int n = term.length();
+        if (n >= 3 && term.charAt(n - 1) == term.charAt(n - 2)) {
+            char c = term.charAt(n - 1);
+            if (c != 'l' && c != 's' && c != 'z' && "aeiou".indexOf(c) < 0) {
+                return term.substring(0, n - 1);
+            }
+        }
+        return term;
+    }
+}
@@ -0,0 +1,48 @@
+package com.edusmart.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of the principals resolved for bearer tokens, keyed by username.
+ * Entries are evicted when the user row changes; other nodes converge within the TTL.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    private final Cache<String, UserPrincipal> principals;
+
+    public AuthenticatedPrincipalCache(@Value("${security.principal-cache.maximum-size:10000}") long maximumSize,
+                                       @Value("${security.principal-cache.time-to-live-ms:60000}") long timeToLiveMs) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(timeToLiveMs))
+                .build();
+    }
+
+    /**
+     * Return the cached principal, loading it once on a miss; the password hash is not kept
+     */
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        return principals.get(username, key -> withoutPassword(loader.apply(key)));
+    }
+
+    /**
+     * Drop the principal so the next request reloads it
+     */
+    public void evict(String username) {
+        if (username != null) {
+            principals.invalidate(username);
+        }
+    }
+
+    private static UserPrincipal withoutPassword(UserPrincipal principal) {
+        return new UserPrincipal(principal.getId(), principal.getUsername(), principal.getEmail(),
+                null, principal.getRole(), principal.isActive());
+    }
+}
@@ -3,14 +3,15 @@ package com.edusmart.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * JWT Token Provider for generating and validating tokens
@@ -20,6 +21,11 @@ public class JwtTokenProvider {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
     
+    private static final String TOKEN_TYPE_CLAIM = "typ";
+    private static final String SESSION_CLAIM = "sid";
+    private static final String ACCESS_TOKEN = "access";
+    private static final String REFRESH_TOKEN = "refresh";
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
@@ -29,66 +35,93 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long jwtRefreshExpirationMs;
     
+    private SecretKey signingKey;
+    
+    private JwtParser parser;
+    
     /**
-     * Generate JWT access token
+     * Derive the HMAC key and build the parser once instead of on every token
      */
-    public String generateAccessToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        return generateToken(userPrincipal.getUsername(), jwtExpirationMs);
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
     
     /**
-     * Generate JWT access token from username
+     * Generate JWT access token bound to a refresh session
      */
-    public String generateAccessToken(String username) {
-        return generateToken(username, jwtExpirationMs);
+    public String generateAccessToken(String username, String sessionId) {
+        return generateToken(username, ACCESS_TOKEN, sessionId, UUID.randomUUID().toString(), jwtExpirationMs);
     }
     
     /**
-     * Generate JWT refresh token
+     * Generate JWT refresh token; its id is the one the session expects next
      */
-    public String generateRefreshToken(String username) {
-        return generateToken(username, jwtRefreshExpirationMs);
+    public String generateRefreshToken(String username, String sessionId, String tokenId) {
+        return generateToken(username, REFRESH_TOKEN, sessionId, tokenId, jwtRefreshExpirationMs);
     }
     
     /**
      * Generate token with custom expiration
      */
-    private String generateToken(String username, long expirationMs) {
+    private String generateToken(String username, String tokenType, String sessionId, String tokenId, long expirationMs) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expirationMs);
         
         return Jwts.builder()
+                .id(tokenId)
                 .subject(username)
+                .claim(TOKEN_TYPE_CLAIM, tokenType)
+                .claim(SESSION_CLAIM, sessionId)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
                 .compact();
     }
     
+    public long getAccessExpirationMs() {
+        return jwtExpirationMs;
+    }
+    
+    public long getRefreshExpirationMs() {
+        return jwtRefreshExpirationMs;
+    }
+    
+    /**
+     * Refresh tokens are only accepted by the refresh endpoint, never as bearer tokens
+     */
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN.equals(claims.get(TOKEN_TYPE_CLAIM, String.class));
+    }
+    
+    /**
+     * Refresh session the token belongs to, or null for tokens issued before sessions existed
+     */
+    public String getSessionId(Claims claims) {
+        return claims.get(SESSION_CLAIM, String.class);
+    }
+    
     /**
      * Get username from JWT token
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith((javax.crypto.SecretKey) getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.getSubject();
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
     
     /**
      * Validate JWT token
      */
     public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+    
+    /**
+     * Verify the token and return its claims in a single parse, or null when it is not valid
+     */
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith((javax.crypto.SecretKey) getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (SecurityException ex) {
             logger.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -100,14 +133,13 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty");
         }
-        return false;
+        return null;
     }
     
     /**
      * Get signing key
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 }
@@ -0,0 +1,55 @@
+package com.edusmart.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process denylist. Each entry expires at its own instant; Caffeine keeps the deadlines in a
+ * hierarchical timer wheel, so expired ids are dropped a bucket at a time without a scan and
+ * lookups stay a single hash probe. Entries are never evicted for size, since that would
+ * silently un-revoke a token.
+ */
+public class LocalTokenDenylist implements TokenDenylist {
+
+    private final Cache<String, Long> revoked = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Long>() {
+                @Override
+                public long expireAfterCreate(String id, Long expiresAtMillis, long currentTime) {
+                    return remainingNanos(expiresAtMillis);
+                }
+
+                @Override
+                public long expireAfterUpdate(String id, Long expiresAtMillis, long currentTime, long currentDuration) {
+                    return remainingNanos(expiresAtMillis);
+                }
+
+                @Override
+                public long expireAfterRead(String id, Long expiresAtMillis, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .scheduler(Scheduler.systemScheduler())
+            .build();
+
+    @Override
+    public void revoke(String id, Instant expiresAt) {
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        if (id != null && expiresAtMillis > System.currentTimeMillis()) {
+            revoked.asMap().merge(id, expiresAtMillis, Math::max);
+        }
+    }
+
+    @Override
+    public boolean isRevoked(String id) {
+        return id != null && revoked.getIfPresent(id) != null;
+    }
+
+    private static long remainingNanos(long expiresAtMillis) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAtMillis - System.currentTimeMillis()));
+    }
+}
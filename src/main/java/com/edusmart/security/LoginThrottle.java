@@ -0,0 +1,117 @@
+package com.edusmart.security;
+
+import com.edusmart.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory token buckets limiting login attempts. Every attempt takes a token from the
+ * client IP's bucket; only failed attempts take one from the bucket of the username tried,
+ * so a user who signs in successfully is never slowed down. Buckets that went idle long
+ * enough to refill completely are dropped, which is the same as starting a full one.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> usernameBuckets;
+    private final int ipCapacity;
+    private final int ipRefillPerMinute;
+    private final int usernameCapacity;
+    private final int usernameRefillPerMinute;
+
+    public LoginThrottle(@Value("${security.login.throttle.ip.capacity:30}") int ipCapacity,
+                         @Value("${security.login.throttle.ip.refill-per-minute:30}") int ipRefillPerMinute,
+                         @Value("${security.login.throttle.username.capacity:5}") int usernameCapacity,
+                         @Value("${security.login.throttle.username.refill-per-minute:5}") int usernameRefillPerMinute,
+                         @Value("${security.login.throttle.maximum-size:100000}") long maximumSize) {
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerMinute = ipRefillPerMinute;
+        this.usernameCapacity = usernameCapacity;
+        this.usernameRefillPerMinute = usernameRefillPerMinute;
+        this.ipBuckets = buckets(maximumSize, ipCapacity, ipRefillPerMinute);
+        this.usernameBuckets = buckets(maximumSize, usernameCapacity, usernameRefillPerMinute);
+    }
+
+    /**
+     * Admit a login attempt or throw with the time until one would be admitted
+     */
+    public void checkAttempt(String clientIp, String username) {
+        TokenBucket ipBucket = ipBuckets.get(clientIp, ip -> new TokenBucket(ipCapacity, ipRefillPerMinute));
+        long ipWaitNanos = ipBucket.tryConsume();
+        if (ipWaitNanos > 0) {
+            throw tooMany(ipWaitNanos);
+        }
+        TokenBucket usernameBucket = usernameBuckets.getIfPresent(normalize(username));
+        long usernameWaitNanos = usernameBucket != null ? usernameBucket.waitNanos() : 0;
+        if (usernameWaitNanos > 0) {
+            throw tooMany(usernameWaitNanos);
+        }
+    }
+
+    /**
+     * Charge a failed attempt to the username that was tried
+     */
+    public void recordFailure(String username) {
+        usernameBuckets.get(normalize(username), name -> new TokenBucket(usernameCapacity, usernameRefillPerMinute))
+                .tryConsume();
+    }
+
+    private static Cache<String, TokenBucket> buckets(long maximumSize, int capacity, int refillPerMinute) {
+        long refillMs = TimeUnit.MINUTES.toMillis(1) * capacity / Math.max(1, refillPerMinute);
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofMillis(Math.max(refillMs, 1000)))
+                .build();
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static TooManyRequestsException tooMany(long waitNanos) {
+        long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+        return new TooManyRequestsException("Too many login attempts, please retry later", retryAfterSeconds);
+    }
+
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = capacity;
+        }
+
+        /**
+         * Take a token, returning 0, or return how long until one is available
+         */
+        synchronized long tryConsume() {
+            long waitNanos = waitNanos();
+            if (waitNanos == 0) {
+                tokens -= 1;
+            }
+            return waitNanos;
+        }
+
+        synchronized long waitNanos() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                return 0;
+            }
+            return tokensPerNano > 0 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : Long.MAX_VALUE;
+        }
+    }
+}
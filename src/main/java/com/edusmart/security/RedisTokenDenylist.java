@@ -0,0 +1,110 @@
+package com.edusmart.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Denylist mirrored across nodes. Checks only read the local copy; revocations are written to
+ * Redis with a matching expiry, so nodes that start later can load them, and are announced over
+ * pub/sub as {@code nodeId|expiresAtMillis|id} so running nodes apply them at once.
+ */
+@Slf4j
+public class RedisTokenDenylist implements TokenDenylist, MessageListener {
+
+    private static final String KEY_PREFIX = "edusmart:revoked:";
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private final LocalTokenDenylist local = new LocalTokenDenylist();
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public RedisTokenDenylist(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * Copy the revocations that are still live into the local set
+     */
+    @PostConstruct
+    public void load() {
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(LOAD_BATCH_SIZE).build();
+        List<String> keys = new ArrayList<>(LOAD_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == LOAD_BATCH_SIZE) {
+                    loadBatch(keys);
+                    keys.clear();
+                }
+            }
+            loadBatch(keys);
+        } catch (Exception e) {
+            // Revocations made before startup are then only enforced through the refresh sessions
+            log.warn("Failed to load revoked tokens from Redis: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void revoke(String id, Instant expiresAt) {
+        if (id == null) {
+            return;
+        }
+        local.revoke(id, expiresAt);
+        Duration timeToLive = Duration.between(Instant.now(), expiresAt);
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            return;
+        }
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + id, Long.toString(expiresAtMillis), timeToLive);
+            redisTemplate.convertAndSend(channel, String.join("|", nodeId, Long.toString(expiresAtMillis), id));
+        } catch (Exception e) {
+            log.warn("Failed to mirror token revocation to Redis: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRevoked(String id) {
+        return local.isRevoked(id);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            local.revoke(parts[2], Instant.ofEpochMilli(Long.parseLong(parts[1])));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token revocation message");
+        }
+    }
+
+    private void loadBatch(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            if (value != null) {
+                local.revoke(keys.get(i).substring(KEY_PREFIX.length()), Instant.ofEpochMilli(Long.parseLong(value)));
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.edusmart.security;
+
+import java.time.Instant;
+
+/**
+ * Set of revoked token and session ids that the authentication filter consults on every
+ * request. Entries only need to live until the tokens they reject would have expired anyway.
+ */
+public interface TokenDenylist {
+
+    /**
+     * Reject the id until the given instant
+     */
+    void revoke(String id, Instant expiresAt);
+
+    /**
+     * Constant-time, in-process check; a null id is never revoked
+     */
+    boolean isRevoked(String id);
+}
@@ -0,0 +1,26 @@
+package com.edusmart.security;
+
+import com.edusmart.entity.User;
+import com.edusmart.util.TransactionUtils;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Evicts a user's cached principal whenever the row is updated or deleted, which
+ * covers role, password, email and activation changes wherever they are made
+ */
+public class UserPrincipalCacheListener {
+
+    private final AuthenticatedPrincipalCache principalCache;
+
+    public UserPrincipalCacheListener(AuthenticatedPrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    void userChanged(User user) {
+        String username = user.getUsername();
+        TransactionUtils.afterCommit(() -> principalCache.evict(username));
+    }
+}
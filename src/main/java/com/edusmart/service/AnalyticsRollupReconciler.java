@@ -0,0 +1,222 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.AnalyticsRollup;
+import com.edusmart.entity.enums.RollupScope;
+import com.edusmart.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds analytics rollups from the source tables to repair any drift
+ * left by the incremental updates (cascade deletes, missed hooks).
+ * The rows and the source aggregates are read in one snapshot; a row is then only overwritten
+ * if it differs from the rebuilt values and no delta has been applied to it since the snapshot,
+ * so deltas committed while the rebuild runs are never lost. A row skipped that way is checked
+ * again on the next run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupReconciler {
+
+    private final AnalyticsRollupRepository rollupRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonCompletionRepository lessonCompletionRepository;
+    private final AssessmentRepository assessmentRepository;
+    private final SubmissionRepository submissionRepository;
+    private final DiscussionRepository discussionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Recompute every rollup row with a fixed number of grouped queries
+     */
+    @Scheduled(initialDelayString = "${analytics.rollup.initial-delay-ms:10000}",
+               fixedDelayString = "${analytics.rollup.reconcile-interval-ms:3600000}")
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+
+        TransactionTemplate snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        Rebuild rebuild = snapshot.execute(status -> compute());
+
+        int[] outcome = merge(rebuild);
+        log.info("Rebuilt analytics rollups in {} ms: {} rows repaired, {} changed meanwhile and left for the next run",
+                System.currentTimeMillis() - start, outcome[0], outcome[1]);
+    }
+
+    private Rebuild compute() {
+        Map<AnalyticsRollup.Key, AnalyticsRollup> existing = rollupRepository.findAll().stream()
+                .collect(Collectors.toMap(AnalyticsRollup::key, Function.identity()));
+
+        Map<Long, AnalyticsRollup> courses = new HashMap<>();
+        Map<Long, AnalyticsRollup> students = new HashMap<>();
+        Map<Long, Long> instructorByCourse = new HashMap<>();
+
+        for (Object[] row : courseRepository.findCourseInstructorPairs()) {
+            Long courseId = toLong(row[0]);
+            instructorByCourse.put(courseId, toLong(row[1]));
+            courses.put(courseId, AnalyticsRollup.empty(RollupScope.COURSE, courseId));
+        }
+
+        Function<Long, AnalyticsRollup> course = id ->
+                courses.computeIfAbsent(id, k -> AnalyticsRollup.empty(RollupScope.COURSE, k));
+        Function<Long, AnalyticsRollup> student = id ->
+                students.computeIfAbsent(id, k -> AnalyticsRollup.empty(RollupScope.STUDENT, k));
+
+        for (Object[] row : enrollmentRepository.aggregateByCourse()) {
+            applyEnrollmentAggregate(course.apply(toLong(row[0])), row, false);
+        }
+        for (Object[] row : enrollmentRepository.aggregateByStudent()) {
+            applyEnrollmentAggregate(student.apply(toLong(row[0])), row, true);
+        }
+        for (Object[] row : lessonCompletionRepository.countCompletedGroupByCourse()) {
+            course.apply(toLong(row[0])).setLessonCompletions(toLong(row[1]));
+        }
+        for (Object[] row : lessonCompletionRepository.countCompletedGroupByStudent()) {
+            student.apply(toLong(row[0])).setLessonCompletions(toLong(row[1]));
+        }
+        for (Object[] row : submissionRepository.aggregateByCourse()) {
+            applySubmissionAggregate(course.apply(toLong(row[0])), row);
+        }
+        for (Object[] row : submissionRepository.aggregateByStudent()) {
+            applySubmissionAggregate(student.apply(toLong(row[0])), row);
+        }
+        for (Object[] row : discussionRepository.countGroupByCourse()) {
+            course.apply(toLong(row[0])).setTotalDiscussions(toLong(row[1]));
+        }
+        for (Object[] row : discussionRepository.countGroupByUser()) {
+            student.apply(toLong(row[0])).setTotalDiscussions(toLong(row[1]));
+        }
+        for (Object[] row : lessonRepository.countGroupByCourse()) {
+            course.apply(toLong(row[0])).setTotalLessons(toLong(row[1]));
+        }
+        for (Object[] row : assessmentRepository.countGroupByCourse()) {
+            course.apply(toLong(row[0])).setTotalAssessments(toLong(row[1]));
+        }
+
+        // Instructor rows are sums of the course rows
+        Map<Long, AnalyticsRollup> instructors = new HashMap<>();
+        courses.forEach((courseId, rollup) -> {
+            Long instructorId = instructorByCourse.get(courseId);
+            if (instructorId != null) {
+                instructors.computeIfAbsent(instructorId, k -> AnalyticsRollup.empty(RollupScope.INSTRUCTOR, k))
+                        .add(rollup);
+            }
+        });
+
+        List<AnalyticsRollup> computed = new ArrayList<>(courses.size() + students.size() + instructors.size());
+        computed.addAll(courses.values());
+        computed.addAll(students.values());
+        computed.addAll(instructors.values());
+        return new Rebuild(existing, computed);
+    }
+
+    /**
+     * Create an empty rollup row in its own transaction so a concurrent insert of the
+     * same row cannot abort the caller's transaction
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createRowIfMissing(RollupScope scope, Long scopeId) {
+        if (!rollupRepository.existsByScopeAndScopeId(scope, scopeId)) {
+            rollupRepository.saveAndFlush(AnalyticsRollup.empty(scope, scopeId));
+        }
+    }
+
+    /**
+     * Write the rebuilt values that differ from the snapshot; returns the rows repaired and the rows skipped
+     */
+    private int[] merge(Rebuild rebuild) {
+        Map<AnalyticsRollup.Key, AnalyticsRollup> existing = new HashMap<>(rebuild.existing());
+        int repaired = 0;
+        int skipped = 0;
+        for (AnalyticsRollup fresh : rebuild.computed()) {
+            AnalyticsRollup current = existing.remove(fresh.key());
+            if (current == null) {
+                if (insert(fresh)) {
+                    repaired++;
+                } else {
+                    skipped++;
+                }
+            } else if (!current.hasSameCountersAs(fresh)) {
+                if (overwrite(current, fresh)) {
+                    repaired++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+
+        // Rows whose source data no longer exists are reset rather than deleted
+        for (AnalyticsRollup stale : existing.values()) {
+            AnalyticsRollup empty = AnalyticsRollup.empty(stale.getScope(), stale.getScopeId());
+            if (!stale.hasSameCountersAs(empty)) {
+                if (overwrite(stale, empty)) {
+                    repaired++;
+                } else {
+                    skipped++;
+                }
+            }
+        }
+        return new int[] {repaired, skipped};
+    }
+
+    // One row per transaction, so the rebuild never holds a row lock a write path is waiting for
+    private boolean overwrite(AnalyticsRollup current, AnalyticsRollup fresh) {
+        long revision = current.getRevision() != null ? current.getRevision() : 0L;
+        Integer updated = transactionTemplate.execute(status ->
+                rollupRepository.overwriteIfUnchanged(current.getId(), revision, fresh));
+        return updated != null && updated == 1;
+    }
+
+    // A row that did not exist in the snapshot; if a write path created it since, that row wins
+    private boolean insert(AnalyticsRollup fresh) {
+        try {
+            rollupRepository.saveAndFlush(fresh);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void applyEnrollmentAggregate(AnalyticsRollup rollup, Object[] row, boolean includeLastActivity) {
+        rollup.setTotalEnrollments(toLong(row[1]));
+        rollup.setActiveEnrollments(toLong(row[2]));
+        rollup.setCompletedEnrollments(toLong(row[3]));
+        rollup.setProgressSum(toLong(row[4]));
+        rollup.setCompletionScoreSum(toLong(row[5]));
+        if (includeLastActivity) {
+            rollup.setLastActivityAt((LocalDateTime) row[6]);
+        }
+    }
+
+    private void applySubmissionAggregate(AnalyticsRollup rollup, Object[] row) {
+        rollup.setTotalSubmissions(toLong(row[1]));
+        rollup.setGradedSubmissions(toLong(row[2]));
+        rollup.setMarksSum(toLong(row[3]));
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private record Rebuild(Map<AnalyticsRollup.Key, AnalyticsRollup> existing, List<AnalyticsRollup> computed) {
+    }
+}
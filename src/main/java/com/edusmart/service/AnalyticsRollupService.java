@@ -0,0 +1,229 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.*;
+import com.edusmart.entity.enums.EnrollmentStatus;
+import com.edusmart.entity.enums.RollupScope;
+import com.edusmart.repository.AnalyticsRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service maintaining the analytics rollup counters.
+ * Write paths report their changes here inside their own transaction, so a rolled-back
+ * write also rolls back its rollup delta; the analytics endpoints read a single row per scope.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class AnalyticsRollupService {
+
+    private final AnalyticsRollupRepository rollupRepository;
+    private final AnalyticsRollupReconciler reconciler;
+
+    // Rows known to exist, so the common path is a single UPDATE
+    private final Set<AnalyticsRollup.Key> knownRows = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Get the rollup for a scope; a scope without a row yet has no recorded activity
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsRollup getRollup(RollupScope scope, Long scopeId) {
+        return rollupRepository.findByScopeAndScopeId(scope, scopeId)
+                .orElseGet(() -> AnalyticsRollup.empty(scope, scopeId));
+    }
+
+    /**
+     * Platform-wide figures, summed from the course rows so no write has to update a shared row
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsRollup getGlobalRollup() {
+        AnalyticsRollupRepository.RollupTotals totals = rollupRepository.sumCourseRows();
+        return AnalyticsRollup.builder()
+                .scope(RollupScope.GLOBAL)
+                .scopeId(AnalyticsRollup.GLOBAL_SCOPE_ID)
+                .totalEnrollments(totals.getTotalEnrollments())
+                .activeEnrollments(totals.getActiveEnrollments())
+                .completedEnrollments(totals.getCompletedEnrollments())
+                .progressSum(totals.getProgressSum())
+                .completionScoreSum(totals.getCompletionScoreSum())
+                .lessonCompletions(totals.getLessonCompletions())
+                .totalSubmissions(totals.getTotalSubmissions())
+                .gradedSubmissions(totals.getGradedSubmissions())
+                .marksSum(totals.getMarksSum())
+                .totalDiscussions(totals.getTotalDiscussions())
+                .totalLessons(totals.getTotalLessons())
+                .totalAssessments(totals.getTotalAssessments())
+                .build();
+    }
+
+    public void enrollmentCreated(Enrollment enrollment) {
+        apply(enrollmentContribution(enrollment.getStatus(), enrollment.getProgress(), 1),
+              enrollment.getCourse(), enrollment.getStudent().getId());
+        touchLastActivity(enrollment);
+    }
+
+    public void enrollmentRemoved(Enrollment enrollment) {
+        apply(enrollmentContribution(enrollment.getStatus(), enrollment.getProgress(), -1),
+              enrollment.getCourse(), enrollment.getStudent().getId());
+    }
+
+    /**
+     * Record a change of status and/or progress on an existing enrollment
+     */
+    public void enrollmentUpdated(Enrollment enrollment, EnrollmentStatus previousStatus, Integer previousProgress) {
+        AnalyticsRollup.Delta before = enrollmentContribution(previousStatus, previousProgress, 1);
+        AnalyticsRollup.Delta after = enrollmentContribution(enrollment.getStatus(), enrollment.getProgress(), 1);
+
+        apply(AnalyticsRollup.Delta.builder()
+                .activeEnrollments(after.getActiveEnrollments() - before.getActiveEnrollments())
+                .completedEnrollments(after.getCompletedEnrollments() - before.getCompletedEnrollments())
+                .progress(after.getProgress() - before.getProgress())
+                .completionScore(after.getCompletionScore() - before.getCompletionScore())
+                .build(),
+              enrollment.getCourse(), enrollment.getStudent().getId());
+        touchLastActivity(enrollment);
+    }
+
+    public void lessonCompleted(LessonCompletion completion) {
+        apply(AnalyticsRollup.Delta.builder().lessonCompletions(1).build(),
+              completion.getLesson().getCourse(), completion.getStudent().getId());
+    }
+
+    public void submissionRecorded(Submission submission) {
+        boolean graded = submission.getObtainedMarks() != null;
+        apply(AnalyticsRollup.Delta.builder()
+                .submissions(1)
+                .gradedSubmissions(graded ? 1 : 0)
+                .marks(graded ? submission.getObtainedMarks() : 0)
+                .build(),
+              submission.getAssessment().getCourse(), submission.getStudent().getId());
+    }
+
+    /**
+     * Apply the marks changed by a re-grade: one delta for the course scopes, one update per student
+     */
+    public void submissionsRegraded(Course course, Map<Long, Long> marksDeltaByStudent) {
+        long total = marksDeltaByStudent.values().stream().mapToLong(Long::longValue).sum();
+        apply(AnalyticsRollup.Delta.builder().marks(total).build(), course, null);
+        marksDeltaByStudent.forEach((studentId, marks) -> {
+            ensureRow(RollupScope.STUDENT, studentId);
+            rollupRepository.applyStudentDelta(AnalyticsRollup.Delta.builder().marks(marks).build(), studentId);
+        });
+    }
+
+    /**
+     * Apply progress written behind in bulk: one delta per course, one update per student
+     */
+    public void progressFlushed(List<ProgressChange> changes) {
+        Map<Long, List<ProgressChange>> byCourse = new HashMap<>();
+        Map<Long, List<ProgressChange>> byStudent = new HashMap<>();
+        for (ProgressChange change : changes) {
+            byCourse.computeIfAbsent(change.courseId(), id -> new ArrayList<>()).add(change);
+            byStudent.computeIfAbsent(change.studentId(), id -> new ArrayList<>()).add(change);
+        }
+        byCourse.forEach((courseId, courseChanges) ->
+                apply(sumProgress(courseChanges), courseId, courseChanges.get(0).instructorId(), null));
+        byStudent.forEach((studentId, studentChanges) -> {
+            ensureRow(RollupScope.STUDENT, studentId);
+            rollupRepository.applyStudentDelta(sumProgress(studentChanges), studentId);
+            studentChanges.stream().map(ProgressChange::lastAccessedAt).filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder())
+                    .ifPresent(at -> rollupRepository.touchLastActivity(studentId, at));
+        });
+    }
+
+    public void discussionCreated(Discussion discussion) {
+        apply(AnalyticsRollup.Delta.builder().discussions(1).build(),
+              discussion.getCourse(), discussion.getUser().getId());
+    }
+
+    public void discussionRemoved(Discussion discussion) {
+        apply(AnalyticsRollup.Delta.builder().discussions(-1).build(),
+              discussion.getCourse(), discussion.getUser().getId());
+    }
+
+    public void lessonAdded(Lesson lesson) {
+        apply(AnalyticsRollup.Delta.builder().lessons(1).build(), lesson.getCourse(), null);
+    }
+
+    public void lessonRemoved(Lesson lesson) {
+        apply(AnalyticsRollup.Delta.builder().lessons(-1).build(), lesson.getCourse(), null);
+    }
+
+    public void assessmentAdded(Assessment assessment) {
+        apply(AnalyticsRollup.Delta.builder().assessments(1).build(), assessment.getCourse(), null);
+    }
+
+    private void apply(AnalyticsRollup.Delta delta, Course course, Long studentId) {
+        apply(delta, course.getId(), course.getInstructor().getId(), studentId);
+    }
+
+    private void apply(AnalyticsRollup.Delta delta, Long courseId, Long instructorId, Long studentId) {
+        ensureRow(RollupScope.COURSE, courseId);
+        ensureRow(RollupScope.INSTRUCTOR, instructorId);
+        if (studentId != null) {
+            ensureRow(RollupScope.STUDENT, studentId);
+        }
+
+        int updated = rollupRepository.applyDelta(delta, courseId, instructorId, studentId);
+        int expected = studentId != null ? 3 : 2;
+        if (updated != expected) {
+            log.warn("Analytics rollup delta touched {} of {} rows for course {}; reconciliation will repair it",
+                    updated, expected, courseId);
+        }
+    }
+
+    private void touchLastActivity(Enrollment enrollment) {
+        LocalDateTime lastAccessedAt = enrollment.getLastAccessedAt();
+        if (lastAccessedAt != null) {
+            rollupRepository.touchLastActivity(enrollment.getStudent().getId(), lastAccessedAt);
+        }
+    }
+
+    private void ensureRow(RollupScope scope, Long scopeId) {
+        AnalyticsRollup.Key key = new AnalyticsRollup.Key(scope, scopeId);
+        if (knownRows.contains(key)) {
+            return;
+        }
+        try {
+            reconciler.createRowIfMissing(scope, scopeId);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Analytics rollup row {} was created concurrently", key);
+        }
+        knownRows.add(key);
+    }
+
+    private static AnalyticsRollup.Delta sumProgress(List<ProgressChange> changes) {
+        return AnalyticsRollup.Delta.builder()
+                .progress(changes.stream().mapToLong(ProgressChange::progressDelta).sum())
+                .completionScore(changes.stream().mapToLong(ProgressChange::completionScoreDelta).sum())
+                .build();
+    }
+
+    private static AnalyticsRollup.Delta enrollmentContribution(EnrollmentStatus status, Integer progress, int sign) {
+        long value = progress != null ? progress : 0;
+        boolean completed = status == EnrollmentStatus.COMPLETED;
+        return AnalyticsRollup.Delta.builder()
+                .enrollments(sign)
+                .activeEnrollments(status == EnrollmentStatus.ACTIVE ? sign : 0)
+                .completedEnrollments(completed ? sign : 0)
+                .progress(sign * value)
+                .completionScore(sign * (completed ? 100 : value))
+                .build();
+    }
+
+    /**
+     * A progress change of one enrollment, with the ids of the rollup rows it affects
+     */
+    public record ProgressChange(Long courseId, Long instructorId, Long studentId,
+                                 long progressDelta, long completionScoreDelta, LocalDateTime lastAccessedAt) {
+    }
+}
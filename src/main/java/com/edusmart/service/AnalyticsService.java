@@ -1,9 +1,10 @@
 package com.edusmart.service;
 
 import com.edusmart.dto.analytics.*;
+import com.edusmart.entity.AnalyticsRollup;
 import com.edusmart.entity.User;
-import com.edusmart.entity.enums.EnrollmentStatus;
 import com.edusmart.entity.enums.Role;
+import com.edusmart.entity.enums.RollupScope;
 import com.edusmart.exception.BadRequestException;
 import com.edusmart.exception.ResourceNotFoundException;
 import com.edusmart.repository.*;
@@ -12,13 +13,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.YearMonth;
-import java.util.ArrayList;
-import java.util.List;
-
 /**
- * Service for analytics and reporting
+ * Service for analytics and reporting.
+ * Enrollment, engagement and content counters are read from the pre-aggregated
+ * analytics rollups maintained by AnalyticsRollupService.
  */
 @Service
 @RequiredArgsConstructor
@@ -29,13 +27,9 @@ public class AnalyticsService {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
-    private final LessonRepository lessonRepository;
-    private final LessonCompletionRepository lessonCompletionRepository;
-    private final AssessmentRepository assessmentRepository;
-    private final SubmissionRepository submissionRepository;
-    private final DiscussionRepository discussionRepository;
     private final CategoryRepository categoryRepository;
     private final NotificationRepository notificationRepository;
+    private final AnalyticsRollupService analyticsRollupService;
     
     /**
      * Get course analytics
@@ -52,39 +46,21 @@ public class AnalyticsService {
             throw new BadRequestException("You don't have permission to view these analytics");
         }
         
-        Long totalEnrollments = enrollmentRepository.countByCourseId(courseId);
-        Long activeEnrollments = enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.ACTIVE);
-        Long completedEnrollments = enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.COMPLETED);
-        
-        Double completionRate = totalEnrollments > 0 
-            ? (completedEnrollments * 100.0) / totalEnrollments 
-            : 0.0;
-        
-        Long totalLessons = lessonRepository.countByCourseId(courseId);
-        Long totalAssessments = assessmentRepository.countByCourseId(courseId);
-        Long totalDiscussions = discussionRepository.countByCourseId(courseId);
-        
-        // Calculate average progress for this course
-        Double averageProgress = enrollmentRepository.getAverageProgressByCourseId(courseId);
-        
-        // Calculate average grade
-        Double averageGrade = submissionRepository.getAverageGradeByCourseId(courseId);
-        
-        Integer totalSubmissions = submissionRepository.countByCourseId(courseId);
+        AnalyticsRollup rollup = analyticsRollupService.getRollup(RollupScope.COURSE, courseId);
         
         return CourseAnalyticsDTO.builder()
                 .courseId(courseId)
                 .courseTitle(courseRepository.findById(courseId).map(c -> c.getTitle()).orElse(""))
-                .totalEnrollments(totalEnrollments)
-                .activeEnrollments(activeEnrollments)
-                .completedEnrollments(completedEnrollments)
-                .completionRate(completionRate)
-                .totalLessons(totalLessons)
-                .totalAssessments(totalAssessments)
-                .totalDiscussions(totalDiscussions)
-                .averageProgress(averageProgress != null ? averageProgress : 0.0)
-                .averageGrade(averageGrade != null ? averageGrade : 0.0)
-                .totalSubmissions(totalSubmissions)
+                .totalEnrollments(rollup.getTotalEnrollments())
+                .activeEnrollments(rollup.getActiveEnrollments())
+                .completedEnrollments(rollup.getCompletedEnrollments())
+                .completionRate(rollup.getCompletionRate())
+                .totalLessons(rollup.getTotalLessons())
+                .totalAssessments(rollup.getTotalAssessments())
+                .totalDiscussions(rollup.getTotalDiscussions())
+                .averageProgress(rollup.getAverageProgress())
+                .averageGrade(rollup.getAverageGrade())
+                .totalSubmissions(rollup.getTotalSubmissions().intValue())
                 .build();
     }
     
@@ -101,33 +77,21 @@ public class AnalyticsService {
             throw new BadRequestException("User is not a student");
         }
         
-        Integer totalEnrollments = (int) enrollmentRepository.countByStudentId(studentId);
-        Integer activeEnrollments = (int) enrollmentRepository.countByStudentIdAndStatus(studentId, EnrollmentStatus.ACTIVE);
-        Integer completedCourses = (int) enrollmentRepository.countByStudentIdAndStatus(studentId, EnrollmentStatus.COMPLETED);
-        
-        Double overallProgress = enrollmentRepository.getAverageProgressByStudentId(studentId);
-        Integer totalLessonsCompleted = (int) lessonCompletionRepository.countByStudentId(studentId);
-        
-        Double averageGrade = submissionRepository.getAverageGradeByStudentId(studentId);
-        Integer totalSubmissions = (int) submissionRepository.countByStudentId(studentId);
-        
-        Integer totalDiscussions = (int) discussionRepository.countByUserId(studentId);
-        
-        LocalDateTime lastActivity = enrollmentRepository.getLastActivityByStudentId(studentId);
+        AnalyticsRollup rollup = analyticsRollupService.getRollup(RollupScope.STUDENT, studentId);
         
         return StudentAnalyticsDTO.builder()
                 .studentId(studentId)
                 .studentName(student.getFirstName() + " " + student.getLastName())
                 .email(student.getEmail())
-                .totalEnrollments(totalEnrollments)
-                .activeEnrollments(activeEnrollments)
-                .completedCourses(completedCourses)
-                .overallProgress(overallProgress != null ? overallProgress : 0.0)
-                .totalLessonsCompleted(totalLessonsCompleted)
-                .averageGrade(averageGrade != null ? averageGrade : 0.0)
-                .totalSubmissions(totalSubmissions)
-                .totalDiscussions(totalDiscussions)
-                .lastActivity(lastActivity)
+                .totalEnrollments(rollup.getTotalEnrollments().intValue())
+                .activeEnrollments(rollup.getActiveEnrollments().intValue())
+                .completedCourses(rollup.getCompletedEnrollments().intValue())
+                .overallProgress(rollup.getAverageProgress())
+                .totalLessonsCompleted(rollup.getLessonCompletions().intValue())
+                .averageGrade(rollup.getAverageGrade())
+                .totalSubmissions(rollup.getTotalSubmissions().intValue())
+                .totalDiscussions(rollup.getTotalDiscussions().intValue())
+                .lastActivity(rollup.getLastActivityAt())
                 .build();
     }
     
@@ -148,15 +112,10 @@ public class AnalyticsService {
         Integer publishedCourses = (int) courseRepository.countByInstructorIdAndIsPublished(instructor.getId(), true);
         Integer draftCourses = totalCourses - publishedCourses;
         
+        // Distinct students cannot be maintained by counters, so this stays a query
         Long totalStudents = enrollmentRepository.countDistinctStudentsByInstructorId(instructor.getId());
-        Long totalEnrollments = enrollmentRepository.countByInstructorId(instructor.getId());
-        
-        Integer totalLessons = (int) lessonRepository.countByInstructorId(instructor.getId());
-        Integer totalAssessments = (int) assessmentRepository.countByInstructorId(instructor.getId());
-        Integer totalDiscussions = (int) discussionRepository.countByInstructorId(instructor.getId());
         
-        Double averageCompletionRate = enrollmentRepository.getAverageCompletionRateByInstructorId(instructor.getId());
-        Double averageStudentGrade = submissionRepository.getAverageGradeByInstructorId(instructor.getId());
+        AnalyticsRollup rollup = analyticsRollupService.getRollup(RollupScope.INSTRUCTOR, instructor.getId());
         
         return InstructorAnalyticsDTO.builder()
                 .instructorId(instructor.getId())
@@ -165,12 +124,12 @@ public class AnalyticsService {
                 .publishedCourses(publishedCourses)
                 .draftCourses(draftCourses)
                 .totalStudents(totalStudents)
-                .totalEnrollments(totalEnrollments)
-                .totalLessons(totalLessons)
-                .totalAssessments(totalAssessments)
-                .totalDiscussions(totalDiscussions)
-                .averageCompletionRate(averageCompletionRate != null ? averageCompletionRate : 0.0)
-                .averageStudentGrade(averageStudentGrade != null ? averageStudentGrade : 0.0)
+                .totalEnrollments(rollup.getTotalEnrollments())
+                .totalLessons(rollup.getTotalLessons().intValue())
+                .totalAssessments(rollup.getTotalAssessments().intValue())
+                .totalDiscussions(rollup.getTotalDiscussions().intValue())
+                .averageCompletionRate(rollup.getAverageCompletionScore())
+                .averageStudentGrade(rollup.getAverageGrade())
                 .build();
     }
     
@@ -196,23 +155,9 @@ public class AnalyticsService {
         Long publishedCourses = courseRepository.countByIsPublished(true);
         Long totalCategories = categoryRepository.count();
         
-        Long totalEnrollments = enrollmentRepository.count();
-        Long activeEnrollments = enrollmentRepository.countByStatus(EnrollmentStatus.ACTIVE);
-        Long completedEnrollments = enrollmentRepository.countByStatus(EnrollmentStatus.COMPLETED);
-        
-        Double overallCompletionRate = totalEnrollments > 0
-            ? (completedEnrollments * 100.0) / totalEnrollments
-            : 0.0;
-        
-        Long totalLessons = lessonRepository.count();
-        Long totalAssessments = assessmentRepository.count();
-        Long totalDiscussions = discussionRepository.count();
-        
-        Long totalSubmissions = submissionRepository.count();
-        Long totalCompletions = lessonCompletionRepository.count();
         Long totalNotifications = notificationRepository.count();
         
-        Double averageGrade = submissionRepository.getAverageGrade();
+        AnalyticsRollup rollup = analyticsRollupService.getGlobalRollup();
         
         return SystemAnalyticsDTO.builder()
                 .totalUsers(totalUsers)
@@ -222,17 +167,17 @@ public class AnalyticsService {
                 .totalCourses(totalCourses)
                 .publishedCourses(publishedCourses)
                 .totalCategories(totalCategories)
-                .totalEnrollments(totalEnrollments)
-                .activeEnrollments(activeEnrollments)
-                .completedEnrollments(completedEnrollments)
-                .overallCompletionRate(overallCompletionRate)
-                .totalLessons(totalLessons)
-                .totalAssessments(totalAssessments)
-                .totalDiscussions(totalDiscussions)
-                .totalSubmissions(totalSubmissions)
-                .totalCompletions(totalCompletions)
+                .totalEnrollments(rollup.getTotalEnrollments())
+                .activeEnrollments(rollup.getActiveEnrollments())
+                .completedEnrollments(rollup.getCompletedEnrollments())
+                .overallCompletionRate(rollup.getCompletionRate())
+                .totalLessons(rollup.getTotalLessons())
+                .totalAssessments(rollup.getTotalAssessments())
+                .totalDiscussions(rollup.getTotalDiscussions())
+                .totalSubmissions(rollup.getTotalSubmissions())
+                .totalCompletions(rollup.getLessonCompletions())
                 .totalNotifications(totalNotifications)
-                .averageGrade(averageGrade != null ? averageGrade : 0.0)
+                .averageGrade(rollup.getAverageGrade())
                 .build();
     }
 }
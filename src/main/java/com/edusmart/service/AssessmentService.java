@@ -7,6 +7,7 @@ import com.edusmart.entity.enums.Role;
 import com.edusmart.entity.enums.SubmissionStatus;
 import com.edusmart.exception.BadRequestException;
 import com.edusmart.exception.ResourceNotFoundException;
+import com.edusmart.grading.QuizAnswerKey;
 import com.edusmart.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,7 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -37,6 +40,8 @@ public class AssessmentService {
     private final SubmissionRepository submissionRepository;
     private final UserRepository userRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final QuizAnswerKeyService quizAnswerKeyService;
     
     /**
      * Create a new assessment
@@ -79,6 +84,7 @@ public class AssessmentService {
         }
         
         assessment = assessmentRepository.save(assessment);
+        analyticsRollupService.assessmentAdded(assessment);
         log.info("Assessment created: {}", assessment.getId());
         
         return mapToResponseDTO(assessment, false);
@@ -127,10 +133,51 @@ public class AssessmentService {
             }
         }
         
+        // A new update time makes cached answer keys of this assessment stale on every node
+        assessment.setUpdatedAt(LocalDateTime.now());
+        assessmentRepository.save(assessment);
+        quizAnswerKeyService.evict(assessmentId);
+        
         log.info("Question added: {}", question.getId());
         return mapToResponseDTO(assessment, true);
     }
     
+    /**
+     * Replace the correct options of a question; existing submissions keep their marks until re-graded
+     */
+    public AssessmentResponseDTO updateCorrectOptions(Long assessmentId, Long questionId,
+                                                      CorrectOptionsRequestDTO request, String username) {
+        log.info("Updating correct options of question {} in assessment {}", questionId, assessmentId);
+        
+        Assessment assessment = assessmentRepository.findById(assessmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+        
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        
+        if (!assessment.getCourse().getInstructor().getId().equals(user.getId()) && 
+            !user.getRole().equals(Role.ADMIN)) {
+            throw new BadRequestException("You don't have permission to edit questions");
+        }
+        
+        Question question = questionRepository.findById(questionId)
+                .filter(q -> q.getAssessment().getId().equals(assessmentId))
+                .orElseThrow(() -> new ResourceNotFoundException("Question not found"));
+        
+        List<QuestionOption> options = questionOptionRepository.findByQuestionIdOrderByOptionOrderAsc(question.getId());
+        Set<Long> correctIds = new HashSet<>(request.getOptionIds());
+        if (!options.stream().map(QuestionOption::getId).collect(Collectors.toSet()).containsAll(correctIds)) {
+            throw new BadRequestException("Options must belong to the question");
+        }
+        options.forEach(option -> option.setIsCorrect(correctIds.contains(option.getId())));
+        
+        assessment.setUpdatedAt(LocalDateTime.now());
+        assessmentRepository.save(assessment);
+        quizAnswerKeyService.evict(assessmentId);
+        
+        return mapToResponseDTO(assessment, true);
+    }
+    
     /**
      * Get assessment by ID
      */
@@ -183,7 +230,17 @@ public class AssessmentService {
             throw new BadRequestException("Maximum attempts reached for this assessment");
         }
         
-        // Create submission
+        // Each question counts once, so a repeated answer cannot add its marks again
+        Set<Long> answered = new HashSet<>();
+        for (SubmissionRequestDTO.AnswerDTO answerDTO : request.getAnswers()) {
+            if (!answered.add(answerDTO.getQuestionId())) {
+                throw new BadRequestException("Question " + answerDTO.getQuestionId() + " was answered more than once");
+            }
+        }
+        
+        // Grade every answer against the in-memory answer key
+        QuizAnswerKey answerKey = quizAnswerKeyService.getAnswerKey(assessment);
+        
         Submission submission = Submission.builder()
                 .assessment(assessment)
                 .student(student)
@@ -191,70 +248,48 @@ public class AssessmentService {
                 .status(SubmissionStatus.SUBMITTED)
                 .build();
         
-        submission = submissionRepository.save(submission);
-        
-        // Process answers and auto-grade
         int totalObtained = 0;
         List<SubmissionResponseDTO.AnswerResultDTO> results = new ArrayList<>();
         
         for (SubmissionRequestDTO.AnswerDTO answerDTO : request.getAnswers()) {
-            Question question = questionRepository.findById(answerDTO.getQuestionId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Question not found"));
-            
-            // Auto-grade MCQ and True/False
-            if (question.getQuestionType() == QuestionType.MULTIPLE_CHOICE || 
-                question.getQuestionType() == QuestionType.TRUE_FALSE) {
-                
-                QuestionOption selectedOption = null;
-                if (answerDTO.getSelectedOptionId() != null) {
-                    selectedOption = questionOptionRepository.findById(answerDTO.getSelectedOptionId())
-                            .orElse(null);
-                }
-                
-                int marksObtained = 0;
-                boolean isCorrect = false;
-                if (selectedOption != null && selectedOption.getIsCorrect()) {
-                    marksObtained = question.getMarks();
-                    isCorrect = true;
-                }
-                totalObtained += marksObtained;
-                
-                results.add(SubmissionResponseDTO.AnswerResultDTO.builder()
-                        .questionId(question.getId())
-                        .questionText(question.getQuestionText())
-                        .studentAnswer(selectedOption != null ? selectedOption.getOptionText() : "No answer")
-                        .isCorrect(isCorrect)
-                        .marksObtained(marksObtained)
-                        .maxMarks(question.getMarks())
-                        .build());
-            } else {
-                // Subjective - needs manual grading
-                results.add(SubmissionResponseDTO.AnswerResultDTO.builder()
-                        .questionId(question.getId())
-                        .questionText(question.getQuestionText())
-                        .studentAnswer(answerDTO.getAnswerText())
-                        .marksObtained(0)
-                        .maxMarks(question.getMarks())
-                        .build());
+            if (!answerKey.contains(answerDTO.getQuestionId())) {
+                throw new ResourceNotFoundException("Question not found");
             }
+            QuizAnswerKey.GradedAnswer graded = answerKey.grade(
+                    answerDTO.getQuestionId(), answerDTO.getSelectedOptionId(), answerDTO.getAnswerText());
+            totalObtained += graded.marksObtained();
+            
+            submission.getAnswers().add(SubmissionAnswer.builder()
+                    .submission(submission)
+                    .question(questionRepository.getReferenceById(answerDTO.getQuestionId()))
+                    .selectedOptionId(graded.selectedOptionId())
+                    .answerText(answerDTO.getAnswerText())
+                    .isCorrect(graded.isCorrect())
+                    .marksObtained(graded.marksObtained())
+                    .build());
+            
+            results.add(SubmissionResponseDTO.AnswerResultDTO.builder()
+                    .questionId(graded.question().id())
+                    .questionText(graded.question().text())
+                    .studentAnswer(graded.studentAnswer())
+                    .isCorrect(graded.isCorrect())
+                    .marksObtained(graded.marksObtained())
+                    .maxMarks(graded.question().marks())
+                    .build());
         }
         
-        // Update submission
         submission.setObtainedMarks(totalObtained);
         
-        // Check if all questions are auto-graded
-        boolean allAutoGraded = assessment.getQuestions().stream()
-                .allMatch(q -> q.getQuestionType() == QuestionType.MULTIPLE_CHOICE || 
-                              q.getQuestionType() == QuestionType.TRUE_FALSE);
-        
-        if (allAutoGraded) {
+        if (answerKey.isAllAutoGraded()) {
             submission.setStatus(SubmissionStatus.GRADED);
             submission.setGradedAt(LocalDateTime.now());
         } else {
             submission.setStatus(SubmissionStatus.PENDING_REVIEW);
         }
         
+        // The submission row first, then its answers as one JDBC batch
         submission = submissionRepository.save(submission);
+        analyticsRollupService.submissionRecorded(submission);
         log.info("Submission completed: {}", submission.getId());
         
         return mapToSubmissionDTO(submission, results, assessment.getShowResultsImmediately());
@@ -7,12 +7,14 @@ import com.edusmart.dto.auth.RegisterRequest;
 import com.edusmart.entity.User;
 import com.edusmart.exception.BadRequestException;
 import com.edusmart.repository.UserRepository;
-import com.edusmart.security.JwtTokenProvider;
+import com.edusmart.security.AuthenticatedPrincipalCache;
+import com.edusmart.security.LoginThrottle;
 import com.edusmart.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -34,7 +36,13 @@ public class AuthService {
     private PasswordEncoder passwordEncoder;
     
     @Autowired
-    private JwtTokenProvider tokenProvider;
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private AuthenticatedPrincipalCache principalCache;
+    
+    @Autowired
+    private LoginThrottle loginThrottle;
     
     /**
      * Register new user
@@ -66,12 +74,11 @@ public class AuthService {
         userRepository.save(user);
         
         // Generate tokens
-        String accessToken = tokenProvider.generateAccessToken(user.getUsername());
-        String refreshToken = tokenProvider.generateRefreshToken(user.getUsername());
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.open(user.getId(), user.getUsername());
         
         return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .accessToken(tokens.accessToken())
+                .refreshToken(tokens.refreshToken())
                 .tokenType("Bearer")
                 .userId(user.getId())
                 .username(user.getUsername())
@@ -84,24 +91,31 @@ public class AuthService {
     /**
      * Login user
      */
-    public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmailOrUsername(),
-                        request.getPassword()
-                )
-        );
+    public AuthResponse login(LoginRequest request, String clientIp) {
+        loginThrottle.checkAttempt(clientIp, request.getEmailOrUsername());
+        
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getEmailOrUsername(),
+                            request.getPassword()
+                    )
+            );
+        } catch (AuthenticationException ex) {
+            loginThrottle.recordFailure(request.getEmailOrUsername());
+            throw ex;
+        }
         
         SecurityContextHolder.getContext().setAuthentication(authentication);
         
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         
-        String accessToken = tokenProvider.generateAccessToken(authentication);
-        String refreshToken = tokenProvider.generateRefreshToken(userPrincipal.getUsername());
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.open(userPrincipal.getId(), userPrincipal.getUsername());
         
         return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .accessToken(tokens.accessToken())
+                .refreshToken(tokens.refreshToken())
                 .tokenType("Bearer")
                 .userId(userPrincipal.getId())
                 .username(userPrincipal.getUsername())
@@ -112,24 +126,17 @@ public class AuthService {
     }
     
     /**
-     * Refresh access token
+     * Refresh access token, rotating the refresh token
      */
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        String refreshToken = request.getRefreshToken();
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.rotate(request.getRefreshToken());
         
-        if (!tokenProvider.validateToken(refreshToken)) {
-            throw new BadRequestException("Invalid refresh token");
-        }
-        
-        String username = tokenProvider.getUsernameFromToken(refreshToken);
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.findByUsername(tokens.username())
                 .orElseThrow(() -> new BadRequestException("User not found"));
         
-        String newAccessToken = tokenProvider.generateAccessToken(username);
-        
         return AuthResponse.builder()
-                .accessToken(newAccessToken)
-                .refreshToken(refreshToken)
+                .accessToken(tokens.accessToken())
+                .refreshToken(tokens.refreshToken())
                 .tokenType("Bearer")
                 .userId(user.getId())
                 .username(user.getUsername())
@@ -138,4 +145,12 @@ public class AuthService {
                 .role(user.getRole())
                 .build();
     }
+    
+    /**
+     * Logout: revoke the session of the refresh token, which also rejects its access tokens
+     */
+    public void logout(RefreshTokenRequest request) {
+        String username = refreshTokenService.revoke(request.getRefreshToken());
+        principalCache.evict(username);
+    }
 }
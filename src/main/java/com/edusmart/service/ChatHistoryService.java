@@ -0,0 +1,278 @@
+package com.edusmart.service;
+
+import com.edusmart.dto.chat.ChatMessageDTO;
+import com.edusmart.dto.common.CursorPageDTO;
+import com.edusmart.entity.ChatLogEntry;
+import com.edusmart.entity.enums.ChatRoomType;
+import com.edusmart.repository.ChatLogEntryRepository;
+import com.edusmart.util.PageCursor;
+import com.edusmart.util.WriteBehindBuffer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * History of the live discussion and course chats.
+ * Each active room keeps its latest messages in a ring buffer, which serves the replay for new
+ * subscribers and the first page of history without touching the database. Messages are written
+ * behind in JDBC batches instead of one INSERT per message on the sending thread; until a batch
+ * is written, the pending messages are merged into every history read so none go missing.
+ * Messages recorded on other nodes arrive through the STOMP relay and are merged into this
+ * node's buffers, so the replay and first page include them; the sending node writes them.
+ * Messages still pending when the node dies are lost.
+ */
+@Service
+public class ChatHistoryService {
+
+    private static final Comparator<ChatMessageDTO> NEWEST_FIRST = Comparator.comparing(ChatMessageDTO::getSentAt)
+            .thenComparing(ChatMessageDTO::getId)
+            .reversed();
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_log (id, room_type, room_id, sender_id, sender_name, content, message_type, sent_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ChatLogEntryRepository chatLogEntryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int bufferSize;
+
+    private final Cache<String, RoomBuffer> rooms;
+    private final WriteBehindBuffer<String, ChatMessageDTO> pending;
+
+    public ChatHistoryService(ChatLogEntryRepository chatLogEntryRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${chat.history.buffer-size:50}") int bufferSize,
+                              @Value("${chat.history.max-rooms:10000}") long maxRooms,
+                              @Value("${chat.history.room-idle-ms:1800000}") long roomIdleMs,
+                              @Value("${chat.history.flush-threshold:500}") int flushThreshold,
+                              @Value("${chat.history.max-attempts:30}") int maxAttempts) {
+        this.chatLogEntryRepository = chatLogEntryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bufferSize = bufferSize;
+        this.rooms = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterAccess(Duration.ofMillis(roomIdleMs))
+                .build();
+        this.pending = new WriteBehindBuffer<>("chat-history", flushThreshold, maxAttempts,
+                (buffered, retried) -> buffered, this::write);
+    }
+
+    /**
+     * Record a message sent to a room and return it with its id and time
+     */
+    public ChatMessageDTO append(ChatRoomType roomType, Long roomId, Long senderId, String senderName,
+                                 String content, String messageType) {
+        ChatMessageDTO message = ChatMessageDTO.builder()
+                .id(UUID.randomUUID().toString().replace("-", ""))
+                .roomType(roomType.name())
+                .roomId(roomId)
+                .senderId(senderId)
+                .senderName(senderName)
+                .content(content)
+                .messageType(messageType)
+                .build();
+
+        RoomBuffer buffer = room(roomType, roomId);
+        synchronized (buffer) {
+            // Timestamped under the lock so the buffer stays in sentAt order
+            message.setSentAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+            buffer.add(message);
+            pending.record(message.getId(), message);
+        }
+        return message;
+    }
+
+    /**
+     * Add a message recorded on another node to this node's buffer of the room
+     */
+    public void received(ChatRoomType roomType, Long roomId, ChatMessageDTO message) {
+        RoomBuffer buffer = room(roomType, roomId);
+        synchronized (buffer) {
+            buffer.insert(message);
+        }
+    }
+
+    /**
+     * The latest messages of a room, oldest first, for replay when a client subscribes
+     */
+    public List<ChatMessageDTO> recent(ChatRoomType roomType, Long roomId) {
+        RoomBuffer buffer = room(roomType, roomId);
+        synchronized (buffer) {
+            return new ArrayList<>(buffer.messages);
+        }
+    }
+
+    /**
+     * Page backwards through a room's history, newest first; pass nextCursor back to load earlier messages
+     */
+    public CursorPageDTO<ChatMessageDTO> history(ChatRoomType roomType, Long roomId, String cursor, int size) {
+        int limit = PageCursor.clamp(size);
+        PageCursor position = PageCursor.decode(cursor, 2);
+
+        if (position == null) {
+            RoomBuffer buffer = room(roomType, roomId);
+            synchronized (buffer) {
+                if (buffer.messages.size() > limit || buffer.complete) {
+                    List<ChatMessageDTO> newest = new ArrayList<>(buffer.messages);
+                    Collections.reverse(newest);
+                    return page(newest, size);
+                }
+            }
+        }
+
+        LocalDateTime sentAt = position != null ? position.getDateTime(0) : null;
+        String id = position != null ? position.getString(1) : null;
+        List<ChatMessageDTO> unwritten = unwritten(roomType, roomId);
+        List<ChatLogEntry> stored = position == null
+                ? chatLogEntryRepository.findLatest(roomType, roomId, PageCursor.limit(size))
+                : chatLogEntryRepository.findEarlier(roomType, roomId, sentAt, id, PageCursor.limit(size));
+
+        Map<String, ChatMessageDTO> merged = new HashMap<>();
+        stored.forEach(entry -> merged.put(entry.getId(), mapToDTO(entry)));
+        for (ChatMessageDTO message : unwritten) {
+            if (position == null || isBefore(message, sentAt, id)) {
+                merged.put(message.getId(), message);
+            }
+        }
+        List<ChatMessageDTO> rows = new ArrayList<>(merged.values());
+        rows.sort(NEWEST_FIRST);
+        return page(rows.subList(0, Math.min(rows.size(), limit + 1)), size);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.history.flush-interval-ms:1000}")
+    public void flush() {
+        pending.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pending.shutdown();
+    }
+
+    private void write(Map<String, ChatMessageDTO> batch) {
+        List<ChatMessageDTO> messages = new ArrayList<>(batch.values());
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, messages, 500, (ps, message) -> {
+            ps.setString(1, message.getId());
+            ps.setString(2, message.getRoomType());
+            ps.setLong(3, message.getRoomId());
+            ps.setObject(4, message.getSenderId());
+            ps.setString(5, message.getSenderName());
+            ps.setString(6, message.getContent());
+            ps.setString(7, message.getMessageType());
+            ps.setTimestamp(8, Timestamp.valueOf(message.getSentAt()));
+        }));
+    }
+
+    private RoomBuffer room(ChatRoomType roomType, Long roomId) {
+        return rooms.get(roomType + ":" + roomId, key -> load(roomType, roomId));
+    }
+
+    // Latest stored messages plus those not written yet
+    private RoomBuffer load(ChatRoomType roomType, Long roomId) {
+        List<ChatMessageDTO> unwritten = unwritten(roomType, roomId);
+        List<ChatLogEntry> stored = chatLogEntryRepository.findLatest(roomType, roomId, PageRequest.of(0, bufferSize));
+        Map<String, ChatMessageDTO> merged = new HashMap<>();
+        stored.forEach(entry -> merged.put(entry.getId(), mapToDTO(entry)));
+        unwritten.forEach(message -> merged.put(message.getId(), message));
+
+        List<ChatMessageDTO> messages = new ArrayList<>(merged.values());
+        messages.sort(NEWEST_FIRST.reversed());
+        RoomBuffer buffer = new RoomBuffer(bufferSize, stored.size() < bufferSize);
+        messages.forEach(buffer::add);
+        return buffer;
+    }
+
+    /**
+     * Messages of a room that are not committed yet; read before querying the table, so a batch
+     * committed in between is found in one place or the other
+     */
+    private List<ChatMessageDTO> unwritten(ChatRoomType roomType, Long roomId) {
+        String type = roomType.name();
+        List<ChatMessageDTO> messages = new ArrayList<>();
+        for (ChatMessageDTO message : pending.unwritten()) {
+            if (message.getRoomId().equals(roomId) && message.getRoomType().equals(type)) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    private static boolean isBefore(ChatMessageDTO message, LocalDateTime sentAt, String id) {
+        int bySentAt = message.getSentAt().compareTo(sentAt);
+        return bySentAt < 0 || (bySentAt == 0 && message.getId().compareTo(id) < 0);
+    }
+
+    private static CursorPageDTO<ChatMessageDTO> page(List<ChatMessageDTO> newestFirst, int size) {
+        return CursorPageDTO.of(newestFirst, size, message -> PageCursor.encode(message.getSentAt(), message.getId()), message -> message);
+    }
+
+    private ChatMessageDTO mapToDTO(ChatLogEntry entry) {
+        return ChatMessageDTO.builder()
+                .id(entry.getId())
+                .roomType(entry.getRoomType().name())
+                .roomId(entry.getRoomId())
+                .senderId(entry.getSenderId())
+                .senderName(entry.getSenderName())
+                .content(entry.getContent())
+                .messageType(entry.getMessageType())
+                .sentAt(entry.getSentAt())
+                .build();
+    }
+
+    /**
+     * Ring buffer of a room's latest messages, oldest first
+     */
+    private static final class RoomBuffer {
+        private final ArrayDeque<ChatMessageDTO> messages;
+        private final int capacity;
+        // The buffer holds the room's whole history, so nothing older exists
+        private boolean complete;
+
+        RoomBuffer(int capacity, boolean complete) {
+            this.messages = new ArrayDeque<>(capacity);
+            this.capacity = capacity;
+            this.complete = complete;
+        }
+
+        void add(ChatMessageDTO message) {
+            if (messages.size() == capacity) {
+                messages.pollFirst();
+                complete = false;
+            }
+            messages.addLast(message);
+        }
+
+        /**
+         * Add a message in sentAt order, which a relayed one may arrive out of; known ids are skipped
+         */
+        void insert(ChatMessageDTO message) {
+            Deque<ChatMessageDTO> newer = new ArrayDeque<>();
+            while (!messages.isEmpty() && NEWEST_FIRST.compare(messages.peekLast(), message) < 0) {
+                newer.push(messages.pollLast());
+            }
+            if (messages.isEmpty() || !messages.peekLast().getId().equals(message.getId())) {
+                messages.addLast(message);
+            }
+            messages.addAll(newer);
+            while (messages.size() > capacity) {
+                messages.pollFirst();
+                complete = false;
+            }
+        }
+    }
+}
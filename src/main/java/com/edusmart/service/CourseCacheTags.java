@@ -0,0 +1,213 @@
+package com.edusmart.service;
+
+import com.edusmart.cache.CacheTagIndex;
+import com.edusmart.dto.course.CourseListDTO;
+import com.edusmart.entity.Course;
+import com.edusmart.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keys and dependency tracking for the "courses" cache.
+ * Every cached catalog page is tagged with the courses it lists, its listing (all or one category)
+ * and its sort properties, so a course change evicts only its detail entry and the pages it affects
+ * instead of the whole cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseCacheTags {
+
+    public static final String CACHE_NAME = "courses";
+
+    private static final String ALL_LISTING = "listing:all";
+
+    private final CacheManager cacheManager;
+    private final CacheTagIndex cacheTagIndex;
+
+    public String courseKey(Long courseId) {
+        return "course_" + courseId;
+    }
+
+    public String allCoursesKey(Pageable pageable) {
+        return "all_" + pageKey(pageable);
+    }
+
+    public String categoryKey(Long categoryId, Pageable pageable) {
+        return "category_" + categoryId + "_" + pageKey(pageable);
+    }
+
+    public Page<CourseListDTO> allCoursesPage(Pageable pageable, Supplier<Page<CourseListDTO>> loader) {
+        return cachedPage(allCoursesKey(pageable), ALL_LISTING, pageable, loader);
+    }
+
+    public Page<CourseListDTO> categoryPage(Long categoryId, Pageable pageable, Supplier<Page<CourseListDTO>> loader) {
+        return cachedPage(categoryKey(categoryId, pageable), categoryListing(categoryId), pageable, loader);
+    }
+
+    /**
+     * A new course only shows up in listings once published; then every page of its listings may shift
+     */
+    public void courseAdded(CourseState course) {
+        Set<String> tags = new HashSet<>();
+        if (course.published()) {
+            tags.addAll(listings(course));
+        }
+        evictAfterCommit(Set.of(courseKey(course.id())), tags);
+    }
+
+    public void courseRemoved(CourseState course) {
+        Set<String> tags = new HashSet<>();
+        tags.add(courseTag(course.id()));
+        if (course.published()) {
+            tags.addAll(listings(course));
+        }
+        evictAfterCommit(Set.of(courseKey(course.id())), tags);
+    }
+
+    /**
+     * Evict the course detail, the pages listing the course and, when the change can move
+     * the course between pages, the pages of its listings that are affected by the move
+     */
+    public void courseUpdated(CourseState before, CourseState after) {
+        Set<String> tags = new HashSet<>();
+        tags.add(courseTag(after.id()));
+
+        if (before.published() != after.published()) {
+            // Joining or leaving a listing shifts every page after it
+            tags.addAll(listings(before.published() ? before : after));
+        } else if (after.published()) {
+            if (!Objects.equals(before.categoryId(), after.categoryId())) {
+                tags.add(categoryListing(before.categoryId()));
+                tags.add(categoryListing(after.categoryId()));
+            }
+            Set<String> changed = before.changedProperties(after);
+            for (String listing : listings(after)) {
+                changed.forEach(property -> tags.add(sortTag(listing, property)));
+            }
+        }
+        evictAfterCommit(Set.of(courseKey(after.id())), tags);
+    }
+
+    /**
+     * Serve a catalog page from the cache, loading it on a miss (coalesced and refreshed early by the cache).
+     * A loaded page can only be tagged once its courses are known, after it is stored, so a change could
+     * remove one of its tags in that window without finding it. The tag index generation is read before
+     * the load and again after tagging; if any tag was removed meanwhile the page is evicted, at worst
+     * costing an unrelated page one extra load.
+     */
+    private Page<CourseListDTO> cachedPage(String key, String listing, Pageable pageable,
+                                           Supplier<Page<CourseListDTO>> loader) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return loader.get();
+        }
+        long generation = cacheTagIndex.generation(CACHE_NAME);
+        AtomicBoolean loaded = new AtomicBoolean();
+        Page<CourseListDTO> page = cache.get(key, () -> {
+            loaded.set(true);
+            return loader.get();
+        });
+        if (loaded.get() && page != null) {
+            registerPage(key, listing, pageable, page);
+            if (cacheTagIndex.generation(CACHE_NAME) != generation) {
+                cache.evictIfPresent(key);
+            }
+        }
+        return page;
+    }
+
+    private void registerPage(String key, String listing, Pageable pageable, Page<CourseListDTO> page) {
+        List<String> tags = new ArrayList<>(page.getNumberOfElements() + 2);
+        tags.add(listing);
+        pageable.getSort().forEach(order -> tags.add(sortTag(listing, order.getProperty())));
+        page.getContent().forEach(course -> tags.add(courseTag(course.getId())));
+        cacheTagIndex.tag(CACHE_NAME, key, tags);
+    }
+
+    // Evicting after commit keeps readers from re-caching the old state before it is replaced
+    private void evictAfterCommit(Set<String> keys, Set<String> tags) {
+        TransactionUtils.afterCommit(() -> evict(keys, tags));
+    }
+
+    private void evict(Set<String> keys, Set<String> tags) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        Set<String> toEvict = new HashSet<>(keys);
+        for (String tag : tags) {
+            toEvict.addAll(cacheTagIndex.removeTag(CACHE_NAME, tag));
+        }
+        // evictIfPresent applies immediately even on a transaction-aware cache
+        toEvict.forEach(cache::evictIfPresent);
+        log.debug("Evicted {} course cache entries for tags {}", toEvict.size(), tags);
+    }
+
+    private static List<String> listings(CourseState course) {
+        return List.of(ALL_LISTING, categoryListing(course.categoryId()));
+    }
+
+    private static String categoryListing(Long categoryId) {
+        return "listing:category:" + categoryId;
+    }
+
+    private static String courseTag(Long courseId) {
+        return "course:" + courseId;
+    }
+
+    private static String sortTag(String listing, String property) {
+        return listing + ":sort:" + property;
+    }
+
+    private static String pageKey(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        String sortKey = sort.isSorted()
+                ? sort.stream().map(order -> order.getProperty() + "." + order.getDirection()).collect(Collectors.joining(","))
+                : "unsorted";
+        return pageable.getPageNumber() + "_" + pageable.getPageSize() + "_" + sortKey;
+    }
+
+    /**
+     * The parts of a course that decide where it appears in the catalog
+     */
+    public record CourseState(Long id, Long categoryId, boolean published, Map<String, Object> sortValues) {
+
+        public static CourseState of(Course course) {
+            Map<String, Object> values = new HashMap<>();
+            values.put("title", course.getTitle());
+            values.put("shortDescription", course.getShortDescription());
+            values.put("level", course.getLevel());
+            values.put("price", course.getPrice());
+            values.put("durationHours", course.getDurationHours());
+            values.put("language", course.getLanguage());
+            values.put("isFeatured", course.getIsFeatured());
+            values.put("enrollmentCount", course.getEnrollmentCount());
+            values.put("averageRating", course.getAverageRating());
+            values.put("reviewCount", course.getReviewCount());
+            values.put("createdAt", course.getCreatedAt());
+            return new CourseState(course.getId(), course.getCategory().getId(),
+                    Boolean.TRUE.equals(course.getIsPublished()), values);
+        }
+
+        Set<String> changedProperties(CourseState after) {
+            Set<String> changed = sortValues.keySet().stream()
+                    .filter(property -> !Objects.equals(sortValues.get(property), after.sortValues.get(property)))
+                    .collect(Collectors.toCollection(HashSet::new));
+            // Any update moves updatedAt, which is assigned at flush time
+            changed.add("updatedAt");
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.Course;
+import com.edusmart.repository.CourseRepository;
+import com.edusmart.search.CourseAutocompleteIndex;
+import com.edusmart.search.CourseSearchIndex;
+import com.edusmart.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Keeps the in-process course search index and autocomplete trie in step with the courses table.
+ * Course writes update the index after commit; a periodic rebuild picks up changes
+ * made elsewhere (other nodes, instructor renames, rating recalculation).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseSearchService {
+
+    private final CourseRepository courseRepository;
+
+    private final CourseSearchIndex index = new CourseSearchIndex();
+    private final CourseAutocompleteIndex autocomplete = new CourseAutocompleteIndex();
+    private volatile boolean built;
+
+    /**
+     * Run a search, building the index first if the initial rebuild has not run yet
+     */
+    @Transactional(readOnly = true)
+    public CourseSearchIndex.Result search(CourseSearchIndex.Query query) {
+        if (!built) {
+            rebuild();
+        }
+        return index.search(query);
+    }
+
+    /**
+     * Suggestions for a partially typed query, served from memory without touching the database
+     */
+    public List<CourseAutocompleteIndex.Suggestion> suggest(String prefix, int limit) {
+        if (!built) {
+            rebuild();
+        }
+        return autocomplete.suggest(prefix, limit);
+    }
+
+    /**
+     * Rebuild the whole index from the published courses, first once startup data is loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.index.rebuild-interval-ms:600000}",
+               fixedDelayString = "${search.index.rebuild-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        List<CourseSearchIndex.CourseDocument> documents = courseRepository.findPublishedForSearchIndex().stream()
+                .map(CourseSearchService::toDocument)
+                .toList();
+        index.replaceAll(documents, start);
+        autocomplete.replaceAll(documents, start);
+        built = true;
+        log.info("Indexed {} courses for search in {} ms", documents.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reflect a created or updated course; unpublished courses are removed from the index
+     */
+    public void courseSaved(Course course) {
+        if (Boolean.TRUE.equals(course.getIsPublished())) {
+            CourseSearchIndex.CourseDocument document = toDocument(course);
+            TransactionUtils.afterCommit(() -> {
+                index.index(document);
+                autocomplete.index(document);
+            });
+        } else {
+            courseDeleted(course.getId());
+        }
+    }
+
+    public void courseDeleted(Long courseId) {
+        TransactionUtils.afterCommit(() -> {
+            index.remove(courseId);
+            autocomplete.remove(courseId);
+        });
+    }
+
+    private static CourseSearchIndex.CourseDocument toDocument(Course course) {
+        return new CourseSearchIndex.CourseDocument(
+                course.getId(),
+                course.getTitle(),
+                course.getShortDescription(),
+                course.getDescription() != null ? course.getDescription() : course.getFullDescription(),
+                course.getLearningObjectives(),
+                course.getCategory().getId(),
+                course.getCategory().getName(),
+                course.getInstructor().getId(),
+                course.getInstructor().getFirstName() + " " + course.getInstructor().getLastName(),
+                course.getLevel(),
+                course.getPrice(),
+                course.getAverageRating(),
+                course.getEnrollmentCount());
+    }
+}
@@ -1,23 +1,33 @@
 package com.edusmart.service;
 
+import com.edusmart.dto.common.CursorPageDTO;
 import com.edusmart.dto.course.*;
 import com.edusmart.entity.*;
+import com.edusmart.entity.enums.PriceBand;
 import com.edusmart.entity.enums.Role;
 import com.edusmart.exception.BadRequestException;
 import com.edusmart.exception.ResourceNotFoundException;
 import com.edusmart.repository.*;
+import com.edusmart.search.CourseAutocompleteIndex;
+import com.edusmart.search.CourseSearchIndex;
+import com.edusmart.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -34,11 +44,13 @@ public class CourseService {
     private final UserRepository userRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final LessonRepository lessonRepository;
+    private final CourseCacheTags courseCacheTags;
+    private final CourseSearchService courseSearchService;
+    private final TransactionTemplate transactionTemplate;
     
     /**
      * Create a new course
      */
-    @CacheEvict(value = "courses", allEntries = true)
     public CourseResponseDTO createCourse(CourseRequestDTO request, String instructorUsername) {
         log.info("Creating course: {} by instructor: {}", request.getTitle(), instructorUsername);
         
@@ -75,6 +87,8 @@ public class CourseService {
                 .build();
         
         course = courseRepository.save(course);
+        courseCacheTags.courseAdded(CourseCacheTags.CourseState.of(course));
+        courseSearchService.courseSaved(course);
         log.info("Course created successfully with id: {}", course.getId());
         
         return mapToResponseDTO(course);
@@ -83,7 +97,6 @@ public class CourseService {
     /**
      * Update existing course
      */
-    @CacheEvict(value = "courses", allEntries = true)
     public CourseResponseDTO updateCourse(Long courseId, CourseRequestDTO request, String username) {
         log.info("Updating course: {} by user: {}", courseId, username);
         
@@ -98,6 +111,8 @@ public class CourseService {
             throw new BadRequestException("You don't have permission to update this course");
         }
         
+        CourseCacheTags.CourseState before = CourseCacheTags.CourseState.of(course);
+        
         // Update category if changed
         if (request.getCategoryId() != null && !request.getCategoryId().equals(course.getCategory().getId())) {
             Category category = categoryRepository.findById(request.getCategoryId())
@@ -121,6 +136,8 @@ public class CourseService {
         if (request.getIsPublished() != null) course.setIsPublished(request.getIsPublished());
         
         course = courseRepository.save(course);
+        courseCacheTags.courseUpdated(before, CourseCacheTags.CourseState.of(course));
+        courseSearchService.courseSaved(course);
         log.info("Course updated successfully: {}", courseId);
         
         return mapToResponseDTO(course);
@@ -129,7 +146,7 @@ public class CourseService {
     /**
      * Get course by ID
      */
-    @Cacheable(value = "courses", key = "'course_' + #courseId")
+    @Cacheable(value = "courses", key = "@courseCacheTags.courseKey(#courseId)")
     @Transactional(readOnly = true)
     public CourseResponseDTO getCourseById(Long courseId) {
         log.info("Fetching course {} from database (not cached)", courseId);
@@ -141,26 +158,39 @@ public class CourseService {
     /**
      * Get all courses with pagination
      */
-    @Cacheable(value = "courses", key = "'all_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<CourseListDTO> getAllCourses(Pageable pageable) {
-        log.info("Fetching all courses from database (not cached)");
-        Page<Course> courses = courseRepository.findByIsPublished(true, pageable);
-        return courses.map(this::mapToListDTO);
+        return courseCacheTags.allCoursesPage(pageable, () -> transactionTemplate.execute(status -> {
+            log.info("Fetching all courses from database (not cached)");
+            return courseRepository.findByIsPublished(true, pageable).map(this::mapToListDTO);
+        }));
     }
     
     /**
-     * Get courses by category
+     * Scroll the published catalog newest first with a keyset cursor instead of page numbers
      */
-    @Cacheable(value = "courses", key = "'category_' + #categoryId + '_' + #pageable.pageNumber")
     @Transactional(readOnly = true)
+    public CursorPageDTO<CourseListDTO> scrollCourses(String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor, 2);
+        List<Course> courses = position == null
+                ? courseRepository.findPublishedSlice(PageCursor.limit(size))
+                : courseRepository.findPublishedSliceAfter(position.getDateTime(0), position.getLong(1), PageCursor.limit(size));
+        return CursorPageDTO.of(courses, size,
+                course -> PageCursor.encode(course.getCreatedAt(), course.getId()), this::mapToListDTO);
+    }
+    
+    /**
+     * Get courses by category
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<CourseListDTO> getCoursesByCategory(Long categoryId, Pageable pageable) {
-        log.info("Fetching courses for category {} from database (not cached)", categoryId);
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
-        
-        Page<Course> courses = courseRepository.findByCategoryAndIsPublished(category, true, pageable);
-        return courses.map(this::mapToListDTO);
+        return courseCacheTags.categoryPage(categoryId, pageable, () -> transactionTemplate.execute(status -> {
+            log.info("Fetching courses for category {} from database (not cached)", categoryId);
+            Category category = categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+            return courseRepository.findByCategoryAndIsPublished(category, true, pageable)
+                    .map(this::mapToListDTO);
+        }));
     }
     
     /**
@@ -176,13 +206,56 @@ public class CourseService {
     }
     
     /**
-     * Search courses by title or description
+     * Search published courses with relevance ranking and facet counts
      */
     @Transactional(readOnly = true)
-    public Page<CourseListDTO> searchCourses(String keyword, Pageable pageable) {
-        Page<Course> courses = courseRepository.findByTitleContainingIgnoreCaseOrShortDescriptionContainingIgnoreCaseAndIsPublished(
-                keyword, keyword, true, pageable);
-        return courses.map(this::mapToListDTO);
+    public CourseSearchResultDTO searchCourses(String keyword, Long categoryId, CourseLevel level,
+                                               PriceBand priceBand, Double minRating, Pageable pageable) {
+        CourseSearchIndex.Result result = courseSearchService.search(new CourseSearchIndex.Query(
+                keyword, categoryId, level, priceBand, minRating, (int) pageable.getOffset(), pageable.getPageSize()));
+        
+        // Load the page of courses and restore the rank order
+        Map<Long, Course> courses = courseRepository.findAllById(result.courseIds()).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+        List<CourseListDTO> content = result.courseIds().stream()
+                .map(courses::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToListDTO)
+                .collect(Collectors.toList());
+        
+        Map<String, List<SearchFacetDTO>> facets = new LinkedHashMap<>();
+        result.facets().forEach((name, counts) -> facets.put(name, counts.stream()
+                .map(count -> SearchFacetDTO.builder()
+                        .value(count.value())
+                        .label(count.label())
+                        .count(count.count())
+                        .build())
+                .collect(Collectors.toList())));
+        
+        return CourseSearchResultDTO.builder()
+                .query(keyword)
+                .content(content)
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .totalElements(result.total())
+                .totalPages((int) Math.ceil((double) result.total() / pageable.getPageSize()))
+                .facets(facets)
+                .build();
+    }
+    
+    /**
+     * Autocomplete suggestions for a partially typed search; no transaction is needed
+     * since they are served from memory
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CourseSuggestionDTO> autocomplete(String prefix, int limit) {
+        return courseSearchService.suggest(prefix, Math.min(limit, CourseAutocompleteIndex.TOP_K)).stream()
+                .map(suggestion -> CourseSuggestionDTO.builder()
+                        .type(suggestion.type().name())
+                        .id(suggestion.id())
+                        .text(suggestion.text())
+                        .build())
+                .collect(Collectors.toList());
     }
     
     /**
@@ -213,7 +286,10 @@ public class CourseService {
             throw new BadRequestException("You don't have permission to delete this course");
         }
         
+        CourseCacheTags.CourseState removed = CourseCacheTags.CourseState.of(course);
         courseRepository.delete(course);
+        courseCacheTags.courseRemoved(removed);
+        courseSearchService.courseDeleted(courseId);
         log.info("Course deleted successfully: {}", courseId);
     }
     
@@ -231,8 +307,11 @@ public class CourseService {
             throw new BadRequestException("You don't have permission to publish/unpublish this course");
         }
         
+        CourseCacheTags.CourseState before = CourseCacheTags.CourseState.of(course);
         course.setIsPublished(!course.getIsPublished());
         course = courseRepository.save(course);
+        courseCacheTags.courseUpdated(before, CourseCacheTags.CourseState.of(course));
+        courseSearchService.courseSaved(course);
         
         log.info("Course {} status changed to: {}", courseId, course.getIsPublished() ? "Published" : "Unpublished");
         return mapToResponseDTO(course);
@@ -0,0 +1,165 @@
+package com.edusmart.service;
+
+import com.edusmart.dto.admin.DashboardStatsDTO;
+import com.edusmart.repository.*;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the admin dashboard figures with one conditional-aggregate query per table,
+ * runs those queries in parallel on a bounded pool and caches the resulting snapshot
+ * for a short TTL so concurrent dashboard loads share one computation
+ */
+@Service
+@Slf4j
+public class DashboardStatsEngine {
+
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final OrderRepository orderRepository;
+    private final CourseReviewRepository courseReviewRepository;
+    private final CertificateRepository certificateRepository;
+
+    private final long ttlMillis;
+    private final ExecutorService executor;
+    private final Object refreshLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    public DashboardStatsEngine(UserRepository userRepository,
+                                CourseRepository courseRepository,
+                                EnrollmentRepository enrollmentRepository,
+                                OrderRepository orderRepository,
+                                CourseReviewRepository courseReviewRepository,
+                                CertificateRepository certificateRepository,
+                                @Value("${admin.dashboard.stats-ttl-ms:30000}") long ttlMillis,
+                                @Value("${admin.dashboard.stats-threads:4}") int threads) {
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.orderRepository = orderRepository;
+        this.courseReviewRepository = courseReviewRepository;
+        this.certificateRepository = certificateRepository;
+        this.ttlMillis = ttlMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                r -> {
+                    Thread t = new Thread(r, "dashboard-stats-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Get the current dashboard snapshot, recomputing it when older than the TTL
+     */
+    public DashboardStatsDTO getStats() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlMillis)) {
+            return current.stats();
+        }
+        synchronized (refreshLock) {
+            current = snapshot;
+            if (current == null || current.isExpired(ttlMillis)) {
+                current = new Snapshot(compute(), System.currentTimeMillis());
+                snapshot = current;
+            }
+            return current.stats();
+        }
+    }
+
+    private DashboardStatsDTO compute() {
+        long start = System.currentTimeMillis();
+
+        LocalDateTime startOfToday = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
+        LocalDateTime startOfMonth = LocalDateTime.of(LocalDate.now().withDayOfMonth(1), LocalTime.MIN);
+
+        CompletableFuture<UserRepository.RoleCounts> users =
+                CompletableFuture.supplyAsync(userRepository::countByRoles, executor);
+        CompletableFuture<CourseRepository.PublicationCounts> courses =
+                CompletableFuture.supplyAsync(courseRepository::countByPublication, executor);
+        CompletableFuture<EnrollmentRepository.StatusCounts> enrollments =
+                CompletableFuture.supplyAsync(enrollmentRepository::countByStatuses, executor);
+        CompletableFuture<OrderRepository.OrderStats> orders =
+                CompletableFuture.supplyAsync(() -> orderRepository.getOrderStats(startOfMonth, startOfToday), executor);
+        CompletableFuture<CourseReviewRepository.ReviewStats> reviews =
+                CompletableFuture.supplyAsync(courseReviewRepository::getReviewStats, executor);
+        CompletableFuture<Long> certificates =
+                CompletableFuture.supplyAsync(certificateRepository::count, executor);
+
+        try {
+            CompletableFuture.allOf(users, courses, enrollments, orders, reviews, certificates).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        UserRepository.RoleCounts userCounts = users.join();
+        CourseRepository.PublicationCounts courseCounts = courses.join();
+        EnrollmentRepository.StatusCounts enrollmentCounts = enrollments.join();
+        OrderRepository.OrderStats orderStats = orders.join();
+        CourseReviewRepository.ReviewStats reviewStats = reviews.join();
+
+        long totalCourses = orZero(courseCounts.getTotal());
+        long publishedCourses = orZero(courseCounts.getPublished());
+
+        DashboardStatsDTO stats = DashboardStatsDTO.builder()
+                .totalUsers(orZero(userCounts.getTotal()))
+                .totalStudents(orZero(userCounts.getStudents()))
+                .totalInstructors(orZero(userCounts.getInstructors()))
+                .totalAdmins(orZero(userCounts.getAdmins()))
+                .totalCourses(totalCourses)
+                .publishedCourses(publishedCourses)
+                .draftCourses(totalCourses - publishedCourses)
+                .totalEnrollments(orZero(enrollmentCounts.getTotal()))
+                .activeEnrollments(orZero(enrollmentCounts.getActive()))
+                .completedEnrollments(orZero(enrollmentCounts.getCompleted()))
+                .totalRevenue(orZero(orderStats.getTotalRevenue()))
+                .monthlyRevenue(orZero(orderStats.getMonthlyRevenue()))
+                .todayRevenue(orZero(orderStats.getTodayRevenue()))
+                .totalOrders(orZero(orderStats.getTotal()))
+                .pendingOrders(orZero(orderStats.getPending()))
+                .completedOrders(orZero(orderStats.getCompleted()))
+                .failedOrders(orZero(orderStats.getFailed()))
+                .totalReviews(orZero(reviewStats.getTotal()))
+                .averageCourseRating(orZero(reviewStats.getAverageRating()))
+                .totalCertificates(certificates.join())
+                .build();
+
+        log.debug("Dashboard statistics computed in {} ms", System.currentTimeMillis() - start);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private record Snapshot(DashboardStatsDTO stats, long computedAt) {
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - computedAt >= ttlMillis;
+        }
+    }
+}
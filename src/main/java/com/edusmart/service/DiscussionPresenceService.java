@@ -0,0 +1,239 @@
+package com.edusmart.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Tracks who is in each live discussion and who is typing, and publishes coalesced snapshots.
+ * Join, leave and typing events only change in-memory state; once per tick every discussion
+ * that changed gets at most one presence snapshot and one typing snapshot. A room of n users
+ * then costs n outbound frames per tick instead of n per event. Users are counted once however
+ * many sessions they have open, and the sessions of a closed connection leave every discussion.
+ * State is per node: with several nodes each one reports the users connected to it.
+ */
+@Service
+@Slf4j
+public class DiscussionPresenceService {
+
+    // Names listed in a snapshot; the counts are always complete
+    private static final int MAX_NAMES = 10;
+    private static final int MAX_TYPING_NAMES = 3;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long typingTimeoutMs;
+
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> sessionRooms = new ConcurrentHashMap<>();
+
+    public DiscussionPresenceService(SimpMessagingTemplate messagingTemplate,
+                                     @Value("${presence.typing-timeout-ms:5000}") long typingTimeoutMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.typingTimeoutMs = typingTimeoutMs;
+    }
+
+    public void join(Long discussionId, String sessionId, Long userId, String userName) {
+        sessionRooms.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(discussionId);
+        withRoom(discussionId, room -> room.join(sessionId, userKey(sessionId, userId), userName));
+    }
+
+    public void leave(Long discussionId, String sessionId) {
+        Set<Long> discussions = sessionRooms.get(sessionId);
+        if (discussions != null) {
+            discussions.remove(discussionId);
+        }
+        Room room = rooms.get(discussionId);
+        if (room != null) {
+            synchronized (room) {
+                room.leave(sessionId);
+            }
+        }
+    }
+
+    /**
+     * Record a typing heartbeat; a user stops counting as typing when they say so or their
+     * heartbeats stop for longer than the typing timeout
+     */
+    public void typing(Long discussionId, String sessionId, Long userId, String userName, boolean isTyping) {
+        String userKey = userKey(sessionId, userId);
+        long until = System.currentTimeMillis() + typingTimeoutMs;
+        withRoom(discussionId, room -> room.typing(userKey, userName, isTyping, until));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Set<Long> discussions = sessionRooms.remove(event.getSessionId());
+        if (discussions != null) {
+            for (Long discussionId : discussions) {
+                leave(discussionId, event.getSessionId());
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${presence.tick-ms:1000}")
+    public void publishSnapshots() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Room> entry : rooms.entrySet()) {
+            Long discussionId = entry.getKey();
+            Room room = entry.getValue();
+            PresenceSnapshot presence;
+            TypingSnapshot typing;
+            synchronized (room) {
+                room.expireTyping(now);
+                presence = room.membersChanged ? room.presenceSnapshot(discussionId) : null;
+                typing = room.typingChanged ? room.typingSnapshot(discussionId) : null;
+                if (room.isEmpty()) {
+                    room.closed = true;
+                    rooms.remove(discussionId, room);
+                }
+            }
+            try {
+                if (presence != null) {
+                    messagingTemplate.convertAndSend("/topic/discussion/" + discussionId + "/presence", presence);
+                }
+                if (typing != null) {
+                    messagingTemplate.convertAndSend("/topic/discussion/" + discussionId + "/typing", typing);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to publish presence of discussion {}: {}", discussionId, e.getMessage());
+            }
+        }
+    }
+
+    private void withRoom(Long discussionId, Consumer<Room> change) {
+        while (true) {
+            Room room = rooms.computeIfAbsent(discussionId, id -> new Room());
+            synchronized (room) {
+                // A room emptied and dropped by the last tick must not receive the change
+                if (!room.closed) {
+                    change.accept(room);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String userKey(String sessionId, Long userId) {
+        return userId != null ? "user:" + userId : "session:" + sessionId;
+    }
+
+    public record PresenceSnapshot(Long discussionId, int memberCount, int memberDelta,
+                                   List<String> joined, List<String> left, LocalDateTime timestamp) {
+    }
+
+    public record TypingSnapshot(Long discussionId, int typingCount, List<String> typingUsers,
+                                 LocalDateTime timestamp) {
+    }
+
+    private static final class Room {
+        private final Map<String, String> sessionUsers = new HashMap<>();
+        private final Map<String, Member> members = new LinkedHashMap<>();
+        private final Map<String, Typist> typists = new LinkedHashMap<>();
+        private final List<String> joined = new ArrayList<>();
+        private final List<String> left = new ArrayList<>();
+        private int publishedCount;
+        private boolean membersChanged;
+        private boolean typingChanged;
+        private boolean closed;
+
+        void join(String sessionId, String userKey, String userName) {
+            if (sessionUsers.putIfAbsent(sessionId, userKey) != null) {
+                return;
+            }
+            Member member = members.computeIfAbsent(userKey, key -> new Member(userName));
+            if (member.sessions++ == 0) {
+                // Rejoining before the next tick cancels out
+                if (!left.remove(member.name)) {
+                    joined.add(member.name);
+                }
+                membersChanged = true;
+            }
+        }
+
+        void leave(String sessionId) {
+            String userKey = sessionUsers.remove(sessionId);
+            Member member = userKey != null ? members.get(userKey) : null;
+            if (member == null || --member.sessions > 0) {
+                return;
+            }
+            members.remove(userKey);
+            if (!joined.remove(member.name)) {
+                left.add(member.name);
+            }
+            membersChanged = true;
+            if (typists.remove(userKey) != null) {
+                typingChanged = true;
+            }
+        }
+
+        void typing(String userKey, String userName, boolean isTyping, long until) {
+            if (!isTyping) {
+                typingChanged |= typists.remove(userKey) != null;
+                return;
+            }
+            Typist typist = typists.get(userKey);
+            if (typist == null) {
+                typists.put(userKey, new Typist(userName, until));
+                typingChanged = true;
+            } else {
+                typist.until = until;
+            }
+        }
+
+        void expireTyping(long now) {
+            typingChanged |= typists.values().removeIf(typist -> typist.until < now);
+        }
+
+        PresenceSnapshot presenceSnapshot(Long discussionId) {
+            PresenceSnapshot snapshot = new PresenceSnapshot(discussionId, members.size(), members.size() - publishedCount,
+                    names(joined, MAX_NAMES), names(left, MAX_NAMES), LocalDateTime.now());
+            publishedCount = members.size();
+            joined.clear();
+            left.clear();
+            membersChanged = false;
+            return snapshot;
+        }
+
+        TypingSnapshot typingSnapshot(Long discussionId) {
+            List<String> typingNames = typists.values().stream().map(typist -> typist.name).toList();
+            typingChanged = false;
+            return new TypingSnapshot(discussionId, typists.size(), names(typingNames, MAX_TYPING_NAMES), LocalDateTime.now());
+        }
+
+        boolean isEmpty() {
+            return members.isEmpty() && typists.isEmpty() && !membersChanged && !typingChanged;
+        }
+
+        private static List<String> names(List<String> names, int limit) {
+            return names.stream().filter(Objects::nonNull).limit(limit).toList();
+        }
+    }
+
+    private static final class Member {
+        private final String name;
+        private int sessions;
+
+        Member(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Typist {
+        private final String name;
+        private long until;
+
+        Typist(String name, long until) {
+            this.name = name;
+            this.until = until;
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.edusmart.service;
 
+import com.edusmart.dto.common.CursorPageDTO;
 import com.edusmart.dto.discussion.*;
 import com.edusmart.entity.*;
 import com.edusmart.entity.enums.Role;
 import com.edusmart.exception.BadRequestException;
 import com.edusmart.exception.ResourceNotFoundException;
 import com.edusmart.repository.*;
+import com.edusmart.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -32,6 +34,8 @@ public class DiscussionService {
     private final LessonRepository lessonRepository;
     private final UserRepository userRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final NotificationService notificationService;
     
     /**
      * Create a new discussion
@@ -71,6 +75,7 @@ public class DiscussionService {
         }
         
         discussion = discussionRepository.save(discussion);
+        analyticsRollupService.discussionCreated(discussion);
         log.info("Discussion created: {}", discussion.getId());
         
         return mapToResponseDTO(discussion, true);
@@ -113,6 +118,22 @@ public class DiscussionService {
         return discussions.map(this::mapToListDTO);
     }
     
+    /**
+     * Scroll discussions for a course, pinned first and then newest first, with a keyset cursor
+     */
+    public CursorPageDTO<DiscussionListDTO> scrollCourseDiscussions(Long courseId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor, 3);
+        List<Discussion> discussions = position == null
+                ? discussionRepository.findSliceByCourseId(courseId, PageCursor.limit(size))
+                : discussionRepository.findSliceByCourseIdAfter(courseId, position.getBoolean(0),
+                        position.getDateTime(1), position.getLong(2), PageCursor.limit(size));
+        
+        return CursorPageDTO.of(discussions, size,
+                discussion -> PageCursor.encode(Boolean.TRUE.equals(discussion.getIsPinned()),
+                        discussion.getCreatedAt(), discussion.getId()),
+                this::mapToListDTO);
+    }
+    
     /**
      * Add reply to discussion
      */
@@ -154,6 +175,11 @@ public class DiscussionService {
         discussion.setUpdatedAt(LocalDateTime.now());
         discussionRepository.save(discussion);
         
+        if (!discussion.getUser().getId().equals(author.getId())) {
+            notificationService.notifyDiscussionReply(
+                    discussion.getUser().getId(), discussion.getId(), discussion.getTitle());
+        }
+        
         log.info("Reply added: {}", reply.getId());
         return mapToReplyDTO(reply);
     }
@@ -232,6 +258,7 @@ public class DiscussionService {
             throw new BadRequestException("You don't have permission to delete this discussion");
         }
         
+        analyticsRollupService.discussionRemoved(discussion);
         discussionRepository.delete(discussion);
         log.info("Discussion deleted: {}", discussionId);
     }
@@ -0,0 +1,125 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.enums.EnrollmentStatus;
+import com.edusmart.repository.EnrollmentRepository;
+import com.edusmart.util.WriteBehindBuffer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Write-behind buffer for enrollment progress heartbeats.
+ * Updates are coalesced per enrollment in memory (highest progress, latest access time) and
+ * written in JDBC batches every few seconds or once enough enrollments are pending, instead of
+ * one row update per heartbeat. The UPDATE only ever raises progress and access time, so a
+ * flush cannot undo a newer synchronous write. Buffered values are lost if the node dies
+ * before a flush; completions do not go through here.
+ */
+@Service
+public class EnrollmentProgressBuffer {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String UPDATE_SQL =
+            "UPDATE enrollments SET progress = GREATEST(progress, ?), " +
+            "last_accessed_at = GREATEST(COALESCE(last_accessed_at, ?), ?) WHERE id = ?";
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final WriteBehindBuffer<Long, PendingProgress> buffer;
+
+    public EnrollmentProgressBuffer(EnrollmentRepository enrollmentRepository,
+                                    AnalyticsRollupService analyticsRollupService,
+                                    JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${enrollment.progress.flush-threshold:1000}") int flushThreshold,
+                                    @Value("${enrollment.progress.max-attempts:10}") int maxAttempts) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.analyticsRollupService = analyticsRollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.buffer = new WriteBehindBuffer<>("enrollment-progress", flushThreshold, maxAttempts,
+                PendingProgress::merge, this::write);
+    }
+
+    /**
+     * Buffer a progress heartbeat; a full buffer is flushed in the background
+     */
+    public void record(Long enrollmentId, int progress, LocalDateTime accessedAt) {
+        buffer.record(enrollmentId, new PendingProgress(progress, accessedAt));
+    }
+
+    /**
+     * The change buffered for an enrollment and not yet written, if any
+     */
+    public Optional<PendingProgress> getPending(Long enrollmentId) {
+        return Optional.ofNullable(buffer.get(enrollmentId));
+    }
+
+    /**
+     * Drop the buffered change of an enrollment that is about to be written synchronously
+     */
+    public void discard(Long enrollmentId) {
+        buffer.discard(enrollmentId);
+    }
+
+    @Scheduled(fixedDelayString = "${enrollment.progress.flush-interval-ms:5000}")
+    public void flush() {
+        buffer.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buffer.shutdown();
+    }
+
+    private void write(Map<Long, PendingProgress> batch) {
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        transactionTemplate.executeWithoutResult(status -> {
+            List<AnalyticsRollupService.ProgressChange> changes = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+                for (Object[] row : enrollmentRepository.findProgressRowsByIdIn(chunk)) {
+                    PendingProgress change = batch.get(((Number) row[0]).longValue());
+                    int current = row[1] != null ? ((Number) row[1]).intValue() : 0;
+                    long raised = Math.max(0, change.progress() - current);
+                    boolean completed = row[2] == EnrollmentStatus.COMPLETED;
+                    changes.add(new AnalyticsRollupService.ProgressChange(
+                            ((Number) row[3]).longValue(), ((Number) row[4]).longValue(), ((Number) row[5]).longValue(),
+                            raised, completed ? 0 : raised, change.lastAccessedAt()));
+                }
+            }
+
+            jdbcTemplate.batchUpdate(UPDATE_SQL, ids, CHUNK_SIZE, (ps, enrollmentId) -> {
+                PendingProgress change = batch.get(enrollmentId);
+                Timestamp accessedAt = Timestamp.valueOf(change.lastAccessedAt());
+                ps.setInt(1, change.progress());
+                ps.setTimestamp(2, accessedAt);
+                ps.setTimestamp(3, accessedAt);
+                ps.setLong(4, enrollmentId);
+            });
+            analyticsRollupService.progressFlushed(changes);
+        });
+    }
+
+    /**
+     * Coalesced heartbeat of one enrollment
+     */
+    public record PendingProgress(int progress, LocalDateTime lastAccessedAt) {
+
+        PendingProgress merge(PendingProgress other) {
+            return new PendingProgress(Math.max(progress, other.progress),
+                    lastAccessedAt.isAfter(other.lastAccessedAt) ? lastAccessedAt : other.lastAccessedAt);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +36,9 @@ public class EnrollmentService {
     private final EnrollmentRepository enrollmentRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final LeaderboardService leaderboardService;
+    private final EnrollmentProgressBuffer progressBuffer;
     
     /**
      * Enroll student in a course
@@ -76,6 +80,8 @@ public class EnrollmentService {
                 .build();
         
         enrollment = enrollmentRepository.save(enrollment);
+        analyticsRollupService.enrollmentCreated(enrollment);
+        leaderboardService.recordEnrollment(enrollment.getCourse(), 1);
         log.info("Enrollment created successfully with id: {}", enrollment.getId());
         
         return mapToResponseDTO(enrollment);
@@ -140,16 +146,24 @@ public class EnrollmentService {
             throw new BadRequestException("Progress must be between 0 and 100");
         }
         
+        // Heartbeats are written behind; a completion is written through so it is durable at once
+        if (progress < 100 || Boolean.TRUE.equals(enrollment.getIsCompleted())) {
+            progressBuffer.record(enrollmentId, progress, LocalDateTime.now());
+            return mapToResponseDTO(enrollment);
+        }
+        progressBuffer.discard(enrollmentId);
+        
+        EnrollmentStatus previousStatus = enrollment.getStatus();
+        Integer previousProgress = enrollment.getProgress();
+        
         enrollment.setProgress(progress);
         enrollment.setLastAccessedAt(LocalDateTime.now());
-        
-        if (progress == 100 && !enrollment.getIsCompleted()) {
-            enrollment.setIsCompleted(true);
-            enrollment.setCompletedAt(LocalDateTime.now());
-            log.info("Student {} completed course {}", enrollment.getStudent().getUsername(), enrollment.getCourse().getTitle());
-        }
+        enrollment.setIsCompleted(true);
+        enrollment.setCompletedAt(LocalDateTime.now());
+        log.info("Student {} completed course {}", enrollment.getStudent().getUsername(), enrollment.getCourse().getTitle());
         
         enrollment = enrollmentRepository.save(enrollment);
+        analyticsRollupService.enrollmentUpdated(enrollment, previousStatus, previousProgress);
         return mapToResponseDTO(enrollment);
     }
     
@@ -170,6 +184,8 @@ public class EnrollmentService {
             throw new BadRequestException("You don't have permission to unenroll from this course");
         }
         
+        analyticsRollupService.enrollmentRemoved(enrollment);
+        leaderboardService.recordEnrollment(enrollment.getCourse(), -1);
         enrollmentRepository.delete(enrollment);
         log.info("Unenrollment successful");
     }
@@ -201,6 +217,17 @@ public class EnrollmentService {
         courseMap.put("level", enrollment.getCourse().getLevel());
         courseMap.put("price", enrollment.getCourse().getPrice());
         
+        // Show buffered heartbeats that have not been flushed yet
+        Integer progress = enrollment.getProgress();
+        LocalDateTime lastAccessedAt = enrollment.getLastAccessedAt();
+        Optional<EnrollmentProgressBuffer.PendingProgress> pending = progressBuffer.getPending(enrollment.getId());
+        if (pending.isPresent()) {
+            progress = progress != null ? Math.max(progress, pending.get().progress()) : pending.get().progress();
+            if (lastAccessedAt == null || pending.get().lastAccessedAt().isAfter(lastAccessedAt)) {
+                lastAccessedAt = pending.get().lastAccessedAt();
+            }
+        }
+        
         return EnrollmentResponseDTO.builder()
                 .id(enrollment.getId())
                 .courseId(enrollment.getCourse().getId())
@@ -209,11 +236,11 @@ public class EnrollmentService {
                 .studentId(enrollment.getStudent().getId())
                 .studentName(enrollment.getStudent().getFirstName() + " " + enrollment.getStudent().getLastName())
                 .status(enrollment.getStatus())
-                .progress(enrollment.getProgress())
+                .progress(progress)
                 .isCompleted(enrollment.getIsCompleted())
                 .enrolledAt(enrollment.getCreatedAt())
                 .completedAt(enrollment.getCompletedAt())
-                .lastAccessedAt(enrollment.getLastAccessedAt())
+                .lastAccessedAt(lastAccessedAt)
                 .course(courseMap)
                 .build();
     }
@@ -0,0 +1,146 @@
+package com.edusmart.service;
+
+import com.edusmart.config.FileStorageConfig;
+import com.edusmart.repository.FileBlobRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed, reference-counted storage for uploaded files.
+ * Content is hashed while it streams to a temporary file, and each distinct content is kept
+ * once under blobs/ab/cd/&lt;sha-256&gt;, so no directory holds more than a small share of
+ * the files. Uploading content that is already stored only adds a reference; releasing the
+ * last reference deletes the blob.
+ */
+@Service
+@Slf4j
+public class FileBlobStore {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FileBlobRepository blobRepository;
+    private final FileStorageConfig fileStorageConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    private Path blobRoot;
+    private Path tempDir;
+
+    public FileBlobStore(FileBlobRepository blobRepository,
+                         FileStorageConfig fileStorageConfig,
+                         PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.fileStorageConfig = fileStorageConfig;
+        // Reference changes commit on their own, independent of the caller's transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        blobRoot = fileStorageConfig.getUploadPath().resolve("blobs");
+        // Same file system as the blobs, so finished uploads are moved into place atomically
+        tempDir = fileStorageConfig.getUploadPath().resolve("tmp");
+        Files.createDirectories(blobRoot);
+        Files.createDirectories(tempDir);
+    }
+
+    /**
+     * Store the content, or add a reference to the identical blob that is already stored
+     */
+    public StoredBlob store(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest sha256 = newDigest();
+            long size;
+            try (InputStream in = new DigestInputStream(content, sha256)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            Path target = resolve(digest);
+
+            for (int attempt = 1; ; attempt++) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> blobRepository.incrementReferences(digest) == 1))) {
+                    // Heals a blob whose file went missing, as long as this upload still holds the bytes
+                    if (Files.notExists(target) && Files.exists(temp)) {
+                        moveIntoPlace(temp, target);
+                    }
+                    return new StoredBlob(digest, target, size);
+                }
+                if (Files.exists(temp)) {
+                    moveIntoPlace(temp, target);
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            blobRepository.insert(digest, size, LocalDateTime.now()));
+                    return new StoredBlob(digest, target, size);
+                } catch (DataIntegrityViolationException e) {
+                    // Another upload of the same content created the blob first; reference that one
+                    if (attempt >= MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Drop one reference, deleting the blob once nothing refers to it
+     */
+    public void release(String digest) {
+        transactionTemplate.executeWithoutResult(status -> blobRepository.findLockedByDigest(digest).ifPresent(blob -> {
+            if (blob.getReferenceCount() > 1) {
+                blob.setReferenceCount(blob.getReferenceCount() - 1);
+                return;
+            }
+            blobRepository.delete(blob);
+            blobRepository.flush();
+            // Still under the row lock, so a concurrent upload of this content waits and then recreates the file
+            try {
+                Files.deleteIfExists(resolve(digest));
+            } catch (IOException e) {
+                log.warn("Failed to delete blob {}: {}", digest, e.getMessage());
+            }
+        }));
+    }
+
+    private Path resolve(String digest) {
+        return blobRoot.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Blob holding an upload's content
+     */
+    public record StoredBlob(String digest, Path path, long size) {
+    }
+}
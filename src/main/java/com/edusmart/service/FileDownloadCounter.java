@@ -0,0 +1,67 @@
+package com.edusmart.service;
+
+import com.edusmart.util.WriteBehindBuffer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind buffer for file download counts.
+ * Downloads are summed per file in memory and added to file_uploads in JDBC batches every few
+ * seconds or once enough files are pending, instead of one row update per request. Counts
+ * buffered when the node dies are lost, which is acceptable for a statistic.
+ */
+@Service
+public class FileDownloadCounter {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String UPDATE_SQL =
+            "UPDATE file_uploads SET download_count = COALESCE(download_count, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindBuffer<Long, Long> buffer;
+
+    public FileDownloadCounter(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${file.download-count.flush-threshold:1000}") int flushThreshold,
+                               @Value("${file.download-count.max-attempts:10}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.buffer = new WriteBehindBuffer<>("file-download-count", flushThreshold, maxAttempts, Long::sum, this::write);
+    }
+
+    /**
+     * Count one download; a full buffer is flushed in the background
+     */
+    public void record(Long fileId) {
+        buffer.record(fileId, 1L);
+    }
+
+    @Scheduled(fixedDelayString = "${file.download-count.flush-interval-ms:10000}")
+    public void flush() {
+        buffer.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buffer.shutdown();
+    }
+
+    private void write(Map<Long, Long> batch) {
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(UPDATE_SQL, ids, CHUNK_SIZE, (ps, fileId) -> {
+                    ps.setLong(1, batch.get(fileId));
+                    ps.setLong(2, fileId);
+                }));
+    }
+}
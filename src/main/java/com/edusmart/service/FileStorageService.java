@@ -16,12 +16,11 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.UUID;
 
 /**
  * Service for file storage operations
@@ -34,6 +33,8 @@ public class FileStorageService {
     private final FileStorageConfig fileStorageConfig;
     private final FileUploadRepository fileUploadRepository;
     private final UserRepository userRepository;
+    private final FileStreamingService fileStreamingService;
+    private final FileBlobStore fileBlobStore;
 
     /**
      * Upload file
@@ -42,31 +43,37 @@ public class FileStorageService {
         validateFile(file);
 
         try {
-            // Generate unique filename
             String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
             String fileExtension = getFileExtension(originalFilename);
-            String uniqueFilename = UUID.randomUUID().toString() + "." + fileExtension;
 
-            // Save file to disk
-            Path targetLocation = fileStorageConfig.getUploadPath().resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            // Save content to the deduplicating blob store
+            FileBlobStore.StoredBlob blob;
+            try (InputStream content = file.getInputStream()) {
+                blob = fileBlobStore.store(content);
+            }
 
             // Save file metadata to database
             User user = userRepository.findById(userId).orElse(null);
             
             FileUpload fileUpload = FileUpload.builder()
                 .originalFileName(originalFilename)
-                .fileName(uniqueFilename)
-                .filePath(targetLocation.toString())
+                .fileName(blob.digest())
+                .filePath(blob.path().toString())
                 .fileSize(file.getSize())
                 .contentType(file.getContentType())
                 .fileType(determineFileType(fileExtension))
+                .contentHash(blob.digest())
                 .uploadedBy(user)
                 .build();
 
-            fileUpload = fileUploadRepository.save(fileUpload);
+            try {
+                fileUpload = fileUploadRepository.save(fileUpload);
+            } catch (RuntimeException e) {
+                fileBlobStore.release(blob.digest());
+                throw e;
+            }
 
-            log.info("File uploaded successfully: {}", uniqueFilename);
+            log.info("File uploaded successfully: {} ({})", originalFilename, blob.digest());
 
             return FileUploadResponseDTO.builder()
                 .fileId(fileUpload.getId())
@@ -114,12 +121,16 @@ public class FileStorageService {
             FileUpload fileUpload = fileUploadRepository.findById(fileId)
                 .orElseThrow(() -> new BadRequestException("File not found"));
 
-            // Delete from disk
-            Path filePath = Path.of(fileUpload.getFilePath());
-            Files.deleteIfExists(filePath);
-
             // Delete from database
             fileUploadRepository.delete(fileUpload);
+            fileStreamingService.evict(fileId);
+
+            // Release the shared blob; files stored before deduplication are owned by the upload
+            if (fileUpload.getContentHash() != null) {
+                fileBlobStore.release(fileUpload.getContentHash());
+            } else {
+                Files.deleteIfExists(Path.of(fileUpload.getFilePath()));
+            }
 
             log.info("File deleted successfully: {}", fileUpload.getFileName());
         } catch (IOException e) {
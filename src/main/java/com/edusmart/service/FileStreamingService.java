@@ -0,0 +1,265 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.FileUpload;
+import com.edusmart.exception.ResourceNotFoundException;
+import com.edusmart.repository.FileUploadRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Serves uploaded files with HTTP conditional and byte-range support, so browsers revalidate
+ * instead of re-downloading and video players can seek. File metadata is cached, single ranges
+ * are handed to Tomcat's sendfile when the connector supports it (otherwise copied with
+ * {@link FileChannel#transferTo}), and download counts are written behind in batches.
+ */
+@Service
+@Slf4j
+public class FileStreamingService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileUploadRepository fileUploadRepository;
+    private final FileDownloadCounter downloadCounter;
+    private final Cache<Long, StoredFile> metadata;
+
+    public FileStreamingService(FileUploadRepository fileUploadRepository,
+                                FileDownloadCounter downloadCounter,
+                                @Value("${file.metadata-cache.maximum-size:10000}") long maximumSize,
+                                @Value("${file.metadata-cache.time-to-live-ms:600000}") long timeToLiveMs) {
+        this.fileUploadRepository = fileUploadRepository;
+        this.downloadCounter = downloadCounter;
+        this.metadata = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(timeToLiveMs))
+                .build();
+    }
+
+    /**
+     * Write the file, or the requested ranges of it, to the response
+     */
+    public void serve(Long fileId, boolean attachment, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        StoredFile file = getFile(fileId);
+        if (!Files.isReadable(file.path())) {
+            metadata.invalidate(fileId);
+            throw new ResourceNotFoundException("File", "id", fileId);
+        }
+
+        // Sets ETag and Last-Modified, and answers 304 or 412 when the preconditions say so
+        if (new ServletWebRequest(request, response).checkNotModified(file.eTag(), file.lastModified())) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(attachment, file.fileName()));
+
+        List<HttpRange> ranges = requestedRanges(request, file);
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+            return;
+        }
+
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        if (!head && (ranges.isEmpty() || ranges.get(0).getRangeStart(file.size()) == 0)) {
+            downloadCounter.record(fileId);
+        }
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(file.contentType());
+            response.setContentLengthLong(file.size());
+            if (!head) {
+                writeRegion(request, response, file, 0, file.size());
+            }
+        } else if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(file.size());
+            long end = ranges.get(0).getRangeEnd(file.size());
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(file.contentType());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, file.size()));
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                writeRegion(request, response, file, start, end - start + 1);
+            }
+        } else {
+            String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType("multipart/byteranges; boundary=" + boundary);
+            if (!head) {
+                writeMultipart(response, file, ranges, boundary);
+            }
+        }
+    }
+
+    /**
+     * Drop the cached metadata of a file that was deleted or replaced
+     */
+    public void evict(Long fileId) {
+        metadata.invalidate(fileId);
+    }
+
+    private StoredFile getFile(Long fileId) {
+        return metadata.get(fileId, id -> {
+            FileUpload upload = fileUploadRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("File", "id", id));
+            Path path = Path.of(upload.getFilePath()).toAbsolutePath();
+            try {
+                long size = Files.size(path);
+                long lastModified = Files.getLastModifiedTime(path).toMillis();
+                // The content hash is the natural validator; older files are never rewritten in place,
+                // so identity, size and time make a strong one for them
+                String eTag = upload.getContentHash() != null ? "\"" + upload.getContentHash() + "\""
+                        : "\"" + id + "-" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+                return new StoredFile(path, upload.getOriginalFileName(), contentType(upload.getContentType()),
+                        size, lastModified, eTag);
+            } catch (IOException e) {
+                throw new ResourceNotFoundException("File", "id", id);
+            }
+        });
+    }
+
+    /**
+     * Ranges to serve: empty for the whole file, null when the Range header cannot be satisfied
+     */
+    private List<HttpRange> requestedRanges(HttpServletRequest request, StoredFile file) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || !ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), file)) {
+            return List.of();
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            long total = 0;
+            for (HttpRange httpRange : ranges) {
+                long start = httpRange.getRangeStart(file.size());
+                if (start >= file.size()) {
+                    return null;
+                }
+                total += httpRange.getRangeEnd(file.size()) - start + 1;
+            }
+            // Overlapping ranges that add up to more than the file are a known amplification trick
+            return total > file.size() ? null : ranges;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // A stale If-Range means the client's partial copy is outdated, so it gets the whole file
+    private static boolean ifRangeMatches(String ifRange, StoredFile file) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(file.eTag());
+        }
+        try {
+            return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond()
+                    == file.lastModified() / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private void writeRegion(HttpServletRequest request, HttpServletResponse response, StoredFile file,
+                             long start, long length) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the region straight from the page cache once the request returns
+            request.setAttribute(SENDFILE_FILENAME, file.path().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            transfer(channel, start, length, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void writeMultipart(HttpServletResponse response, StoredFile file, List<HttpRange> ranges,
+                                String boundary) throws IOException {
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(file.size());
+                long end = range.getRangeEnd(file.size());
+                out.write(("\r\n--" + boundary + "\r\n"
+                        + HttpHeaders.CONTENT_TYPE + ": " + file.contentType() + "\r\n"
+                        + HttpHeaders.CONTENT_RANGE + ": " + contentRange(start, end, file.size()) + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                transfer(channel, start, end - start + 1, target);
+            }
+            out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static void transfer(FileChannel channel, long position, long length, WritableByteChannel target)
+            throws IOException {
+        long end = position + length;
+        while (position < end) {
+            long written = channel.transferTo(position, end - position, target);
+            if (written <= 0) {
+                break;
+            }
+            position += written;
+        }
+    }
+
+    // Plain ASCII names stay readable; anything else is sent RFC 5987 encoded
+    private static String contentDisposition(boolean attachment, String fileName) {
+        ContentDisposition.Builder builder = attachment ? ContentDisposition.attachment() : ContentDisposition.inline();
+        boolean ascii = StandardCharsets.US_ASCII.newEncoder().canEncode(fileName);
+        return (ascii ? builder.filename(fileName) : builder.filename(fileName, StandardCharsets.UTF_8)).build().toString();
+    }
+
+    private static String contentRange(long start, long end, long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+
+    private static String contentType(String contentType) {
+        try {
+            return contentType != null ? MediaType.parseMediaType(contentType).toString()
+                    : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+
+    /**
+     * Cached metadata of a stored file
+     */
+    private record StoredFile(Path path, String fileName, String contentType, long size, long lastModified,
+                              String eTag) {
+    }
+}
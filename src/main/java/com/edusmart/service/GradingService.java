@@ -6,7 +6,9 @@ import com.edusmart.dto.assessment.QuestionAnswerDTO;
 import com.edusmart.entity.*;
 import com.edusmart.entity.enums.AssessmentType;
 import com.edusmart.entity.enums.NotificationType;
+import com.edusmart.exception.BadRequestException;
 import com.edusmart.exception.ResourceNotFoundException;
+import com.edusmart.grading.QuizAnswerKey;
 import com.edusmart.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,7 +17,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for automatic grading of assessments
@@ -32,6 +38,7 @@ public class GradingService {
     private final UserRepository userRepository;
     private final GradeRepository gradeRepository;
     private final NotificationService notificationService;
+    private final QuizAnswerKeyService quizAnswerKeyService;
     
     /**
      * Auto-grade a quiz submission
@@ -39,22 +46,80 @@ public class GradingService {
     public GradeResultDTO autoGradeQuiz(Long assessmentId, Long studentId, AssessmentSubmissionDTO submissionDTO) {
         log.info("Auto-grading quiz {} for student {}", assessmentId, studentId);
         
-        // Validate assessment exists and is a quiz
-        Assessment assessment = assessmentRepository.findById(assessmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
-        
-        if (assessment.getAssessmentType() != AssessmentType.QUIZ) {
-            throw new IllegalArgumentException("Auto-grading only available for quizzes");
-        }
+        Assessment assessment = findQuiz(assessmentId);
         
         User student = userRepository.findById(studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
         
         // Grade the submission
-        GradeResult gradeResult = calculateGrade(assessment, submissionDTO);
+        QuizAnswerKey answerKey = quizAnswerKeyService.getAnswerKey(assessment);
+        GradeResult gradeResult = calculateGrade(answerKey, maxScore(assessment), submissionDTO);
         
-        // Save grade to database
-        Grade grade = Grade.builder()
+        Grade grade = gradeRepository.save(toGrade(assessment, student, gradeResult));
+        notifyGraded(assessment, studentId, gradeResult);
+        
+        log.info("Quiz graded successfully. Score: {}/{} ({}%)", 
+            gradeResult.getScore(), gradeResult.getMaxScore(), gradeResult.getPercentage());
+        
+        return toResultDTO(assessment, studentId, grade, gradeResult);
+    }
+    
+    /**
+     * Auto-grade many submissions of one quiz.
+     * The answer key is compiled once; the submissions are graded in parallel and the grades saved together.
+     */
+    public List<GradeResultDTO> autoGradeQuizBatch(Long assessmentId, List<AssessmentSubmissionDTO> submissions) {
+        log.info("Auto-grading {} submissions of quiz {}", submissions.size(), assessmentId);
+        
+        Assessment assessment = findQuiz(assessmentId);
+        
+        Map<Long, User> students = new HashMap<>();
+        userRepository.findAllById(submissions.stream().map(AssessmentSubmissionDTO::getStudentId).distinct().toList())
+                .forEach(user -> students.put(user.getId(), user));
+        for (AssessmentSubmissionDTO submission : submissions) {
+            if (!students.containsKey(submission.getStudentId())) {
+                throw new ResourceNotFoundException("Student not found");
+            }
+        }
+        
+        // Grading only reads the immutable key, so it needs neither the session nor locks
+        QuizAnswerKey answerKey = quizAnswerKeyService.getAnswerKey(assessment);
+        double maxScore = maxScore(assessment);
+        List<GradeResult> gradeResults = submissions.parallelStream()
+                .map(submission -> calculateGrade(answerKey, maxScore, submission))
+                .toList();
+        
+        List<Grade> grades = new ArrayList<>(submissions.size());
+        for (int i = 0; i < submissions.size(); i++) {
+            grades.add(toGrade(assessment, students.get(submissions.get(i).getStudentId()), gradeResults.get(i)));
+        }
+        grades = gradeRepository.saveAll(grades);
+        
+        List<GradeResultDTO> results = new ArrayList<>(grades.size());
+        for (int i = 0; i < grades.size(); i++) {
+            Long studentId = submissions.get(i).getStudentId();
+            notifyGraded(assessment, studentId, gradeResults.get(i));
+            results.add(toResultDTO(assessment, studentId, grades.get(i), gradeResults.get(i)));
+        }
+        return results;
+    }
+    
+    private Assessment findQuiz(Long assessmentId) {
+        Assessment assessment = assessmentRepository.findById(assessmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+        
+        if (assessment.getAssessmentType() != AssessmentType.QUIZ) {
+            throw new IllegalArgumentException("Auto-grading only available for quizzes");
+        }
+        return assessment;
+    }
+    
+    private double maxScore(Assessment assessment) {
+        return assessment.getTotalPoints() != null ? assessment.getTotalPoints().doubleValue() : 100.0;
+    }
+    
+    private Grade toGrade(Assessment assessment, User student, GradeResult gradeResult) {
+        return Grade.builder()
                 .assessment(assessment)
                 .student(student)
                 .score(gradeResult.getScore())
@@ -63,10 +128,9 @@ public class GradingService {
                 .feedback(gradeResult.getFeedback())
                 .gradedAt(LocalDateTime.now())
                 .build();
-        
-        grade = gradeRepository.save(grade);
-        
-        // Send notification to student
+    }
+    
+    private void notifyGraded(Assessment assessment, Long studentId, GradeResult gradeResult) {
         notificationService.createNotification(
             studentId,
             "Quiz Graded",
@@ -75,13 +139,12 @@ public class GradingService {
             NotificationType.GRADE,
             "/quizzes"
         );
-        
-        log.info("Quiz graded successfully. Score: {}/{} ({}%)", 
-            gradeResult.getScore(), gradeResult.getMaxScore(), gradeResult.getPercentage());
-        
+    }
+    
+    private GradeResultDTO toResultDTO(Assessment assessment, Long studentId, Grade grade, GradeResult gradeResult) {
         return GradeResultDTO.builder()
                 .gradeId(grade.getId())
-                .assessmentId(assessmentId)
+                .assessmentId(assessment.getId())
                 .studentId(studentId)
                 .score(gradeResult.getScore())
                 .maxScore(gradeResult.getMaxScore())
@@ -95,57 +158,80 @@ public class GradingService {
     }
     
     /**
-     * Calculate grade based on answers
+     * Calculate grade based on answers.
+     * Answers are scored by their question's share of the key's total weight, so each question
+     * counts once and the score cannot exceed the maximum; answers to unknown questions are
+     * rejected. Quizzes without stored questions have an empty key and fall back to the correct
+     * answer sent with each answer and an equal share.
      */
-    private GradeResult calculateGrade(Assessment assessment, AssessmentSubmissionDTO submission) {
+    private GradeResult calculateGrade(QuizAnswerKey answerKey, double maxScore, AssessmentSubmissionDTO submission) {
         List<QuestionAnswerDTO> answers = submission.getAnswers();
+        if (!answerKey.isEmpty()) {
+            Set<Long> answered = new HashSet<>();
+            for (QuestionAnswerDTO answer : answers) {
+                if (answer.getQuestionId() == null || !answerKey.contains(answer.getQuestionId())) {
+                    throw new BadRequestException("Question " + answer.getQuestionId() + " is not part of this quiz");
+                }
+                if (!answered.add(answer.getQuestionId())) {
+                    throw new BadRequestException("Question " + answer.getQuestionId() + " was answered more than once");
+                }
+            }
+        }
         
         int totalQuestions = answers.size();
         int correctAnswers = 0;
         int incorrectAnswers = 0;
         double totalScore = 0;
-        double maxScore = assessment.getTotalPoints() != null ? assessment.getTotalPoints().doubleValue() : 100.0;
         
-        List<String> feedbackList = new ArrayList<>();
+        StringBuilder feedback = new StringBuilder(totalQuestions * 32);
         
         for (QuestionAnswerDTO answer : answers) {
-            if (validateAnswer(answer)) {
+            QuizAnswerKey.KeyQuestion question = answer.getQuestionId() != null ? answerKey.question(answer.getQuestionId()) : null;
+            boolean correct;
+            double questionPoints;
+            String correctAnswer;
+            if (question != null) {
+                correct = question.matches(answer.getStudentAnswer());
+                questionPoints = maxScore * question.weight() / answerKey.getTotalWeight();
+                correctAnswer = question.expectedAnswer();
+            } else {
+                correct = validateAnswer(answer);
+                questionPoints = maxScore / totalQuestions;
+                correctAnswer = answer.getCorrectAnswer();
+            }
+            
+            if (feedback.length() > 0) {
+                feedback.append('\n');
+            }
+            feedback.append("Question ").append(answer.getQuestionNumber());
+            if (correct) {
                 correctAnswers++;
-                double questionPoints = maxScore / totalQuestions;
                 totalScore += questionPoints;
-                feedbackList.add("Question " + answer.getQuestionNumber() + ": Correct ✓");
+                feedback.append(": Correct ✓");
             } else {
                 incorrectAnswers++;
-                feedbackList.add("Question " + answer.getQuestionNumber() + ": Incorrect ✗ (Correct answer: " + answer.getCorrectAnswer() + ")");
+                feedback.append(": Incorrect ✗ (Correct answer: ").append(correctAnswer).append(')');
             }
         }
         
         double percentage = totalQuestions > 0 ? (totalScore / maxScore) * 100 : 0;
-        String feedback = String.join("\n", feedbackList);
         
-        return new GradeResult(totalScore, maxScore, percentage, correctAnswers, incorrectAnswers, feedback);
+        return new GradeResult(totalScore, maxScore, percentage, correctAnswers, incorrectAnswers, feedback.toString());
     }
     
     /**
-     * Validate student answer against correct answer
+     * Validate student answer against the correct answer sent with it
      */
     private boolean validateAnswer(QuestionAnswerDTO answer) {
         if (answer.getStudentAnswer() == null || answer.getCorrectAnswer() == null) {
             return false;
         }
         
-        // Trim and compare case-insensitively
-        String studentAnswer = answer.getStudentAnswer().trim().toLowerCase();
-        String correctAnswer = answer.getCorrectAnswer().trim().toLowerCase();
-        
-        // For multiple choice, exact match required
-        if (answer.getQuestionType() != null && answer.getQuestionType().equals("MULTIPLE_CHOICE")) {
-            return studentAnswer.equals(correctAnswer);
-        }
+        String studentAnswer = QuizAnswerKey.normalize(answer.getStudentAnswer());
+        String correctAnswer = QuizAnswerKey.normalize(answer.getCorrectAnswer());
         
-        // For text answers, allow partial match or synonyms
-        if (answer.getQuestionType() != null && answer.getQuestionType().equals("SHORT_ANSWER")) {
-            // Check if student answer contains correct answer or vice versa
+        // For text answers, allow partial match
+        if ("SHORT_ANSWER".equals(answer.getQuestionType()) && !studentAnswer.isEmpty()) {
             return studentAnswer.contains(correctAnswer) || correctAnswer.contains(studentAnswer);
         }
         
@@ -0,0 +1,294 @@
+package com.edusmart.service;
+
+import com.edusmart.dto.admin.TopCourseDTO;
+import com.edusmart.dto.admin.TopInstructorDTO;
+import com.edusmart.entity.Course;
+import com.edusmart.entity.User;
+import com.edusmart.entity.enums.LeaderboardMetric;
+import com.edusmart.repository.CourseRepository;
+import com.edusmart.repository.CourseReviewRepository;
+import com.edusmart.repository.EnrollmentRepository;
+import com.edusmart.repository.OrderItemRepository;
+import com.edusmart.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-memory leaderboards of top courses and instructors by enrollments, revenue and rating.
+ * Each board is a bounded ordered set of the best entries, updated after commit by order
+ * completions, enrollments and review writes, so top-N reads never touch the database.
+ * A scheduled full recompute from the source tables repairs any drift.
+ */
+@Service
+@Slf4j
+public class LeaderboardService {
+
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CourseReviewRepository courseReviewRepository;
+
+    private final Map<Long, CourseStats> courses = new HashMap<>();
+    private final Map<Long, InstructorStats> instructors = new HashMap<>();
+    private final Map<LeaderboardMetric, Board<CourseStats>> courseBoards = new EnumMap<>(LeaderboardMetric.class);
+    private final Map<LeaderboardMetric, Board<InstructorStats>> instructorBoards = new EnumMap<>(LeaderboardMetric.class);
+
+    public LeaderboardService(CourseRepository courseRepository,
+                              EnrollmentRepository enrollmentRepository,
+                              OrderItemRepository orderItemRepository,
+                              CourseReviewRepository courseReviewRepository,
+                              @Value("${admin.leaderboard.capacity:100}") int capacity) {
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.courseReviewRepository = courseReviewRepository;
+
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            courseBoards.put(metric, new Board<>(capacity, courseScore(metric), CourseStats::courseId));
+            instructorBoards.put(metric, new Board<>(capacity, instructorScore(metric), InstructorStats::instructorId));
+        }
+    }
+
+    /**
+     * Get the top courses for a metric
+     */
+    public List<TopCourseDTO> getTopCourses(LeaderboardMetric metric, int limit) {
+        return courseBoards.get(metric).top(limit).stream()
+                .map(c -> TopCourseDTO.builder()
+                        .courseId(c.courseId())
+                        .courseTitle(c.title())
+                        .instructorName(c.instructorName())
+                        .enrollmentCount(c.enrollments())
+                        .revenue(c.revenue())
+                        .averageRating(c.averageRating())
+                        .reviewCount((int) c.reviewCount())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Get the top instructors for a metric
+     */
+    public List<TopInstructorDTO> getTopInstructors(LeaderboardMetric metric, int limit) {
+        return instructorBoards.get(metric).top(limit).stream()
+                .map(i -> TopInstructorDTO.builder()
+                        .instructorId(i.instructorId())
+                        .instructorName(i.name())
+                        .email(i.email())
+                        .totalCourses(i.courses())
+                        .totalStudents(i.enrollments())
+                        .totalRevenue(i.revenue())
+                        .averageRating(i.averageRating())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Record a paid course purchase; the student may already have been enrolled
+     */
+    public void recordPurchase(Course course, double price, boolean newEnrollment) {
+        CourseStats delta = CourseStats.change(course, newEnrollment ? 1 : 0, price, 0, 0);
+        TransactionUtils.afterCommit(() -> apply(delta));
+    }
+
+    public void recordEnrollment(Course course, int delta) {
+        CourseStats change = CourseStats.change(course, delta, 0, 0, 0);
+        TransactionUtils.afterCommit(() -> apply(change));
+    }
+
+    /**
+     * Record a review being created (previous null), edited or deleted (current null)
+     */
+    public void recordReview(Course course, Integer previousRating, Integer currentRating) {
+        long countDelta = (currentRating != null ? 1 : 0) - (previousRating != null ? 1 : 0);
+        long ratingDelta = (currentRating != null ? currentRating : 0) - (previousRating != null ? previousRating : 0);
+        CourseStats change = CourseStats.change(course, 0, 0, ratingDelta, countDelta);
+        TransactionUtils.afterCommit(() -> apply(change));
+    }
+
+    /**
+     * Rebuild every board from the source tables
+     */
+    @Scheduled(initialDelayString = "${admin.leaderboard.initial-delay-ms:5000}",
+               fixedDelayString = "${admin.leaderboard.recompute-interval-ms:900000}")
+    @Transactional(readOnly = true)
+    public void recompute() {
+        long start = System.currentTimeMillis();
+
+        Map<Long, CourseStats> fresh = new HashMap<>();
+        for (Object[] row : courseRepository.findLeaderboardMetadata()) {
+            Long courseId = (Long) row[0];
+            fresh.put(courseId, new CourseStats(courseId, (String) row[1], (Long) row[2],
+                    row[3] + " " + row[4], (String) row[5], 0, 0.0, 0, 0));
+        }
+        for (Object[] row : enrollmentRepository.aggregateByCourse()) {
+            fresh.computeIfPresent((Long) row[0], (id, c) -> c.withDelta(((Number) row[1]).longValue(), 0, 0, 0));
+        }
+        for (Object[] row : orderItemRepository.sumCompletedRevenueGroupByCourse()) {
+            fresh.computeIfPresent((Long) row[0], (id, c) -> c.withDelta(0, toDouble(row[1]), 0, 0));
+        }
+        for (Object[] row : courseReviewRepository.aggregateRatingsGroupByCourse()) {
+            fresh.computeIfPresent((Long) row[0], (id, c) ->
+                    c.withDelta(0, 0, ((Number) row[2]).longValue(), ((Number) row[1]).longValue()));
+        }
+
+        synchronized (this) {
+            courses.clear();
+            courses.putAll(fresh);
+            instructors.clear();
+            for (CourseStats course : fresh.values()) {
+                instructors.merge(course.instructorId(), InstructorStats.of(course), InstructorStats::plus);
+            }
+            courseBoards.values().forEach(board -> board.rebuild(courses.values()));
+            instructorBoards.values().forEach(board -> board.rebuild(instructors.values()));
+        }
+        log.info("Recomputed leaderboards for {} courses in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    private synchronized void apply(CourseStats change) {
+        CourseStats previous = courses.get(change.courseId());
+        CourseStats updated = previous != null
+                ? previous.withDelta(change.enrollments(), change.revenue(), change.ratingSum(), change.reviewCount())
+                : change.withDelta(0, 0, 0, 0);
+        courses.put(updated.courseId(), updated);
+        courseBoards.values().forEach(board -> board.update(previous, updated, courses.values()));
+
+        InstructorStats previousInstructor = instructors.get(updated.instructorId());
+        InstructorStats updatedInstructor = previousInstructor != null
+                ? previousInstructor.plus(InstructorStats.delta(change, previous == null))
+                : InstructorStats.of(updated);
+        instructors.put(updatedInstructor.instructorId(), updatedInstructor);
+        instructorBoards.values().forEach(board ->
+                board.update(previousInstructor, updatedInstructor, instructors.values()));
+    }
+
+    private static ToDoubleFunction<CourseStats> courseScore(LeaderboardMetric metric) {
+        return switch (metric) {
+            case ENROLLMENTS -> CourseStats::enrollments;
+            case REVENUE -> CourseStats::revenue;
+            case RATING -> CourseStats::averageRating;
+        };
+    }
+
+    private static ToDoubleFunction<InstructorStats> instructorScore(LeaderboardMetric metric) {
+        return switch (metric) {
+            case ENROLLMENTS -> InstructorStats::enrollments;
+            case REVENUE -> InstructorStats::revenue;
+            case RATING -> InstructorStats::averageRating;
+        };
+    }
+
+    private static double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private record CourseStats(Long courseId, String title, Long instructorId, String instructorName,
+                               String instructorEmail, long enrollments, double revenue,
+                               long ratingSum, long reviewCount) {
+
+        /**
+         * A signed change to a course; unlike withDelta it is not clamped, so it can lower the stored counts
+         */
+        static CourseStats change(Course course, long enrollments, double revenue, long ratingSum, long reviewCount) {
+            User instructor = course.getInstructor();
+            return new CourseStats(course.getId(), course.getTitle(), instructor.getId(),
+                    instructor.getFirstName() + " " + instructor.getLastName(), instructor.getEmail(),
+                    enrollments, revenue, ratingSum, reviewCount);
+        }
+
+        CourseStats withDelta(long enrollmentDelta, double revenueDelta, long ratingDelta, long reviewDelta) {
+            return new CourseStats(courseId, title, instructorId, instructorName, instructorEmail,
+                    Math.max(0, enrollments + enrollmentDelta), revenue + revenueDelta,
+                    ratingSum + ratingDelta, Math.max(0, reviewCount + reviewDelta));
+        }
+
+        double averageRating() {
+            return reviewCount > 0 ? (double) ratingSum / reviewCount : 0.0;
+        }
+    }
+
+    private record InstructorStats(Long instructorId, String name, String email, long courses,
+                                   long enrollments, double revenue, long ratingSum, long reviewCount) {
+
+        static InstructorStats of(CourseStats course) {
+            return new InstructorStats(course.instructorId(), course.instructorName(), course.instructorEmail(),
+                    1, course.enrollments(), course.revenue(), course.ratingSum(), course.reviewCount());
+        }
+
+        static InstructorStats delta(CourseStats change, boolean newCourse) {
+            return new InstructorStats(change.instructorId(), change.instructorName(), change.instructorEmail(),
+                    newCourse ? 1 : 0, change.enrollments(), change.revenue(), change.ratingSum(), change.reviewCount());
+        }
+
+        InstructorStats plus(InstructorStats other) {
+            return new InstructorStats(instructorId, name, email, courses + other.courses,
+                    Math.max(0, enrollments + other.enrollments), revenue + other.revenue,
+                    ratingSum + other.ratingSum, Math.max(0, reviewCount + other.reviewCount));
+        }
+
+        double averageRating() {
+            return reviewCount > 0 ? (double) ratingSum / reviewCount : 0.0;
+        }
+    }
+
+    /**
+     * Bounded ordered set holding the best {@code capacity} entries for one metric.
+     * Entries are immutable, so an update removes the old value and offers the new one.
+     * When a member's score drops and entries outside the board may now outrank it,
+     * the board is rebuilt from all entries in O(n log capacity).
+     */
+    private static final class Board<T> {
+
+        private final int capacity;
+        private final ToDoubleFunction<T> score;
+        private final TreeSet<T> entries;
+        private volatile List<T> snapshot = List.of();
+
+        Board(int capacity, ToDoubleFunction<T> score, ToLongFunction<T> id) {
+            this.capacity = capacity;
+            this.score = score;
+            this.entries = new TreeSet<>(Comparator.comparingDouble(score).reversed().thenComparingLong(id));
+        }
+
+        List<T> top(int limit) {
+            List<T> current = snapshot;
+            return current.subList(0, Math.min(Math.max(limit, 0), current.size()));
+        }
+
+        void update(T previous, T updated, Collection<T> all) {
+            boolean wasMember = previous != null && entries.remove(previous);
+            if (wasMember && score.applyAsDouble(updated) < score.applyAsDouble(previous) && all.size() > capacity) {
+                rebuild(all);
+                return;
+            }
+            offer(updated);
+            publish();
+        }
+
+        void rebuild(Collection<T> all) {
+            entries.clear();
+            all.forEach(this::offer);
+            publish();
+        }
+
+        private void offer(T entry) {
+            if (entries.size() < capacity) {
+                entries.add(entry);
+            } else if (entries.comparator().compare(entry, entries.last()) < 0) {
+                entries.pollLast();
+                entries.add(entry);
+            }
+        }
+
+        private void publish() {
+            snapshot = List.copyOf(entries);
+        }
+    }
+}
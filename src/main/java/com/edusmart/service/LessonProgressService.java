@@ -0,0 +1,185 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.Course;
+import com.edusmart.entity.Enrollment;
+import com.edusmart.entity.Lesson;
+import com.edusmart.entity.enums.EnrollmentStatus;
+import com.edusmart.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains per-enrollment lesson completion bitsets.
+ * Every lesson gets a stable slot within its course; an enrollment stores the completed slots
+ * as a bitset plus their count, so the curriculum view needs no completion rows and progress
+ * is derived from two counters instead of being recounted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class LessonProgressService {
+
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonCompletionRepository lessonCompletionRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+
+    /**
+     * Count a new lesson and give it the next free slot of its course.
+     * The slot is read only after the count UPDATE has locked the course row, so two lessons
+     * added to the same course at once cannot both take the same MAX(slot) + 1.
+     */
+    public void lessonAdded(Lesson lesson) {
+        Course course = lesson.getCourse();
+        lessonCountChanged(course, 1);
+        Integer maxSlot = lessonRepository.findMaxCompletionSlot(course.getId());
+        lesson.setCompletionSlot(maxSlot == null ? 0 : maxSlot + 1);
+    }
+
+    /**
+     * Clear the lesson's bit for the students who completed it; its slot is not reused
+     */
+    public void lessonRemoved(Lesson lesson) {
+        Course course = lesson.getCourse();
+        if (lesson.getCompletionSlot() != null) {
+            for (Enrollment enrollment : enrollmentRepository.findByCourseIdAndCompletedLesson(course.getId(), lesson.getId())) {
+                enrollment.setLessonCompleted(lesson.getCompletionSlot(), false);
+            }
+        }
+        lessonCountChanged(course, -1);
+    }
+
+    /**
+     * Set the lesson's bit on the enrollment and update its progress in O(1)
+     */
+    public void lessonCompleted(Enrollment enrollment, Lesson lesson) {
+        if (lesson.getCompletionSlot() == null || !enrollment.setLessonCompleted(lesson.getCompletionSlot(), true)) {
+            return;
+        }
+        EnrollmentStatus previousStatus = enrollment.getStatus();
+        Integer previousProgress = enrollment.getProgress();
+
+        enrollment.recalculateProgress(lesson.getCourse().getLessonCount());
+        enrollment.setLastAccessedAt(LocalDateTime.now());
+        if (enrollment.getProgress() == 100) {
+            markCompleted(enrollment);
+        }
+        enrollmentRepository.save(enrollment);
+        analyticsRollupService.enrollmentUpdated(enrollment, previousStatus, previousProgress);
+    }
+
+    /**
+     * Adjust the course's lesson count in place and rescale the progress of its started enrollments.
+     * The UPDATE on the course row holds its lock until commit, so the count read back is this
+     * change's and concurrent lesson changes apply one after the other. Progress is rewritten with
+     * one UPDATE and reported to the rollups as one delta per course and student; enrollments the
+     * change lifts to 100% then go through the same completion step as a completed lesson.
+     */
+    private void lessonCountChanged(Course course, int delta) {
+        courseRepository.addToLessonCount(course.getId(), delta);
+        int lessonCount = courseRepository.findLessonCountById(course.getId());
+
+        List<AnalyticsRollupService.ProgressChange> changes = new ArrayList<>();
+        List<Long> completedIds = new ArrayList<>();
+        for (Object[] row : enrollmentRepository.findStartedProgressRowsByCourseId(course.getId())) {
+            int previous = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            int progress = Enrollment.progressOf(((Number) row[4]).intValue(), lessonCount);
+            if (progress != previous) {
+                boolean completed = row[3] == EnrollmentStatus.COMPLETED;
+                changes.add(new AnalyticsRollupService.ProgressChange(course.getId(), course.getInstructor().getId(),
+                        ((Number) row[1]).longValue(), progress - previous, completed ? 0 : progress - previous, null));
+            }
+            if (progress == 100 && !Boolean.TRUE.equals(row[5])) {
+                completedIds.add(((Number) row[0]).longValue());
+            }
+        }
+        enrollmentRepository.recalculateProgressForCourse(course.getId(), lessonCount);
+        if (!changes.isEmpty()) {
+            analyticsRollupService.progressFlushed(changes);
+        }
+
+        for (Enrollment enrollment : enrollmentRepository.findAllById(completedIds)) {
+            // Managed copies loaded before the bulk UPDATE still hold the old progress
+            enrollment.recalculateProgress(lessonCount);
+            EnrollmentStatus previousStatus = enrollment.getStatus();
+            markCompleted(enrollment);
+            analyticsRollupService.enrollmentUpdated(enrollment, previousStatus, enrollment.getProgress());
+        }
+    }
+
+    /**
+     * Record that the student finished the course; a dropped enrollment keeps its status
+     */
+    private static void markCompleted(Enrollment enrollment) {
+        if (!Boolean.TRUE.equals(enrollment.getIsCompleted())) {
+            enrollment.setIsCompleted(true);
+            enrollment.setCompletedAt(LocalDateTime.now());
+        }
+        if (enrollment.getStatus() == EnrollmentStatus.ACTIVE) {
+            enrollment.setStatus(EnrollmentStatus.COMPLETED);
+        }
+    }
+
+    /**
+     * Fill in slots, lesson counts and bitsets for rows created before they existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Map<Long, Integer> nextSlot = new HashMap<>();
+        List<Lesson> unslotted = lessonRepository.findByCompletionSlotIsNullOrderByLessonOrderAscIdAsc();
+        for (Lesson lesson : unslotted) {
+            Long courseId = lesson.getCourse().getId();
+            int slot = nextSlot.computeIfAbsent(courseId, id -> {
+                Integer max = lessonRepository.findMaxCompletionSlot(id);
+                return max == null ? 0 : max + 1;
+            });
+            lesson.setCompletionSlot(slot);
+            nextSlot.put(courseId, slot + 1);
+        }
+        lessonRepository.flush();
+
+        List<Course> uncounted = courseRepository.findByLessonCountIsNull();
+        if (!uncounted.isEmpty()) {
+            Map<Long, Integer> lessonCounts = new HashMap<>();
+            for (Object[] row : lessonRepository.countGroupByCourse()) {
+                lessonCounts.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+            }
+            uncounted.forEach(course -> course.setLessonCount(lessonCounts.getOrDefault(course.getId(), 0)));
+        }
+
+        List<Enrollment> enrollments = enrollmentRepository.findByCompletedLessonsIsNull();
+        if (!enrollments.isEmpty()) {
+            // studentId -> courseId -> completed slots
+            Map<Long, Map<Long, List<Integer>>> completed = new HashMap<>();
+            for (Object[] row : lessonCompletionRepository.findCompletedSlots()) {
+                completed.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashMap<>())
+                        .computeIfAbsent(((Number) row[1]).longValue(), id -> new ArrayList<>())
+                        .add(((Number) row[2]).intValue());
+            }
+            for (Enrollment enrollment : enrollments) {
+                enrollment.setCompletedLessons(new byte[0]);
+                enrollment.setCompletedLessonCount(0);
+                completed.getOrDefault(enrollment.getStudent().getId(), Map.of())
+                        .getOrDefault(enrollment.getCourse().getId(), List.of())
+                        .forEach(slot -> enrollment.setLessonCompleted(slot, true));
+            }
+        }
+
+        if (!unslotted.isEmpty() || !uncounted.isEmpty() || !enrollments.isEmpty()) {
+            log.info("Backfilled lesson progress: {} lesson slots, {} course lesson counts, {} enrollment bitsets",
+                    unslotted.size(), uncounted.size(), enrollments.size());
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -30,6 +31,9 @@ public class LessonService {
     private final UserRepository userRepository;
     private final LessonCompletionRepository lessonCompletionRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final LessonProgressService lessonProgressService;
+    private final NotificationService notificationService;
     
     /**
      * Create a new lesson
@@ -65,7 +69,12 @@ public class LessonService {
                 .attachmentUrl(request.getAttachmentUrl())
                 .build();
         
+        lessonProgressService.lessonAdded(lesson);
         lesson = lessonRepository.save(lesson);
+        analyticsRollupService.lessonAdded(lesson);
+        if (Boolean.TRUE.equals(course.getIsPublished())) {
+            notificationService.notifyNewLesson(course.getId(), lesson.getId(), lesson.getTitle(), course.getTitle());
+        }
         log.info("Lesson created successfully: {}", lesson.getId());
         
         return mapToResponseDTO(lesson, null);
@@ -151,8 +160,9 @@ public class LessonService {
         // Get lessons
         List<Lesson> lessons = lessonRepository.findByCourseIdOrderByLessonOrderAsc(courseId);
         
-        // Check if user is enrolled
-        boolean isEnrolled = enrollmentRepository.existsByStudentIdAndCourseId(user.getId(), courseId);
+        // Check if user is enrolled; the enrollment also carries the completed lessons
+        Optional<Enrollment> enrollment = enrollmentRepository.findByStudentIdAndCourseId(user.getId(), courseId);
+        boolean isEnrolled = enrollment.isPresent();
         boolean isInstructor = course.getInstructor().getId().equals(user.getId()) || 
                               user.getRole().equals(Role.ADMIN);
         
@@ -163,12 +173,10 @@ public class LessonService {
                     .collect(Collectors.toList());
         }
         
-        // Get completions for student
-        List<LessonCompletion> completions = lessonCompletionRepository
-                .findByStudentIdAndLessonCourseId(user.getId(), courseId);
+        BitSet completed = enrollment.map(Enrollment::completedLessonSlots).orElseGet(BitSet::new);
         
         return lessons.stream()
-                .map(lesson -> mapToListDTO(lesson, completions))
+                .map(lesson -> mapToListDTO(lesson, completed))
                 .collect(Collectors.toList());
     }
     
@@ -190,6 +198,8 @@ public class LessonService {
             throw new BadRequestException("You don't have permission to delete this lesson");
         }
         
+        analyticsRollupService.lessonRemoved(lesson);
+        lessonProgressService.lessonRemoved(lesson);
         lessonRepository.delete(lesson);
         log.info("Lesson deleted successfully: {}", lessonId);
     }
@@ -207,9 +217,8 @@ public class LessonService {
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
         
         // Check if student is enrolled
-        if (!enrollmentRepository.existsByStudentIdAndCourseId(student.getId(), lesson.getCourse().getId())) {
-            throw new BadRequestException("You must be enrolled in the course to complete lessons");
-        }
+        Enrollment enrollment = enrollmentRepository.findByStudentIdAndCourseId(student.getId(), lesson.getCourse().getId())
+                .orElseThrow(() -> new BadRequestException("You must be enrolled in the course to complete lessons"));
         
         // Check if already completed
         Optional<LessonCompletion> existing = lessonCompletionRepository
@@ -222,6 +231,7 @@ public class LessonService {
                 completion.setCompleted(true);
                 completion.setCompletedAt(LocalDateTime.now());
                 completion = lessonCompletionRepository.save(completion);
+                analyticsRollupService.lessonCompleted(completion);
             }
         } else {
             completion = LessonCompletion.builder()
@@ -231,8 +241,11 @@ public class LessonService {
                     .completedAt(LocalDateTime.now())
                     .build();
             completion = lessonCompletionRepository.save(completion);
+            analyticsRollupService.lessonCompleted(completion);
         }
         
+        lessonProgressService.lessonCompleted(enrollment, lesson);
+        
         log.info("Lesson completion recorded: {}", completion.getId());
         return mapToCompletionDTO(completion);
     }
@@ -276,9 +289,8 @@ public class LessonService {
                 .build();
     }
     
-    private LessonListDTO mapToListDTO(Lesson lesson, List<LessonCompletion> completions) {
-        boolean isCompleted = completions.stream()
-                .anyMatch(c -> c.getLesson().getId().equals(lesson.getId()) && c.getCompleted());
+    private LessonListDTO mapToListDTO(Lesson lesson, BitSet completed) {
+        boolean isCompleted = lesson.getCompletionSlot() != null && completed.get(lesson.getCompletionSlot());
         
         return LessonListDTO.builder()
                 .id(lesson.getId())
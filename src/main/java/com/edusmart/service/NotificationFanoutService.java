@@ -0,0 +1,224 @@
+package com.edusmart.service;
+
+import com.edusmart.controller.WebSocketNotificationController;
+import com.edusmart.dto.notification.NotificationDTO;
+import com.edusmart.entity.enums.NotificationType;
+import com.edusmart.repository.EnrollmentRepository;
+import com.edusmart.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers notifications off the request path.
+ * A course-wide event is queued once the publishing transaction commits. A fan-out worker then
+ * streams the enrolled student ids in keyset order and inserts each chunk of notifications
+ * with one JDBC batch in its own short transaction. WebSocket pushes run on a separate pool
+ * after each chunk commits. Both pools are bounded and run work on the submitting thread
+ * when full, so a slow push side throttles inserts and a burst of events throttles publishers.
+ */
+@Service
+@Slf4j
+public class NotificationFanoutService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, title, message, notification_type, is_read, action_url, " +
+            "related_entity_type, related_entity_id, occurrence_count, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, false, ?, ?, ?, 1, ?, ?)";
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final WebSocketNotificationController webSocketController;
+    private final UnreadNotificationCounter unreadNotificationCounter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final ThreadPoolExecutor fanoutPool;
+    private final ThreadPoolExecutor pushPool;
+    private final AtomicInteger eventsInProgress = new AtomicInteger();
+
+    private final Counter eventsQueued;
+    private final Counter eventsCompleted;
+    private final Counter eventsFailed;
+    private final Counter notificationsCreated;
+    private final Counter notificationsPushed;
+    private final Counter pushFailures;
+
+    public NotificationFanoutService(EnrollmentRepository enrollmentRepository,
+                                     WebSocketNotificationController webSocketController,
+                                     UnreadNotificationCounter unreadNotificationCounter,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${notifications.fanout.batch-size:1000}") int batchSize,
+                                     @Value("${notifications.fanout.threads:2}") int fanoutThreads,
+                                     @Value("${notifications.fanout.queue-capacity:100}") int fanoutQueueCapacity,
+                                     @Value("${notifications.push.threads:4}") int pushThreads,
+                                     @Value("${notifications.push.queue-capacity:50}") int pushQueueCapacity) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.webSocketController = webSocketController;
+        this.unreadNotificationCounter = unreadNotificationCounter;
+        this.jdbcTemplate = jdbcTemplate;
+        // Chunks may be written from an afterCommit callback, so they must not join the caller's transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.fanoutPool = boundedPool("notification-fanout-", fanoutThreads, fanoutQueueCapacity);
+        this.pushPool = boundedPool("notification-push-", pushThreads, pushQueueCapacity);
+
+        this.eventsQueued = meterRegistry.counter("notifications.fanout.events", "result", "queued");
+        this.eventsCompleted = meterRegistry.counter("notifications.fanout.events", "result", "completed");
+        this.eventsFailed = meterRegistry.counter("notifications.fanout.events", "result", "failed");
+        this.notificationsCreated = meterRegistry.counter("notifications.fanout.created");
+        this.notificationsPushed = meterRegistry.counter("notifications.push", "result", "sent");
+        this.pushFailures = meterRegistry.counter("notifications.push", "result", "failed");
+        Gauge.builder("notifications.fanout.in-progress", eventsInProgress, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("notifications.fanout.queue", fanoutPool, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("notifications.push.queue", pushPool, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanoutPool.shutdown();
+        pushPool.shutdown();
+    }
+
+    /**
+     * Notify every student enrolled in a course (except those who dropped it) once the current transaction commits
+     */
+    public void publishToCourse(Long courseId, String title, String message, NotificationType type,
+                                String actionUrl, String relatedEntityType, Long relatedEntityId) {
+        CourseEvent event = new CourseEvent(courseId, title, message, type, actionUrl,
+                relatedEntityType, relatedEntityId, LocalDateTime.now());
+        TransactionUtils.afterCommit(() -> {
+            eventsQueued.increment();
+            fanoutPool.execute(() -> fanOut(event));
+        });
+    }
+
+    /**
+     * Push already saved notifications over WebSocket once the current transaction commits
+     */
+    public void pushAfterCommit(List<NotificationDTO> notifications) {
+        if (!notifications.isEmpty()) {
+            TransactionUtils.afterCommit(() -> pushPool.execute(() -> push(notifications)));
+        }
+    }
+
+    private void fanOut(CourseEvent event) {
+        eventsInProgress.incrementAndGet();
+        long start = System.currentTimeMillis();
+        int recipients = 0;
+        try {
+            long afterStudentId = 0;
+            List<Long> studentIds;
+            while (!(studentIds = enrollmentRepository.findNotificationRecipientIds(event.courseId(), afterStudentId,
+                    PageRequest.of(0, batchSize))).isEmpty()) {
+                afterStudentId = studentIds.get(studentIds.size() - 1);
+
+                List<Long> chunk = studentIds;
+                List<NotificationDTO> created = transactionTemplate.execute(status -> insert(event, chunk));
+                unreadNotificationCounter.incrementAll(chunk);
+                notificationsCreated.increment(created.size());
+                recipients += created.size();
+                pushPool.execute(() -> push(created));
+            }
+            eventsCompleted.increment();
+            log.info("Notified {} students of course {} in {} ms: {}",
+                    recipients, event.courseId(), System.currentTimeMillis() - start, event.title());
+        } catch (Exception e) {
+            eventsFailed.increment();
+            log.error("Notification fan-out for course {} failed after {} recipients", event.courseId(), recipients, e);
+        } finally {
+            eventsInProgress.decrementAndGet();
+        }
+    }
+
+    private List<NotificationDTO> insert(CourseEvent event, List<Long> studentIds) {
+        Timestamp createdAt = Timestamp.valueOf(event.createdAt());
+        String type = event.type() != null ? event.type().name() : null;
+        return jdbcTemplate.execute((ConnectionCallback<List<NotificationDTO>>) connection -> {
+            List<NotificationDTO> created = new ArrayList<>(studentIds.size());
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[] {"id"})) {
+                for (Long studentId : studentIds) {
+                    ps.setLong(1, studentId);
+                    ps.setString(2, event.title());
+                    ps.setString(3, event.message());
+                    ps.setString(4, type);
+                    ps.setString(5, event.actionUrl());
+                    ps.setString(6, event.relatedEntityType());
+                    ps.setObject(7, event.relatedEntityId());
+                    ps.setTimestamp(8, createdAt);
+                    ps.setTimestamp(9, createdAt);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Long studentId : studentIds) {
+                        Long id = keys.next() ? keys.getLong(1) : null;
+                        created.add(NotificationDTO.builder()
+                                .id(id)
+                                .userId(studentId)
+                                .title(event.title())
+                                .message(event.message())
+                                .type(type != null ? type : "INFO")
+                                .isRead(false)
+                                .actionUrl(event.actionUrl())
+                                .occurrenceCount(1)
+                                .createdAt(event.createdAt())
+                                .build());
+                    }
+                }
+            }
+            return created;
+        });
+    }
+
+    private void push(List<NotificationDTO> notifications) {
+        for (NotificationDTO notification : notifications) {
+            try {
+                webSocketController.sendNotificationToUser(notification.getUserId(), notification);
+                notificationsPushed.increment();
+            } catch (Exception e) {
+                pushFailures.increment();
+                log.warn("Failed to send real-time notification: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static ThreadPoolExecutor boundedPool(String namePrefix, int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, namePrefix + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private record CourseEvent(Long courseId, String title, String message, NotificationType type,
+                               String actionUrl, String relatedEntityType, Long relatedEntityId,
+                               LocalDateTime createdAt) {
+    }
+}
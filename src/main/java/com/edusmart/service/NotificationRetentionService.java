@@ -0,0 +1,104 @@
+package com.edusmart.service;
+
+import com.edusmart.repository.NotificationArchiveRepository;
+import com.edusmart.repository.NotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the notifications table small so per-user reads stay fast as accounts age.
+ * Read notifications older than the archive age move to notification_archive, a plain table,
+ * and archived rows older than the purge age are deleted by id in batches found through its
+ * created_at index. Both steps run in chunks, each in its own short transaction, so the job
+ * never holds locks on many rows at once. Unread notifications are never moved, which keeps
+ * the unread counters valid.
+ */
+@Service
+@Slf4j
+public class NotificationRetentionService {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchiveRepository notificationArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int archiveAfterDays;
+    private final int purgeAfterDays;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        NotificationArchiveRepository notificationArchiveRepository,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${notifications.retention.archive-after-days:30}") int archiveAfterDays,
+                                        @Value("${notifications.retention.purge-after-days:365}") int purgeAfterDays,
+                                        @Value("${notifications.retention.batch-size:1000}") int batchSize) {
+        this.notificationRepository = notificationRepository;
+        this.notificationArchiveRepository = notificationArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.archiveAfterDays = archiveAfterDays;
+        this.purgeAfterDays = purgeAfterDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}")
+    public void applyRetention() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int archived = archiveRead(LocalDateTime.now().minusDays(archiveAfterDays));
+            int purged = purgeArchive(LocalDateTime.now().minusDays(purgeAfterDays));
+            log.info("Notification retention archived {} and purged {} notifications in {} ms",
+                    archived, purged, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Notification retention failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Move read notifications created before the cutoff into the archive
+     */
+    public int archiveRead(LocalDateTime before) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> {
+                List<Long> ids = notificationRepository.findReadIdsCreatedBefore(before, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                notificationArchiveRepository.copyFromNotifications(ids, LocalDateTime.now());
+                return notificationRepository.deleteByIdIn(ids);
+            });
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    /**
+     * Delete archived notifications created before the cutoff, one batch of ids per transaction
+     */
+    public int purgeArchive(LocalDateTime before) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = notificationArchiveRepository.findIdsCreatedBefore(before, PageRequest.of(0, batchSize));
+                return ids.isEmpty() ? 0 : notificationArchiveRepository.deleteByIdIn(ids);
+            });
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+}
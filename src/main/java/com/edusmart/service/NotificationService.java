@@ -1,6 +1,6 @@
 package com.edusmart.service;
 
-import com.edusmart.controller.WebSocketNotificationController;
+import com.edusmart.dto.common.CursorPageDTO;
 import com.edusmart.dto.notification.NotificationDTO;
 import com.edusmart.entity.Notification;
 import com.edusmart.entity.User;
@@ -8,15 +8,20 @@ import com.edusmart.entity.enums.NotificationType;
 import com.edusmart.exception.ResourceNotFoundException;
 import com.edusmart.repository.NotificationRepository;
 import com.edusmart.repository.UserRepository;
+import com.edusmart.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -30,7 +35,8 @@ public class NotificationService {
     
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final WebSocketNotificationController webSocketController;
+    private final NotificationFanoutService notificationFanoutService;
+    private final UnreadNotificationCounter unreadNotificationCounter;
     
     /**
      * Create notification for a user
@@ -49,20 +55,85 @@ public class NotificationService {
                 .notificationType(type)
                 .isRead(false)
                 .actionUrl(actionUrl)
+                .occurrenceCount(1)
                 .build();
         
         notification = notificationRepository.save(notification);
+        unreadNotificationCounter.increment(userId);
         
         NotificationDTO notificationDTO = mapToDTO(notification);
         
-        // Send real-time notification via WebSocket
-        try {
-            webSocketController.sendNotificationToUser(userId, notificationDTO);
-            log.info("Real-time notification sent to user: {}", userId);
-        } catch (Exception e) {
-            log.warn("Failed to send real-time notification: {}", e.getMessage());
+        // Send real-time notification via WebSocket once the notification is committed
+        notificationFanoutService.pushAfterCommit(List.of(notificationDTO));
+        
+        return notificationDTO;
+    }
+    
+    /**
+     * Create one notification per user with a shared title in a single batch
+     */
+    public void createNotifications(Map<Long, String> messagesByUser, String title,
+                                    NotificationType type, String actionUrl) {
+        log.info("Creating {} notifications: {}", messagesByUser.size(), title);
+        
+        List<Notification> notifications = messagesByUser.entrySet().stream()
+                .map(entry -> Notification.builder()
+                        .user(userRepository.getReferenceById(entry.getKey()))
+                        .title(title)
+                        .message(entry.getValue())
+                        .notificationType(type)
+                        .isRead(false)
+                        .actionUrl(actionUrl)
+                        .occurrenceCount(1)
+                        .build())
+                .toList();
+        
+        unreadNotificationCounter.incrementAll(messagesByUser.keySet());
+        notificationFanoutService.pushAfterCommit(
+                notificationRepository.saveAll(notifications).stream().map(this::mapToDTO).toList());
+    }
+    
+    /**
+     * Notify a user about an entity, collapsing repeats into their unread notification about it.
+     * The earlier row is counted up and moved to the top in one conditional UPDATE, so the user
+     * sees a single notification and the unread count does not grow. Concurrent repeats queue on
+     * the row lock instead of racing to delete it; a new row is inserted only when there is no
+     * unread one left to collapse into.
+     */
+    public NotificationDTO createCollapsingNotification(Long userId, String title, IntFunction<String> message,
+                                                        NotificationType type, String actionUrl,
+                                                        String relatedEntityType, Long relatedEntityId) {
+        List<Long> previous = notificationRepository.findUnreadRelatedIds(
+                userId, type, relatedEntityType, relatedEntityId, PageRequest.of(0, 1));
+        if (!previous.isEmpty() && notificationRepository.collapseRepeat(previous.get(0), LocalDateTime.now()) == 1) {
+            // The UPDATE holds the row lock until commit, so the count read back is ours
+            Notification notification = notificationRepository.findById(previous.get(0))
+                    .orElseThrow(() -> new ResourceNotFoundException("Notification not found"));
+            notification.setTitle(title);
+            notification.setMessage(message.apply(notification.getOccurrenceCount()));
+            
+            NotificationDTO notificationDTO = mapToDTO(notification);
+            notificationFanoutService.pushAfterCommit(List.of(notificationDTO));
+            return notificationDTO;
         }
         
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        
+        Notification notification = notificationRepository.save(Notification.builder()
+                .user(user)
+                .title(title)
+                .message(message.apply(1))
+                .notificationType(type)
+                .isRead(false)
+                .actionUrl(actionUrl)
+                .relatedEntityType(relatedEntityType)
+                .relatedEntityId(relatedEntityId)
+                .build());
+        unreadNotificationCounter.increment(userId);
+        
+        NotificationDTO notificationDTO = mapToDTO(notification);
+        notificationFanoutService.pushAfterCommit(List.of(notificationDTO));
         return notificationDTO;
     }
     
@@ -82,13 +153,29 @@ public class NotificationService {
     }
     
     /**
-     * Get unread notifications count
+     * Scroll user notifications newest first with a keyset cursor instead of page numbers
      */
-    public long getUnreadCount(String username) {
+    public CursorPageDTO<NotificationDTO> scrollUserNotifications(String username, String cursor, int size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
-        return notificationRepository.countByUserIdAndIsRead(user.getId(), false);
+        PageCursor position = PageCursor.decode(cursor, 2);
+        List<Notification> notifications = position == null
+                ? notificationRepository.findSliceByUserId(user.getId(), PageCursor.limit(size))
+                : notificationRepository.findSliceByUserIdAfter(
+                        user.getId(), position.getDateTime(0), position.getLong(1), PageCursor.limit(size));
+        
+        return CursorPageDTO.of(notifications, size,
+                notification -> PageCursor.encode(notification.getCreatedAt(), notification.getId()), this::mapToDTO);
+    }
+    
+    /**
+     * Get unread notifications count, served from the per-user counter. Runs without a
+     * transaction so only a counter miss checks out a database connection.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long getUnreadCount(Long userId) {
+        return unreadNotificationCounter.getUnreadCount(userId);
     }
     
     /**
@@ -107,26 +194,23 @@ public class NotificationService {
             throw new ResourceNotFoundException("Notification not found");
         }
         
-        notification.setIsRead(true);
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            notification.setIsRead(true);
+            unreadNotificationCounter.decrement(user.getId(), 1);
+        }
         notification = notificationRepository.save(notification);
         
         return mapToDTO(notification);
     }
     
     /**
-     * Mark all notifications as read
+     * Mark all notifications as read with a single UPDATE
      */
-    public void markAllAsRead(String username) {
-        log.info("Marking all notifications as read for user: {}", username);
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public void markAllAsRead(Long userId) {
+        log.info("Marking all notifications as read for user: {}", userId);
         
-        List<Notification> notifications = notificationRepository
-                .findByUserIdAndIsRead(user.getId(), false);
-        
-        notifications.forEach(n -> n.setIsRead(true));
-        notificationRepository.saveAll(notifications);
+        int updated = notificationRepository.markAllAsReadByUserId(userId, LocalDateTime.now());
+        unreadNotificationCounter.decrement(userId, updated);
     }
     
     /**
@@ -146,6 +230,9 @@ public class NotificationService {
         }
         
         notificationRepository.delete(notification);
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            unreadNotificationCounter.decrement(user.getId(), 1);
+        }
     }
     
     // Helper methods to create specific notifications
@@ -160,13 +247,18 @@ public class NotificationService {
         );
     }
     
-    public void notifyNewLesson(Long studentId, String lessonTitle, String courseTitle) {
-        createNotification(
-            studentId,
+    /**
+     * Notify every student of the course; delivered in the background after the caller commits
+     */
+    public void notifyNewLesson(Long courseId, Long lessonId, String lessonTitle, String courseTitle) {
+        notificationFanoutService.publishToCourse(
+            courseId,
             "New Lesson Available",
             "New lesson \"" + lessonTitle + "\" is available in " + courseTitle,
             NotificationType.COURSE_UPDATE,
-            "/lessons"
+            "/lessons",
+            "LESSON",
+            lessonId
         );
     }
     
@@ -190,24 +282,28 @@ public class NotificationService {
         );
     }
     
-    public void notifyDiscussionReply(Long userId, String discussionTitle) {
-        createNotification(
+    public void notifyDiscussionReply(Long userId, Long discussionId, String discussionTitle) {
+        createCollapsingNotification(
             userId,
             "New Reply",
-            "Someone replied to your discussion \"" + discussionTitle + "\"",
+            count -> count == 1
+                    ? "Someone replied to your discussion \"" + discussionTitle + "\""
+                    : count + " new replies to your discussion \"" + discussionTitle + "\"",
             NotificationType.DISCUSSION,
-            "/discussions"
+            "/discussions",
+            "DISCUSSION",
+            discussionId
         );
     }
     
     /**
-     * Get notifications by user ID
+     * Get the most recent notifications of a user by ID
      */
-    public List<NotificationDTO> getNotificationsByUserId(Long userId) {
+    public List<NotificationDTO> getNotificationsByUserId(Long userId, int size) {
         log.info("Getting notifications for user ID: {}", userId);
         
         List<Notification> notifications = notificationRepository
-                .findByUserIdOrderByCreatedAtDesc(userId);
+                .findSliceByUserId(userId, PageCursor.limit(size));
         
         return notifications.stream()
                 .map(this::mapToDTO)
@@ -237,9 +333,13 @@ public class NotificationService {
                 .notificationType(type)
                 .isRead(dto.getIsRead() != null ? dto.getIsRead() : false)
                 .actionUrl(dto.getActionUrl())
+                .occurrenceCount(1)
                 .build();
         
         notification = notificationRepository.save(notification);
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            unreadNotificationCounter.increment(user.getId());
+        }
         
         return mapToDTO(notification);
     }
@@ -253,8 +353,11 @@ public class NotificationService {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found"));
         
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            notification.setIsRead(true);
+            notificationRepository.save(notification);
+            unreadNotificationCounter.decrement(notification.getUser().getId(), 1);
+        }
     }
     
     private NotificationDTO mapToDTO(Notification notification) {
@@ -266,6 +369,7 @@ public class NotificationService {
                 .type(notification.getNotificationType() != null ? notification.getNotificationType().name() : "INFO")
                 .isRead(notification.getIsRead())
                 .actionUrl(notification.getActionUrl())
+                .occurrenceCount(notification.getOccurrenceCount() != null ? notification.getOccurrenceCount() : 1)
                 .createdAt(notification.getCreatedAt())
                 .build();
     }
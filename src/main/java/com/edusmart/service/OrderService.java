@@ -1,5 +1,6 @@
 package com.edusmart.service;
 
+import com.edusmart.dto.common.CursorPageDTO;
 import com.edusmart.dto.order.*;
 import com.edusmart.entity.*;
 import com.edusmart.entity.enums.OrderStatus;
@@ -7,6 +8,7 @@ import com.edusmart.entity.enums.PaymentStatus;
 import com.edusmart.exception.BadRequestException;
 import com.edusmart.exception.ResourceNotFoundException;
 import com.edusmart.repository.*;
+import com.edusmart.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -37,6 +39,8 @@ public class OrderService {
     private final UserRepository userRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final EmailService emailService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final LeaderboardService leaderboardService;
 
     /**
      * Checkout - Convert cart to order
@@ -180,13 +184,16 @@ public class OrderService {
         User student = order.getStudent();
         
         for (OrderItem item : items) {
-            if (!enrollmentRepository.existsByStudentIdAndCourseId(student.getId(), item.getCourse().getId())) {
+            boolean alreadyEnrolled = enrollmentRepository.existsByStudentIdAndCourseId(student.getId(), item.getCourse().getId());
+            leaderboardService.recordPurchase(item.getCourse(), item.getPrice() != null ? item.getPrice() : 0.0, !alreadyEnrolled);
+            if (!alreadyEnrolled) {
                 Enrollment enrollment = Enrollment.builder()
                     .student(student)
                     .course(item.getCourse())
                     .progress(0)
                     .build();
-                enrollmentRepository.save(enrollment);
+                enrollment = enrollmentRepository.save(enrollment);
+                analyticsRollupService.enrollmentCreated(enrollment);
                 log.info("Student {} enrolled in course {}", student.getId(), item.getCourse().getId());
                 
                 // Send enrollment confirmation email
@@ -253,6 +260,19 @@ public class OrderService {
         return orders.map(this::buildOrderResponse);
     }
 
+    /**
+     * Scroll orders by status newest first with a keyset cursor (ADMIN)
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderResponseDTO> scrollOrdersByStatus(OrderStatus status, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor, 2);
+        List<Order> orders = position == null
+                ? orderRepository.findSliceByStatus(status, PageCursor.limit(size))
+                : orderRepository.findSliceByStatusAfter(status, position.getDateTime(0), position.getLong(1), PageCursor.limit(size));
+        return CursorPageDTO.of(orders, size,
+                order -> PageCursor.encode(order.getCreatedAt(), order.getId()), this::buildOrderResponse);
+    }
+
     /**
      * Get total spent by student
      */
@@ -0,0 +1,89 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.Assessment;
+import com.edusmart.grading.QuizAnswerKey;
+import com.edusmart.repository.QuestionRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Compiles and caches quiz answer keys.
+ * A key is compiled once per assessment version (its update time), so when a whole class
+ * submits at once the question/option graph is read a single time. The first caller for a
+ * version claims it with a future and compiles on its own thread; concurrent callers wait on
+ * that future instead of on a lock of the cache map, so lookups of other assessments are
+ * never held up by a database round trip.
+ */
+@Service
+@Slf4j
+public class QuizAnswerKeyService {
+
+    private final QuestionRepository questionRepository;
+    private final AsyncCache<Version, QuizAnswerKey> keys;
+
+    public QuizAnswerKeyService(QuestionRepository questionRepository,
+                                @Value("${grading.answer-key.cache-size:500}") long cacheSize) {
+        this.questionRepository = questionRepository;
+        this.keys = Caffeine.newBuilder().maximumSize(cacheSize).buildAsync();
+    }
+
+    /**
+     * Answer key for the assessment as of its current update time
+     */
+    @Transactional(readOnly = true)
+    public QuizAnswerKey getAnswerKey(Assessment assessment) {
+        Version version = new Version(assessment.getId(), assessment.getUpdatedAt());
+        CompletableFuture<QuizAnswerKey> claim = new CompletableFuture<>();
+        CompletableFuture<QuizAnswerKey> existing = keys.asMap().putIfAbsent(version, claim);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            QuizAnswerKey key = compile(assessment);
+            claim.complete(key);
+            // Keys of earlier versions of this assessment will not be asked for again
+            keys.asMap().keySet().removeIf(other -> other.assessmentId().equals(version.assessmentId())
+                    && !other.equals(version));
+            return key;
+        } catch (RuntimeException e) {
+            // A failed future is dropped from the cache, so the next caller compiles again
+            claim.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void evict(Long assessmentId) {
+        keys.asMap().keySet().removeIf(version -> version.assessmentId().equals(assessmentId));
+    }
+
+    private QuizAnswerKey compile(Assessment assessment) {
+        long start = System.currentTimeMillis();
+        QuizAnswerKey key = QuizAnswerKey.compile(assessment.getId(), assessment.getUpdatedAt(),
+                questionRepository.findWithOptionsByAssessmentId(assessment.getId()));
+        log.debug("Compiled answer key for assessment {} in {} ms", assessment.getId(), System.currentTimeMillis() - start);
+        return key;
+    }
+
+    private static QuizAnswerKey await(CompletableFuture<QuizAnswerKey> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Version(Long assessmentId, LocalDateTime updatedAt) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.RefreshTokenSession;
+import com.edusmart.exception.BadRequestException;
+import com.edusmart.repository.RefreshTokenSessionRepository;
+import com.edusmart.security.JwtTokenProvider;
+import com.edusmart.security.TokenDenylist;
+import com.edusmart.util.TransactionUtils;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues token pairs bound to a refresh session and rotates the refresh token on every use.
+ * Revoking a session also denylists its id until the access tokens it issued have expired,
+ * so the authentication filter rejects them without touching the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RefreshTokenService {
+    
+    private final RefreshTokenSessionRepository sessionRepository;
+    private final JwtTokenProvider tokenProvider;
+    private final TokenDenylist tokenDenylist;
+    
+    public record IssuedTokens(String username, String accessToken, String refreshToken) {
+    }
+    
+    /**
+     * Open a new session at login or registration
+     */
+    public IssuedTokens open(Long userId, String username) {
+        String sessionId = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        sessionRepository.save(RefreshTokenSession.builder()
+                .id(sessionId)
+                .userId(userId)
+                .currentTokenId(tokenId)
+                .expiresAt(refreshExpiry(now))
+                .revoked(false)
+                .createdAt(now)
+                .build());
+        return issue(username, sessionId, tokenId);
+    }
+    
+    /**
+     * Exchange a refresh token for a new pair. Presenting a token that was already rotated
+     * away revokes the whole session, since either copy may be in the wrong hands.
+     */
+    @Transactional(noRollbackFor = BadRequestException.class)
+    public IssuedTokens rotate(String refreshToken) {
+        Claims claims = tokenProvider.parseClaims(refreshToken);
+        String sessionId = claims != null ? tokenProvider.getSessionId(claims) : null;
+        if (sessionId == null || !tokenProvider.isRefreshToken(claims)) {
+            throw new BadRequestException("Invalid refresh token");
+        }
+        
+        String nextTokenId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        if (sessionRepository.rotate(sessionId, claims.getId(), nextTokenId, refreshExpiry(now), now) == 0) {
+            sessionRepository.findById(sessionId)
+                    .filter(session -> !session.isRevoked() && !session.getCurrentTokenId().equals(claims.getId()))
+                    .ifPresent(session -> {
+                        log.warn("Refresh token reuse detected, revoking session {} of user {}", sessionId, session.getUserId());
+                        revokeSessions(List.of(sessionId));
+                    });
+            throw new BadRequestException("Invalid refresh token");
+        }
+        return issue(claims.getSubject(), sessionId, nextTokenId);
+    }
+    
+    /**
+     * Revoke the session a refresh token belongs to; invalid tokens are ignored
+     *
+     * @return the session's username, or null when nothing was revoked
+     */
+    public String revoke(String refreshToken) {
+        Claims claims = tokenProvider.parseClaims(refreshToken);
+        String sessionId = claims != null ? tokenProvider.getSessionId(claims) : null;
+        if (sessionId == null || !tokenProvider.isRefreshToken(claims)) {
+            return null;
+        }
+        revokeSessions(List.of(sessionId));
+        return claims.getSubject();
+    }
+    
+    /**
+     * Revoke every live session of a user, e.g. after a password change
+     */
+    public void revokeAll(Long userId) {
+        revokeSessions(sessionRepository.findActiveIdsByUserId(userId, LocalDateTime.now()));
+    }
+    
+    /**
+     * Delete sessions whose last refresh token has expired
+     */
+    @Scheduled(cron = "${security.refresh-sessions.purge-cron:0 45 3 * * *}")
+    public void purgeExpired() {
+        int deleted = sessionRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh token sessions", deleted);
+        }
+    }
+    
+    private void revokeSessions(List<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        sessionRepository.revokeByIdIn(sessionIds);
+        // Every access token of these sessions was issued before now, so none outlives this
+        Instant deniedUntil = Instant.now().plusMillis(tokenProvider.getAccessExpirationMs());
+        TransactionUtils.afterCommit(() -> sessionIds.forEach(sessionId -> tokenDenylist.revoke(sessionId, deniedUntil)));
+    }
+    
+    private IssuedTokens issue(String username, String sessionId, String tokenId) {
+        return new IssuedTokens(username, tokenProvider.generateAccessToken(username, sessionId),
+                tokenProvider.generateRefreshToken(username, sessionId, tokenId));
+    }
+    
+    private LocalDateTime refreshExpiry(LocalDateTime now) {
+        return now.plus(Duration.ofMillis(tokenProvider.getRefreshExpirationMs()));
+    }
+}
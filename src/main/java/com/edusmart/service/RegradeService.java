@@ -0,0 +1,395 @@
+package com.edusmart.service;
+
+import com.edusmart.dto.assessment.RegradeJobDTO;
+import com.edusmart.entity.Assessment;
+import com.edusmart.entity.User;
+import com.edusmart.entity.enums.NotificationType;
+import com.edusmart.entity.enums.RegradeJobStatus;
+import com.edusmart.entity.enums.Role;
+import com.edusmart.exception.BadRequestException;
+import com.edusmart.exception.ResourceNotFoundException;
+import com.edusmart.grading.QuizAnswerKey;
+import com.edusmart.repository.AssessmentRepository;
+import com.edusmart.repository.SubmissionAnswerRepository;
+import com.edusmart.repository.SubmissionRepository;
+import com.edusmart.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-grades every submission of an assessment against its current answer key, e.g. after a
+ * wrong correct option was fixed. Submissions are streamed in id-ordered chunks; each chunk's
+ * stored answers are graded on a fork-join pool and only changed rows are written back with
+ * JDBC batch updates, one transaction per chunk. Each UPDATE only applies while the row still
+ * holds the marks the chunk was graded from, so a score a grader or a late submission changed
+ * in the meantime is skipped rather than overwritten. The chunk's rollup delta and the
+ * notifications of its students whose score changed are derived from the rows actually
+ * updated and written in that same transaction, so a chunk is either applied in full or not at
+ * all and a rerun after a failure picks up where the stored marks still differ.
+ */
+@Service
+@Slf4j
+public class RegradeService {
+
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final AssessmentRepository assessmentRepository;
+    private final UserRepository userRepository;
+    private final SubmissionRepository submissionRepository;
+    private final SubmissionAnswerRepository submissionAnswerRepository;
+    private final QuizAnswerKeyService quizAnswerKeyService;
+    private final NotificationService notificationService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+    private final ForkJoinPool gradingPool;
+    private final ExecutorService jobRunner;
+
+    private final Map<String, RegradeJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, RegradeJob> runningByAssessment = new ConcurrentHashMap<>();
+
+    public RegradeService(AssessmentRepository assessmentRepository,
+                          UserRepository userRepository,
+                          SubmissionRepository submissionRepository,
+                          SubmissionAnswerRepository submissionAnswerRepository,
+                          QuizAnswerKeyService quizAnswerKeyService,
+                          NotificationService notificationService,
+                          AnalyticsRollupService analyticsRollupService,
+                          JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${grading.regrade.chunk-size:500}") int chunkSize,
+                          @Value("${grading.regrade.parallelism:0}") int parallelism) {
+        this.assessmentRepository = assessmentRepository;
+        this.userRepository = userRepository;
+        this.submissionRepository = submissionRepository;
+        this.submissionAnswerRepository = submissionAnswerRepository;
+        this.quizAnswerKeyService = quizAnswerKeyService;
+        this.notificationService = notificationService;
+        this.analyticsRollupService = analyticsRollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.gradingPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.jobRunner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "regrade-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+        gradingPool.shutdownNow();
+    }
+
+    /**
+     * Queue a re-grade of all submissions of an assessment; one job per assessment at a time
+     */
+    @Transactional(readOnly = true)
+    public RegradeJobDTO startRegrade(Long assessmentId, String username) {
+        Assessment assessment = assessmentRepository.findById(assessmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        if (!assessment.getCourse().getInstructor().getId().equals(user.getId()) &&
+            !user.getRole().equals(Role.ADMIN)) {
+            throw new BadRequestException("You don't have permission to re-grade this assessment");
+        }
+
+        RegradeJob job = new RegradeJob(UUID.randomUUID().toString(), assessmentId, assessment.getTitle(), user.getId());
+        if (runningByAssessment.putIfAbsent(assessmentId, job) != null) {
+            throw new BadRequestException("A re-grade is already running for this assessment");
+        }
+        purgeFinishedJobs();
+        jobs.put(job.id, job);
+
+        log.info("Queued re-grade {} of assessment {} by {}", job.id, assessmentId, username);
+        jobRunner.execute(() -> run(job));
+        return job.toDTO();
+    }
+
+    public RegradeJobDTO getJob(String jobId) {
+        RegradeJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Re-grade job not found");
+        }
+        return job.toDTO();
+    }
+
+    private void run(RegradeJob job) {
+        try {
+            job.start(submissionRepository.countByAssessmentId(job.assessmentId));
+
+            Assessment assessment = assessmentRepository.findById(job.assessmentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+            QuizAnswerKey answerKey = quizAnswerKeyService.getAnswerKey(assessment);
+
+            long afterId = 0;
+            List<Object[]> chunk;
+            while (!(chunk = submissionRepository.findRegradeChunk(job.assessmentId, afterId,
+                    PageRequest.of(0, chunkSize))).isEmpty()) {
+                afterId = ((Number) chunk.get(chunk.size() - 1)[0]).longValue();
+
+                List<SubmissionWork> work = loadChunk(chunk);
+                List<Regraded> regraded = gradingPool.submit(() -> work.parallelStream()
+                        .map(submission -> regrade(answerKey, submission))
+                        .toList()).join();
+
+                List<Regraded> changed = regraded.stream().filter(Regraded::changed).toList();
+                int applied = write(job, changed);
+                job.progress(chunk.size(), applied, changed.size() - applied);
+            }
+
+            finish(job);
+            job.complete();
+            log.info("Re-grade {} of assessment {} finished: {} submissions, {} changed, {} skipped",
+                    job.id, job.assessmentId, job.processed.get(), job.changed.get(), job.skipped.get());
+        } catch (Exception e) {
+            job.fail(e.getMessage());
+            log.error("Re-grade {} of assessment {} failed", job.id, job.assessmentId, e);
+        } finally {
+            runningByAssessment.remove(job.assessmentId, job);
+        }
+    }
+
+    private List<SubmissionWork> loadChunk(List<Object[]> chunk) {
+        Map<Long, List<AnswerRow>> answers = new HashMap<>();
+        List<Long> submissionIds = chunk.stream().map(row -> ((Number) row[0]).longValue()).toList();
+        for (Object[] row : submissionAnswerRepository.findGradingRowsBySubmissionIds(submissionIds)) {
+            AnswerRow answer = new AnswerRow(((Number) row[0]).longValue(), ((Number) row[2]).longValue(),
+                    (Long) row[3], (String) row[4], (Boolean) row[5], (Integer) row[6]);
+            answers.computeIfAbsent(((Number) row[1]).longValue(), id -> new ArrayList<>()).add(answer);
+        }
+
+        List<SubmissionWork> work = new ArrayList<>(chunk.size());
+        for (Object[] row : chunk) {
+            Long id = ((Number) row[0]).longValue();
+            work.add(new SubmissionWork(id, ((Number) row[1]).longValue(), (Integer) row[2],
+                    answers.getOrDefault(id, List.of())));
+        }
+        return work;
+    }
+
+    /**
+     * Grade one submission's stored answers; manually graded answers keep their marks
+     */
+    private static Regraded regrade(QuizAnswerKey answerKey, SubmissionWork submission) {
+        int total = 0;
+        List<AnswerChange> changedAnswers = new ArrayList<>();
+        for (AnswerRow answer : submission.answers()) {
+            int marks = answer.marksObtained() != null ? answer.marksObtained() : 0;
+            if (answerKey.contains(answer.questionId())) {
+                QuizAnswerKey.GradedAnswer graded = answerKey.grade(
+                        answer.questionId(), answer.selectedOptionId(), answer.answerText());
+                if (graded.question().autoGraded()) {
+                    marks = graded.marksObtained();
+                    if (!Objects.equals(graded.isCorrect(), answer.isCorrect())
+                            || !Objects.equals(marks, answer.marksObtained())) {
+                        changedAnswers.add(new AnswerChange(answer.id(), graded.isCorrect(), marks,
+                                answer.marksObtained()));
+                    }
+                }
+            }
+            total += marks;
+        }
+        // Submissions made before answers were stored have nothing to re-grade
+        boolean changed = !submission.answers().isEmpty()
+                && (!changedAnswers.isEmpty() || !Objects.equals(total, submission.obtainedMarks()));
+        return new Regraded(submission, total, changed ? changedAnswers : List.of(), changed);
+    }
+
+    /**
+     * Write a chunk's changed answers and marks together with its rollup delta and student notifications.
+     * Returns the number of submissions whose marks were still the ones graded from and were updated.
+     */
+    private int write(RegradeJob job, List<Regraded> changed) {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        Integer applied = transactionTemplate.execute(status -> {
+            int[][] submissionCounts = jdbcTemplate.batchUpdate(
+                    "UPDATE submissions SET obtained_marks = ? WHERE id = ? AND obtained_marks IS NOT DISTINCT FROM ?",
+                    changed, chunkSize, (ps, r) -> {
+                        ps.setInt(1, r.obtainedMarks());
+                        ps.setLong(2, r.submission().id());
+                        ps.setObject(3, r.submission().obtainedMarks(), Types.INTEGER);
+                    });
+            List<Regraded> updated = updated(changed, submissionCounts);
+
+            List<AnswerChange> answers = updated.stream().flatMap(r -> r.changedAnswers().stream()).toList();
+            int[][] answerCounts = jdbcTemplate.batchUpdate(
+                    "UPDATE submission_answers SET is_correct = ?, marks_obtained = ? WHERE id = ? AND marks_obtained IS NOT DISTINCT FROM ?",
+                    answers, chunkSize, (ps, answer) -> {
+                        ps.setObject(1, answer.isCorrect());
+                        ps.setInt(2, answer.marksObtained());
+                        ps.setLong(3, answer.id());
+                        ps.setObject(4, answer.previousMarks(), Types.INTEGER);
+                    });
+            int skippedAnswers = answers.size() - updated(answers, answerCounts).size();
+            if (updated.size() < changed.size() || skippedAnswers > 0) {
+                log.warn("Re-grade {} skipped {} submissions and {} answers whose marks changed while it ran",
+                        job.id, changed.size() - updated.size(), skippedAnswers);
+            }
+
+            Map<Long, Long> marksDeltaByStudent = new HashMap<>();
+            Map<Long, Integer> newMarksByStudent = new HashMap<>();
+            for (Regraded r : updated) {
+                if (r.marksDelta() != 0) {
+                    marksDeltaByStudent.merge(r.submission().studentId(), (long) r.marksDelta(), Long::sum);
+                    newMarksByStudent.put(r.submission().studentId(), r.obtainedMarks());
+                }
+            }
+            marksDeltaByStudent.values().removeIf(delta -> delta == 0);
+
+            if (!marksDeltaByStudent.isEmpty()) {
+                Assessment assessment = assessmentRepository.findById(job.assessmentId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Assessment not found"));
+                analyticsRollupService.submissionsRegraded(assessment.getCourse(), marksDeltaByStudent);
+            }
+
+            Map<Long, String> messages = new HashMap<>();
+            newMarksByStudent.forEach((studentId, marks) -> messages.put(studentId, String.format(
+                    "Your submission for '%s' was re-graded after an answer key correction. New score: %d marks",
+                    job.assessmentTitle, marks)));
+            if (!messages.isEmpty()) {
+                notificationService.createNotifications(messages, "Quiz Re-graded", NotificationType.GRADE, "/quizzes");
+            }
+            return updated.size();
+        });
+        return applied != null ? applied : 0;
+    }
+
+    /**
+     * Items of a batch whose UPDATE matched a row; batchUpdate reports one count per item in batch order
+     */
+    private static <T> List<T> updated(List<T> items, int[][] counts) {
+        List<T> updated = new ArrayList<>(items.size());
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    updated.add(items.get(i));
+                }
+                i++;
+            }
+        }
+        return updated;
+    }
+
+    private void finish(RegradeJob job) {
+        notificationService.createNotification(job.requestedBy, "Re-grade Completed",
+                String.format("Re-graded %d submissions of '%s'; %d scores changed.",
+                        job.processed.get(), job.assessmentTitle, job.changed.get()),
+                NotificationType.GRADE, "/instructor/assessments");
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private record AnswerRow(Long id, Long questionId, Long selectedOptionId, String answerText,
+                             Boolean isCorrect, Integer marksObtained) {
+    }
+
+    private record SubmissionWork(Long id, Long studentId, Integer obtainedMarks, List<AnswerRow> answers) {
+    }
+
+    private record AnswerChange(Long id, Boolean isCorrect, int marksObtained, Integer previousMarks) {
+    }
+
+    private record Regraded(SubmissionWork submission, int obtainedMarks, List<AnswerChange> changedAnswers,
+                            boolean changed) {
+
+        int marksDelta() {
+            return obtainedMarks - (submission.obtainedMarks() != null ? submission.obtainedMarks() : 0);
+        }
+    }
+
+    private static final class RegradeJob {
+        private final String id;
+        private final Long assessmentId;
+        private final String assessmentTitle;
+        private final Long requestedBy;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong changed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile RegradeJobStatus status = RegradeJobStatus.QUEUED;
+        private volatile long total;
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private RegradeJob(String id, Long assessmentId, String assessmentTitle, Long requestedBy) {
+            this.id = id;
+            this.assessmentId = assessmentId;
+            this.assessmentTitle = assessmentTitle;
+            this.requestedBy = requestedBy;
+        }
+
+        private void start(long total) {
+            this.total = total;
+            this.startedAt = LocalDateTime.now();
+            this.status = RegradeJobStatus.RUNNING;
+        }
+
+        private void progress(int processedSubmissions, int changedSubmissions, int skippedSubmissions) {
+            processed.addAndGet(processedSubmissions);
+            changed.addAndGet(changedSubmissions);
+            skipped.addAndGet(skippedSubmissions);
+        }
+
+        private void complete() {
+            finishedAt = LocalDateTime.now();
+            status = RegradeJobStatus.COMPLETED;
+        }
+
+        private void fail(String message) {
+            error = message;
+            finishedAt = LocalDateTime.now();
+            status = RegradeJobStatus.FAILED;
+        }
+
+        private RegradeJobDTO toDTO() {
+            long done = processed.get();
+            // Submissions made while the job runs can push the count past the initial total
+            long expected = Math.max(total, done);
+            return RegradeJobDTO.builder()
+                    .jobId(id)
+                    .assessmentId(assessmentId)
+                    .status(status)
+                    .totalSubmissions(expected)
+                    .processedSubmissions(done)
+                    .changedSubmissions(changed.get())
+                    .skippedSubmissions(skipped.get())
+                    .progressPercent(status == RegradeJobStatus.COMPLETED ? 100
+                            : expected > 0 ? (int) (done * 100 / expected) : 0)
+                    .error(error)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -33,6 +33,8 @@ public class ReviewService {
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final UserRepository userRepository;
+    private final LeaderboardService leaderboardService;
+    private final CourseSearchService courseSearchService;
     
     /**
      * Create or update a review
@@ -57,6 +59,7 @@ public class ReviewService {
                         .course(course)
                         .build());
         
+        Integer previousRating = review.getId() != null ? review.getRating() : null;
         review.setRating(request.getRating());
         review.setReviewText(request.getReviewText());
         
@@ -64,6 +67,7 @@ public class ReviewService {
         review.setIsVerified(enrollment.getStatus() == EnrollmentStatus.COMPLETED);
         
         review = reviewRepository.save(review);
+        leaderboardService.recordReview(course, previousRating, review.getRating());
         
         // Update course average rating
         updateCourseRating(course.getId());
@@ -117,6 +121,7 @@ public class ReviewService {
         }
         
         reviewRepository.delete(review);
+        leaderboardService.recordReview(review.getCourse(), review.getRating(), null);
         updateCourseRating(review.getCourse().getId());
     }
     
@@ -133,6 +138,7 @@ public class ReviewService {
         course.setAverageRating(avgRating != null ? avgRating : 0.0);
         course.setReviewCount((int) reviewCount);
         courseRepository.save(course);
+        courseSearchService.courseSaved(course);
     }
     
     /**
@@ -0,0 +1,68 @@
+package com.edusmart.service;
+
+import com.edusmart.cache.CounterStore;
+import com.edusmart.repository.NotificationRepository;
+import com.edusmart.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Unread notification count per user, kept in the {@link CounterStore} so the notification
+ * bell does not count rows on every page load. A counter is loaded from the database on first
+ * read and then adjusted by the writes that change it, once they commit. Counters expire
+ * after a while, so a missed adjustment is corrected by the next reload.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnreadNotificationCounter {
+
+    private final CounterStore counterStore;
+    private final NotificationRepository notificationRepository;
+
+    public long getUnreadCount(Long userId) {
+        String key = key(userId);
+        Long count = counterStore.get(key);
+        if (count != null && count >= 0) {
+            return count;
+        }
+        if (count != null) {
+            log.warn("Unread notification counter of user {} drifted to {}, reloading", userId, count);
+            counterStore.remove(key);
+        }
+        long unread = notificationRepository.countByUserIdAndIsRead(userId, false);
+        counterStore.setIfAbsent(key, unread);
+        return unread;
+    }
+
+    /**
+     * Count a new unread notification once the current transaction commits
+     */
+    public void increment(Long userId) {
+        incrementAll(List.of(userId));
+    }
+
+    public void incrementAll(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            List<String> keys = userIds.stream().map(UnreadNotificationCounter::key).toList();
+            TransactionUtils.afterCommit(() -> counterStore.addIfPresent(keys, 1));
+        }
+    }
+
+    /**
+     * Uncount notifications that were read or deleted once the current transaction commits
+     */
+    public void decrement(Long userId, long count) {
+        if (count > 0) {
+            TransactionUtils.afterCommit(() -> counterStore.addIfPresent(List.of(key(userId)), -count));
+        }
+    }
+
+    private static String key(Long userId) {
+        return "notifications:unread:" + userId;
+    }
+}
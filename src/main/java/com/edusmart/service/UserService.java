@@ -24,6 +24,7 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
     
     /**
      * Get user profile by username
@@ -107,6 +108,9 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
         
+        // Sign out every session, including tokens issued before the change
+        refreshTokenService.revokeAll(user.getId());
+        
         log.info("Password updated successfully for user: {}", username);
     }
     
@@ -0,0 +1,96 @@
+package com.edusmart.util;
+
+import com.edusmart.exception.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ * A cursor holds the sort key values of the last row of a slice; the next slice is read with
+ * a seek predicate on those values, so deep pages cost no OFFSET scan and no COUNT query.
+ */
+public final class PageCursor {
+    
+    public static final int MAX_SIZE = 100;
+    
+    private static final String SEPARATOR = "|";
+    
+    private final String[] values;
+    
+    private PageCursor(String[] values) {
+        this.values = values;
+    }
+    
+    /**
+     * Encode the sort key values of the last row of a slice
+     */
+    public static String encode(Object... values) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(values[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor sent back by a client; null or blank means the first slice
+     */
+    public static PageCursor decode(String cursor, int expectedValues) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = raw.split(Pattern.quote(SEPARATOR), -1);
+            if (values.length != expectedValues) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new PageCursor(values);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+    
+    /**
+     * Read one row more than requested, which tells whether another slice follows without counting
+     */
+    public static Pageable limit(int size) {
+        return PageRequest.ofSize(clamp(size) + 1);
+    }
+    
+    public static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+    
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(values[index]);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+    
+    public Long getLong(int index) {
+        try {
+            return Long.valueOf(values[index]);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+    
+    public String getString(int index) {
+        return values[index];
+    }
+    
+    public boolean getBoolean(int index) {
+        return Boolean.parseBoolean(values[index]);
+    }
+}
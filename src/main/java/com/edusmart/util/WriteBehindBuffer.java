@@ -0,0 +1,180 @@
+package com.edusmart.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * In-memory write-behind buffer.
+ * Values are coalesced per key and handed to the writer in batches, either when the owner's
+ * scheduled flush runs or in the background once enough keys are pending. A batch that fails is
+ * merged back into the buffer for the next flush; an entry that has failed maxAttempts times is
+ * written on its own, so one bad entry cannot hold back the others, and is dropped to the log if
+ * that fails too. Values still buffered when the node dies are lost.
+ */
+@Slf4j
+public final class WriteBehindBuffer<K, V> {
+
+    private final String name;
+    private final int flushThreshold;
+    private final int maxAttempts;
+    private final BinaryOperator<V> merge;
+    private final Consumer<Map<K, V>> writer;
+
+    private final Map<K, Pending<V>> pending = new ConcurrentHashMap<>();
+    // The batch being written, still visible to unwritten() until it is committed
+    private volatile Map<K, V> writing = Map.of();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ExecutorService flusher;
+
+    /**
+     * @param name           used for the flush thread and in log messages
+     * @param flushThreshold pending keys that trigger a background flush
+     * @param maxAttempts    failed batches an entry is retried in before it is written alone
+     * @param merge          combines the buffered value of a key (first) with a newer one (second)
+     * @param writer         writes one batch; it must throw to have the batch retried
+     */
+    public WriteBehindBuffer(String name, int flushThreshold, int maxAttempts,
+                             BinaryOperator<V> merge, Consumer<Map<K, V>> writer) {
+        this.name = name;
+        this.flushThreshold = flushThreshold;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.merge = merge;
+        this.writer = writer;
+        this.flusher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name + "-flush");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Buffer a value; a full buffer is flushed in the background
+     */
+    public void record(K key, V value) {
+        pending.merge(key, new Pending<>(value, 0), this::merge);
+        if (pending.size() >= flushThreshold && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * The value buffered for a key and not yet taken by a flush, if any
+     */
+    public V get(K key) {
+        Pending<V> entry = pending.get(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    /**
+     * Drop the buffered value of a key, e.g. because it is about to be written synchronously
+     */
+    public void discard(K key) {
+        pending.remove(key);
+    }
+
+    /**
+     * Every value not committed yet, including the batch being written. The buffer is read
+     * before the batch, so a value moving from one to the other during the call is not missed;
+     * it may be returned twice.
+     */
+    public List<V> unwritten() {
+        List<V> values = new ArrayList<>(pending.size());
+        pending.values().forEach(entry -> values.add(entry.value()));
+        values.addAll(writing.values());
+        return values;
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            // Published before the entries leave the buffer, so unwritten() always finds them in one of the two
+            writing = Collections.unmodifiableMap(values(new HashMap<>(pending)));
+            Map<K, Pending<V>> batch = new HashMap<>();
+            for (K key : writing.keySet()) {
+                Pending<V> entry = pending.remove(key);
+                if (entry != null) {
+                    batch.put(key, entry);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            writing = Collections.unmodifiableMap(values(batch));
+            try {
+                writer.accept(writing);
+                log.debug("Flushed {} entries of {}", batch.size(), name);
+            } catch (RuntimeException e) {
+                log.error("Failed to flush {} entries of {}", batch.size(), name, e);
+                retry(batch);
+            }
+        } finally {
+            writing = Map.of();
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stop the background flusher and write what is left
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private void retry(Map<K, Pending<V>> batch) {
+        Map<K, V> exhausted = new HashMap<>();
+        batch.forEach((key, entry) -> {
+            int attempts = entry.attempts() + 1;
+            if (attempts < maxAttempts) {
+                pending.merge(key, new Pending<>(entry.value(), attempts), this::merge);
+            } else {
+                exhausted.put(key, entry.value());
+            }
+        });
+        exhausted.forEach((key, value) -> {
+            try {
+                writer.accept(Map.of(key, value));
+            } catch (RuntimeException e) {
+                log.error("Dropping entry {} of {} after {} failed attempts: {}", key, name, maxAttempts, value, e);
+            }
+        });
+    }
+
+    // Combines the buffered entry with a newer value or with a batch put back after a failure
+    private Pending<V> merge(Pending<V> buffered, Pending<V> other) {
+        return new Pending<>(merge.apply(buffered.value(), other.value()),
+                Math.max(buffered.attempts(), other.attempts()));
+    }
+
+    private static <K, V> Map<K, V> values(Map<K, Pending<V>> entries) {
+        Map<K, V> values = new HashMap<>(entries.size() * 2);
+        entries.forEach((key, entry) -> values.put(key, entry.value()));
+        return values;
+    }
+
+    private record Pending<V>(V value, int attempts) {
+    }
+}
@@ -13,6 +13,11 @@ DROP TABLE IF EXISTS discussion_replies CASCADE;
 DROP TABLE IF EXISTS discussions CASCADE;
 DROP TABLE IF EXISTS lesson_completions CASCADE;
 DROP TABLE IF EXISTS lessons CASCADE;
+DROP TABLE IF EXISTS analytics_rollups CASCADE;
+DROP TABLE IF EXISTS chat_log CASCADE;
+DROP TABLE IF EXISTS file_blobs CASCADE;
+DROP TABLE IF EXISTS refresh_token_sessions CASCADE;
+DROP TABLE IF EXISTS notification_archive CASCADE;
 DROP TABLE IF EXISTS notifications CASCADE;
 DROP TABLE IF EXISTS enrollments CASCADE;
 DROP TABLE IF EXISTS courses CASCADE;
@@ -66,6 +71,7 @@ CREATE TABLE courses (
     price DECIMAL(10, 2) DEFAULT 0.00,
     is_published BOOLEAN DEFAULT false,
     enrollment_count INTEGER DEFAULT 0,
+    lesson_count INTEGER DEFAULT 0,
     rating DECIMAL(3, 2) DEFAULT 0.00,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -85,6 +91,8 @@ CREATE TABLE enrollments (
     completed BOOLEAN DEFAULT false,
     completion_date TIMESTAMP,
     last_accessed TIMESTAMP,
+    completed_lessons BYTEA,
+    completed_lesson_count INTEGER DEFAULT 0,
     FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
     UNIQUE(student_id, course_id)
@@ -104,9 +112,11 @@ CREATE TABLE lessons (
     file_path VARCHAR(500),
     lesson_type VARCHAR(50) CHECK (lesson_type IN ('VIDEO', 'TEXT', 'DOCUMENT', 'QUIZ')),
     is_preview BOOLEAN DEFAULT false,
+    completion_slot INTEGER,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE
+    FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE CASCADE,
+    UNIQUE(course_id, completion_slot)
 );
 
 -- ===================================================================
@@ -188,6 +198,23 @@ CREATE TABLE submissions (
     FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- ===================================================================
+-- Submission Answers Table (ids from a pooled sequence for batched inserts)
+-- ===================================================================
+CREATE SEQUENCE submission_answers_seq INCREMENT BY 50;
+
+CREATE TABLE submission_answers (
+    id BIGINT PRIMARY KEY DEFAULT nextval('submission_answers_seq'),
+    submission_id BIGINT NOT NULL,
+    question_id BIGINT NOT NULL,
+    selected_option_id BIGINT,
+    answer_text TEXT,
+    is_correct BOOLEAN,
+    marks_obtained INTEGER,
+    FOREIGN KEY (submission_id) REFERENCES submissions(id) ON DELETE CASCADE,
+    FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE
+);
+
 -- ===================================================================
 -- Submission Files Table
 -- ===================================================================
@@ -245,10 +272,103 @@ CREATE TABLE notifications (
     is_read BOOLEAN DEFAULT false,
     related_entity_type VARCHAR(50),
     related_entity_id BIGINT,
+    occurrence_count INT DEFAULT 1,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- ===================================================================
+-- Notification Archive Table
+-- Read notifications older than notifications.retention.archive-after-days;
+-- purged in batches through idx_notification_archive_created
+-- ===================================================================
+CREATE TABLE notification_archive (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message TEXT NOT NULL,
+    notification_type VARCHAR(50),
+    action_url VARCHAR(255),
+    related_entity_type VARCHAR(50),
+    related_entity_id BIGINT,
+    occurrence_count INT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL
+);
+
+-- ===================================================================
+-- Chat Log Table
+-- Append-only history of live discussion and course chats
+-- ===================================================================
+CREATE TABLE chat_log (
+    id VARCHAR(32) PRIMARY KEY,
+    room_type VARCHAR(20) NOT NULL,
+    room_id BIGINT NOT NULL,
+    sender_id BIGINT,
+    sender_name VARCHAR(255),
+    content TEXT NOT NULL,
+    message_type VARCHAR(20),
+    sent_at TIMESTAMP NOT NULL
+);
+
+-- ===================================================================
+-- Refresh Token Sessions Table
+-- One row per login; each refresh rotates current_token_id, and a replayed
+-- older token revokes the session
+-- ===================================================================
+CREATE TABLE refresh_token_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    current_token_id VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked BOOLEAN NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- ===================================================================
+-- File Blobs Table
+-- One row per stored file content, keyed by its SHA-256 digest; uploads
+-- with identical bytes share the blob and it is deleted with its last reference
+-- ===================================================================
+CREATE TABLE file_blobs (
+    digest VARCHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    reference_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Uploads point at their blob by digest
+ALTER TABLE IF EXISTS file_uploads ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+-- ===================================================================
+-- Analytics Rollups Table
+-- Pre-aggregated counters per course, instructor and student, updated by
+-- deltas on every write; global figures are the sum of the course rows
+-- ===================================================================
+CREATE TABLE analytics_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    scope VARCHAR(20) NOT NULL CHECK (scope IN ('GLOBAL', 'COURSE', 'INSTRUCTOR', 'STUDENT')),
+    scope_id BIGINT NOT NULL,
+    total_enrollments BIGINT NOT NULL DEFAULT 0,
+    active_enrollments BIGINT NOT NULL DEFAULT 0,
+    completed_enrollments BIGINT NOT NULL DEFAULT 0,
+    progress_sum BIGINT NOT NULL DEFAULT 0,
+    completion_score_sum BIGINT NOT NULL DEFAULT 0,
+    last_activity_at TIMESTAMP,
+    lesson_completions BIGINT NOT NULL DEFAULT 0,
+    total_submissions BIGINT NOT NULL DEFAULT 0,
+    graded_submissions BIGINT NOT NULL DEFAULT 0,
+    marks_sum BIGINT NOT NULL DEFAULT 0,
+    total_discussions BIGINT NOT NULL DEFAULT 0,
+    total_lessons BIGINT NOT NULL DEFAULT 0,
+    total_assessments BIGINT NOT NULL DEFAULT 0,
+    revision BIGINT DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(scope, scope_id)
+);
+
 -- ===================================================================
 -- Indexes for Performance Optimization
 -- ===================================================================
@@ -259,13 +379,26 @@ CREATE INDEX idx_courses_category ON courses(category_id);
 CREATE INDEX idx_courses_published ON courses(is_published);
 CREATE INDEX idx_enrollments_student ON enrollments(student_id);
 CREATE INDEX idx_enrollments_course ON enrollments(course_id);
+CREATE INDEX idx_enrollments_course_student ON enrollments(course_id, student_id);
 CREATE INDEX idx_lessons_course ON lessons(course_id);
 CREATE INDEX idx_assessments_course ON assessments(course_id);
 CREATE INDEX idx_submissions_assessment ON submissions(assessment_id);
 CREATE INDEX idx_submissions_student ON submissions(student_id);
+CREATE INDEX idx_submission_answers_submission ON submission_answers(submission_id);
 CREATE INDEX idx_discussions_course ON discussions(course_id);
 CREATE INDEX idx_notifications_user ON notifications(user_id);
 CREATE INDEX idx_notifications_read ON notifications(is_read);
+CREATE INDEX idx_notifications_read_created ON notifications(is_read, created_at);
+CREATE INDEX idx_notification_archive_created ON notification_archive(created_at);
+CREATE INDEX idx_refresh_token_sessions_user ON refresh_token_sessions(user_id);
+CREATE INDEX idx_refresh_token_sessions_expires ON refresh_token_sessions(expires_at);
+
+-- Keyset pagination (seek on the sort key plus id)
+CREATE INDEX idx_courses_published_created ON courses(is_published, created_at, id);
+CREATE INDEX idx_discussions_course_pinned_created ON discussions(course_id, (COALESCE(is_pinned, false)), created_at, id);
+CREATE INDEX idx_notifications_user_created ON notifications(user_id, created_at, id);
+CREATE INDEX idx_notification_archive_user_created ON notification_archive(user_id, created_at, id);
+CREATE INDEX idx_chat_log_room_sent ON chat_log(room_type, room_id, sent_at, id);
 
 -- ===================================================================
 -- Sample Data Insertion
@@ -0,0 +1,42 @@
+package com.edusmart.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalCacheTagIndexTest {
+
+    private final LocalCacheTagIndex index = new LocalCacheTagIndex(Duration.ofMinutes(10));
+
+    @Test
+    void removeTagReturnsEveryKeyTaggedWithItOnce() {
+        index.tag("courses", "page-1", List.of("listing:all", "course:1"));
+        index.tag("courses", "page-2", List.of("listing:all"));
+
+        assertThat(index.removeTag("courses", "listing:all")).containsExactlyInAnyOrder("page-1", "page-2");
+        assertThat(index.removeTag("courses", "listing:all")).isEmpty();
+        assertThat(index.removeTag("courses", "course:1")).containsExactly("page-1");
+    }
+
+    @Test
+    void tagsAreScopedToTheirCache() {
+        index.tag("courses", "page-1", List.of("listing:all"));
+
+        assertThat(index.removeTag("categories", "listing:all")).isEmpty();
+        assertThat(index.removeTag("courses", "listing:all")).containsExactly("page-1");
+    }
+
+    @Test
+    void everyTagRemovalAdvancesTheGenerationOfItsCache() {
+        long before = index.generation("courses");
+
+        index.removeTag("courses", "listing:all");
+        index.removeTag("courses", "course:1");
+
+        assertThat(index.generation("courses")).isEqualTo(before + 2);
+        assertThat(index.generation("categories")).isZero();
+    }
+}
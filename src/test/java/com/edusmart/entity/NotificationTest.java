@@ -0,0 +1,13 @@
+package com.edusmart.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationTest {
+
+    @Test
+    void builderCountsASingleOccurrenceByDefault() {
+        assertThat(Notification.builder().build().getOccurrenceCount()).isEqualTo(1);
+    }
+}
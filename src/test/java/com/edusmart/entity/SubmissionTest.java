@@ -0,0 +1,23 @@
+package com.edusmart.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubmissionTest {
+
+    @Test
+    void builderStartsWithAnEmptyMutableAnswerList() {
+        Submission submission = Submission.builder().build();
+
+        submission.getAnswers().add(SubmissionAnswer.builder().submission(submission).build());
+
+        assertThat(submission.getAnswers()).hasSize(1);
+    }
+
+    @Test
+    void builtSubmissionsDoNotShareTheirAnswerLists() {
+        assertThat(Submission.builder().build().getAnswers())
+                .isNotSameAs(Submission.builder().build().getAnswers());
+    }
+}
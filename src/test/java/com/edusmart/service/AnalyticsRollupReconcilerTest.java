@@ -0,0 +1,133 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.AnalyticsRollup;
+import com.edusmart.entity.Category;
+import com.edusmart.entity.Course;
+import com.edusmart.entity.Enrollment;
+import com.edusmart.entity.Lesson;
+import com.edusmart.entity.User;
+import com.edusmart.entity.enums.EnrollmentStatus;
+import com.edusmart.entity.enums.Role;
+import com.edusmart.entity.enums.RollupScope;
+import com.edusmart.repository.AnalyticsRollupRepository;
+import com.edusmart.repository.CategoryRepository;
+import com.edusmart.repository.CourseRepository;
+import com.edusmart.repository.EnrollmentRepository;
+import com.edusmart.repository.UserRepository;
+import com.edusmart.security.AuthenticatedPrincipalCache;
+import com.edusmart.support.TestEntities;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AnalyticsRollupReconciler.class, AnalyticsRollupService.class, AuthenticatedPrincipalCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AnalyticsRollupReconcilerTest {
+
+    @Autowired private AnalyticsRollupReconciler reconciler;
+    @Autowired private AnalyticsRollupService rollupService;
+    @Autowired private AnalyticsRollupRepository rollupRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private EnrollmentRepository enrollmentRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private User instructor;
+    private User student;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        instructor = userRepository.save(TestEntities.user("teacher", Role.INSTRUCTOR));
+        student = userRepository.save(TestEntities.user("learner", Role.STUDENT));
+        Category category = categoryRepository.save(TestEntities.category("Programming"));
+        course = courseRepository.save(TestEntities.course("Java", instructor, category));
+    }
+
+    @AfterEach
+    void tearDown() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "analytics_rollups", "enrollments", "courses", "categories", "users");
+    }
+
+    @Test
+    void rebuildRepairsRowsFromTheSourceTables() {
+        enrollmentRepository.save(TestEntities.enrollment(student, course, EnrollmentStatus.ACTIVE, 40));
+
+        reconciler.rebuildAll();
+
+        AnalyticsRollup courseRow = rollupService.getRollup(RollupScope.COURSE, course.getId());
+        assertThat(courseRow.getTotalEnrollments()).isEqualTo(1);
+        assertThat(courseRow.getActiveEnrollments()).isEqualTo(1);
+        assertThat(courseRow.getProgressSum()).isEqualTo(40);
+        assertThat(rollupService.getRollup(RollupScope.INSTRUCTOR, instructor.getId()).getTotalEnrollments()).isEqualTo(1);
+        assertThat(rollupService.getRollup(RollupScope.STUDENT, student.getId()).getTotalEnrollments()).isEqualTo(1);
+    }
+
+    @Test
+    void deltasNeverTouchASharedGlobalRow() {
+        Enrollment enrollment = enrollmentRepository.save(
+                TestEntities.enrollment(student, course, EnrollmentStatus.ACTIVE, 10));
+
+        rollupService.enrollmentCreated(enrollment);
+
+        assertThat(rollupRepository.findByScopeAndScopeId(RollupScope.GLOBAL, AnalyticsRollup.GLOBAL_SCOPE_ID)).isEmpty();
+        AnalyticsRollup global = rollupService.getGlobalRollup();
+        assertThat(global.getTotalEnrollments()).isEqualTo(1);
+        assertThat(global.getProgressSum()).isEqualTo(10);
+    }
+
+    @Test
+    void rebuildDoesNotOverwriteADeltaAppliedAfterItsSnapshot() {
+        Enrollment enrollment = enrollmentRepository.save(
+                TestEntities.enrollment(student, course, EnrollmentStatus.ACTIVE, 10));
+        rollupService.enrollmentCreated(enrollment);
+        AnalyticsRollup snapshot = rollupService.getRollup(RollupScope.COURSE, course.getId());
+
+        // A delta commits between the rebuild's snapshot and its write
+        rollupService.lessonAdded(lesson());
+        AnalyticsRollup rebuilt = AnalyticsRollup.empty(RollupScope.COURSE, course.getId());
+        Integer overwritten = transactionTemplate.execute(status -> rollupRepository.overwriteIfUnchanged(
+                snapshot.getId(), snapshot.getRevision(), rebuilt));
+
+        assertThat(overwritten).isZero();
+        AnalyticsRollup current = rollupService.getRollup(RollupScope.COURSE, course.getId());
+        assertThat(current.getTotalEnrollments()).isEqualTo(1);
+        assertThat(current.getTotalLessons()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildLeavesRowsThatAlreadyMatchUntouched() {
+        Enrollment enrollment = enrollmentRepository.save(
+                TestEntities.enrollment(student, course, EnrollmentStatus.ACTIVE, 10));
+        rollupService.enrollmentCreated(enrollment);
+        reconciler.rebuildAll();
+        long revision = rollupService.getRollup(RollupScope.COURSE, course.getId()).getRevision();
+
+        reconciler.rebuildAll();
+
+        assertThat(rollupService.getRollup(RollupScope.COURSE, course.getId()).getRevision()).isEqualTo(revision);
+    }
+
+    private Lesson lesson() {
+        Lesson lesson = new Lesson();
+        lesson.setCourse(course);
+        return lesson;
+    }
+}
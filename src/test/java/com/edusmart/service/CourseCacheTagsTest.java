@@ -0,0 +1,102 @@
+package com.edusmart.service;
+
+import com.edusmart.cache.LocalCacheTagIndex;
+import com.edusmart.dto.course.CourseListDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourseCacheTagsTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CourseCacheTags.CACHE_NAME);
+    private final CourseCacheTags tags = new CourseCacheTags(cacheManager, new LocalCacheTagIndex(Duration.ofMinutes(10)));
+    private final Pageable pageable = PageRequest.of(0, 10, Sort.by("title"));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadsAPageOnceAndServesItFromTheCache() {
+        Page<CourseListDTO> first = tags.allCoursesPage(pageable, this::load);
+        Page<CourseListDTO> second = tags.allCoursesPage(pageable, this::load);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void pageIsTaggedOnceStoredSoAnUpdateOfItsCourseEvictsIt() {
+        tags.allCoursesPage(pageable, this::load);
+
+        tags.courseUpdated(state(1L, "Old"), state(1L, "Old"));
+
+        assertThat(cache().get(tags.allCoursesKey(pageable))).isNull();
+        tags.allCoursesPage(pageable, this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void anUpdateWhileThePageLoadsEvictsItOnceTagged() {
+        tags.allCoursesPage(pageable, () -> {
+            // The course changes after the page read it but before the page is tagged
+            Page<CourseListDTO> page = load();
+            tags.courseUpdated(state(1L, "Old"), state(1L, "New"));
+            return page;
+        });
+
+        assertThat(cache().get(tags.allCoursesKey(pageable))).isNull();
+        tags.allCoursesPage(pageable, this::load);
+        assertThat(cache().get(tags.allCoursesKey(pageable))).isNotNull();
+    }
+
+    @Test
+    void renamingACourseEvictsThePagesSortedByTitle() {
+        tags.categoryPage(7L, pageable, () -> new PageImpl<>(List.of(course(2L)), pageable, 1));
+
+        tags.courseUpdated(state(1L, "Old"), state(1L, "New"));
+
+        assertThat(cache().get(tags.categoryKey(7L, pageable))).isNull();
+    }
+
+    @Test
+    void unrelatedCourseLeavesThePageCached() {
+        tags.categoryPage(7L, pageable, () -> new PageImpl<>(List.of(course(2L)), pageable, 1));
+
+        tags.courseUpdated(state(3L, "Same", 8L), state(3L, "Same", 8L));
+
+        assertThat(cache().get(tags.categoryKey(7L, pageable))).isNotNull();
+    }
+
+    private Page<CourseListDTO> load() {
+        loads.incrementAndGet();
+        return new PageImpl<>(List.of(course(1L)), pageable, 1);
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CourseCacheTags.CACHE_NAME);
+    }
+
+    private static CourseListDTO course(Long id) {
+        CourseListDTO course = new CourseListDTO();
+        course.setId(id);
+        return course;
+    }
+
+    private static CourseCacheTags.CourseState state(Long id, String title) {
+        return state(id, title, 7L);
+    }
+
+    private static CourseCacheTags.CourseState state(Long id, String title, Long categoryId) {
+        return new CourseCacheTags.CourseState(id, categoryId, true, Map.of("title", title));
+    }
+}
@@ -0,0 +1,104 @@
+package com.edusmart.service;
+
+import com.edusmart.dto.admin.DashboardStatsDTO;
+import com.edusmart.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DashboardStatsEngineTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private CourseRepository courseRepository;
+    @Mock private EnrollmentRepository enrollmentRepository;
+    @Mock private OrderRepository orderRepository;
+    @Mock private CourseReviewRepository courseReviewRepository;
+    @Mock private CertificateRepository certificateRepository;
+
+    private DashboardStatsEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository.RoleCounts users = mock(UserRepository.RoleCounts.class);
+        when(users.getTotal()).thenReturn(10L);
+        when(users.getStudents()).thenReturn(7L);
+        CourseRepository.PublicationCounts courses = mock(CourseRepository.PublicationCounts.class);
+        when(courses.getTotal()).thenReturn(5L);
+        when(courses.getPublished()).thenReturn(3L);
+        OrderRepository.OrderStats orders = mock(OrderRepository.OrderStats.class);
+        when(orders.getTotalRevenue()).thenReturn(99.5);
+
+        when(userRepository.countByRoles()).thenReturn(users);
+        when(courseRepository.countByPublication()).thenReturn(courses);
+        when(enrollmentRepository.countByStatuses()).thenReturn(mock(EnrollmentRepository.StatusCounts.class));
+        when(orderRepository.getOrderStats(any(), any())).thenReturn(orders);
+        when(courseReviewRepository.getReviewStats()).thenReturn(mock(CourseReviewRepository.ReviewStats.class));
+        when(certificateRepository.count()).thenReturn(4L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void combinesTheAggregatesAndTreatsMissingValuesAsZero() {
+        engine = engine(30_000);
+
+        DashboardStatsDTO stats = engine.getStats();
+
+        assertThat(stats.getTotalUsers()).isEqualTo(10);
+        assertThat(stats.getTotalStudents()).isEqualTo(7);
+        assertThat(stats.getTotalAdmins()).isZero();
+        assertThat(stats.getDraftCourses()).isEqualTo(2);
+        assertThat(stats.getTotalRevenue()).isEqualTo(99.5);
+        assertThat(stats.getAverageCourseRating()).isZero();
+        assertThat(stats.getTotalCertificates()).isEqualTo(4);
+    }
+
+    @Test
+    void servesTheSnapshotUntilItExpires() {
+        engine = engine(30_000);
+
+        DashboardStatsDTO first = engine.getStats();
+        DashboardStatsDTO second = engine.getStats();
+
+        assertThat(second).isSameAs(first);
+        verify(userRepository, times(1)).countByRoles();
+    }
+
+    @Test
+    void recomputesAnExpiredSnapshot() {
+        engine = engine(0);
+
+        engine.getStats();
+        engine.getStats();
+
+        verify(userRepository, times(2)).countByRoles();
+    }
+
+    @Test
+    void rethrowsTheFailureOfAnyAggregate() {
+        when(certificateRepository.count()).thenThrow(new IllegalStateException("down"));
+        engine = engine(30_000);
+
+        assertThatThrownBy(engine::getStats).isInstanceOf(IllegalStateException.class).hasMessage("down");
+    }
+
+    private DashboardStatsEngine engine(long ttlMillis) {
+        return new DashboardStatsEngine(userRepository, courseRepository, enrollmentRepository, orderRepository,
+                courseReviewRepository, certificateRepository, ttlMillis, 2);
+    }
+}
@@ -0,0 +1,128 @@
+package com.edusmart.service;
+
+import com.edusmart.config.FileStorageConfig;
+import com.edusmart.repository.FileBlobRepository;
+import com.edusmart.security.AuthenticatedPrincipalCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FileBlobStore.class, FileStorageConfig.class, AuthenticatedPrincipalCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FileBlobStoreTest {
+
+    private static Path uploadDir;
+
+    @Autowired private FileBlobStore blobStore;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @SpyBean private FileBlobRepository blobRepository;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) throws IOException {
+        uploadDir = Files.createTempDirectory("edusmart-blobs");
+        registry.add("file.upload.dir", uploadDir::toString);
+    }
+
+    @AfterEach
+    void tearDown() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "file_blobs");
+    }
+
+    @Test
+    void reUploadingIdenticalContentReferencesTheStoredBlob() throws IOException {
+        FileBlobStore.StoredBlob first = store("lecture notes");
+        FileBlobStore.StoredBlob second = store("lecture notes");
+
+        assertThat(second.digest()).isEqualTo(first.digest());
+        assertThat(second.path()).isEqualTo(first.path());
+        assertThat(Files.readString(first.path())).isEqualTo("lecture notes");
+        assertThat(references(first.digest())).isEqualTo(2);
+        assertThat(store("other notes").digest()).isNotEqualTo(first.digest());
+        assertThat(temporaryFiles()).isZero();
+    }
+
+    @Test
+    void releasingTheLastReferenceDeletesTheBlob() throws IOException {
+        FileBlobStore.StoredBlob blob = store("slides");
+        store("slides");
+
+        blobStore.release(blob.digest());
+        assertThat(references(blob.digest())).isEqualTo(1);
+        assertThat(blob.path()).exists();
+
+        blobStore.release(blob.digest());
+        assertThat(blobRepository.findById(blob.digest())).isEmpty();
+        assertThat(blob.path()).doesNotExist();
+    }
+
+    @Test
+    void anUploadThatLosesTheInsertRaceReferencesTheWinningBlob() throws IOException {
+        // Another upload of the same content commits the row between our failed increment and our insert,
+        // so our insert hits the primary key
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                    "INSERT INTO file_blobs (digest, size, reference_count, created_at) VALUES (?, ?, 1, ?)",
+                    invocation.getArgument(0), invocation.getArgument(1), Timestamp.valueOf(LocalDateTime.now())))
+                    .join();
+            throw new DataIntegrityViolationException("Duplicate blob " + invocation.getArgument(0));
+        }).when(blobRepository).insert(anyString(), anyLong(), any());
+
+        FileBlobStore.StoredBlob blob = store("exam");
+
+        verify(blobRepository, times(1)).insert(anyString(), anyLong(), any());
+        verify(blobRepository, times(2)).incrementReferences(blob.digest());
+        assertThat(references(blob.digest())).isEqualTo(2);
+        assertThat(Files.readString(blob.path())).isEqualTo("exam");
+        assertThat(temporaryFiles()).isZero();
+    }
+
+    private FileBlobStore.StoredBlob store(String content) throws IOException {
+        return blobStore.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private int references(String digest) {
+        return blobRepository.findById(digest).orElseThrow().getReferenceCount();
+    }
+
+    private long temporaryFiles() {
+        try (Stream<Path> files = Files.list(uploadDir.resolve("tmp"))) {
+            return files.count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.edusmart.service;
+
+import com.edusmart.dto.admin.TopCourseDTO;
+import com.edusmart.entity.Course;
+import com.edusmart.entity.User;
+import com.edusmart.entity.enums.LeaderboardMetric;
+import com.edusmart.entity.enums.Role;
+import com.edusmart.repository.CourseRepository;
+import com.edusmart.repository.CourseReviewRepository;
+import com.edusmart.repository.EnrollmentRepository;
+import com.edusmart.repository.OrderItemRepository;
+import com.edusmart.support.TestEntities;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock private CourseRepository courseRepository;
+    @Mock private EnrollmentRepository enrollmentRepository;
+    @Mock private OrderItemRepository orderItemRepository;
+    @Mock private CourseReviewRepository courseReviewRepository;
+
+    private LeaderboardService leaderboards;
+    private User instructor;
+
+    @BeforeEach
+    void setUp() {
+        instructor = TestEntities.user("teacher", Role.INSTRUCTOR);
+        instructor.setId(100L);
+        leaderboards = new LeaderboardService(courseRepository, enrollmentRepository, orderItemRepository,
+                courseReviewRepository, 2);
+
+        List<Object[]> metadata = new ArrayList<>();
+        List<Object[]> enrollments = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            metadata.add(new Object[] {id, "Course " + id, 100L, "Ada", "Lovelace", "ada@edusmart.test"});
+            enrollments.add(new Object[] {id, id * 10});
+        }
+        when(courseRepository.findLeaderboardMetadata()).thenReturn(metadata);
+        when(enrollmentRepository.aggregateByCourse()).thenReturn(enrollments);
+        when(orderItemRepository.sumCompletedRevenueGroupByCourse()).thenReturn(List.of());
+        when(courseReviewRepository.aggregateRatingsGroupByCourse()).thenReturn(List.of());
+        leaderboards.recompute();
+    }
+
+    @Test
+    void keepsOnlyTheBestEntriesUpToCapacity() {
+        List<TopCourseDTO> top = leaderboards.getTopCourses(LeaderboardMetric.ENROLLMENTS, 10);
+
+        assertThat(top).extracting(TopCourseDTO::getCourseId).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void incrementalUpdatePromotesACourseIntoTheBoard() {
+        leaderboards.recordEnrollment(course(1L), 25);
+
+        assertThat(leaderboards.getTopCourses(LeaderboardMetric.ENROLLMENTS, 2))
+                .extracting(TopCourseDTO::getCourseId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void droppingMemberIsReplacedByTheBestOutsider() {
+        leaderboards.recordEnrollment(course(3L), -30);
+
+        assertThat(leaderboards.getTopCourses(LeaderboardMetric.ENROLLMENTS, 2))
+                .extracting(TopCourseDTO::getCourseId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void instructorTotalsFollowTheirCourses() {
+        leaderboards.recordEnrollment(course(2L), 5);
+
+        assertThat(leaderboards.getTopInstructors(LeaderboardMetric.ENROLLMENTS, 1))
+                .singleElement()
+                .satisfies(top -> {
+                    assertThat(top.getInstructorId()).isEqualTo(100L);
+                    assertThat(top.getTotalStudents()).isEqualTo(65L);
+                    assertThat(top.getTotalCourses()).isEqualTo(3L);
+                });
+    }
+
+    private Course course(Long id) {
+        Course course = TestEntities.course("Course " + id, instructor, null);
+        course.setId(id);
+        return course;
+    }
+}
@@ -0,0 +1,166 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.AnalyticsRollup;
+import com.edusmart.entity.Category;
+import com.edusmart.entity.Course;
+import com.edusmart.entity.Enrollment;
+import com.edusmart.entity.Lesson;
+import com.edusmart.entity.User;
+import com.edusmart.entity.enums.EnrollmentStatus;
+import com.edusmart.entity.enums.Role;
+import com.edusmart.entity.enums.RollupScope;
+import com.edusmart.repository.CategoryRepository;
+import com.edusmart.repository.CourseRepository;
+import com.edusmart.repository.EnrollmentRepository;
+import com.edusmart.repository.LessonRepository;
+import com.edusmart.repository.UserRepository;
+import com.edusmart.security.AuthenticatedPrincipalCache;
+import com.edusmart.support.TestEntities;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LessonProgressService.class, AnalyticsRollupReconciler.class, AnalyticsRollupService.class,
+        AuthenticatedPrincipalCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LessonProgressServiceTest {
+
+    @Autowired private LessonProgressService lessonProgressService;
+    @Autowired private AnalyticsRollupService analyticsRollupService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private LessonRepository lessonRepository;
+    @Autowired private EnrollmentRepository enrollmentRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Long courseId;
+    private Long startedId;
+    private Long untouchedId;
+    private Long secondLessonId;
+
+    @BeforeEach
+    void setUp() {
+        User instructor = userRepository.save(TestEntities.user("teacher", Role.INSTRUCTOR));
+        Category category = categoryRepository.save(TestEntities.category("Programming"));
+        courseId = courseRepository.save(TestEntities.course("Java", instructor, category)).getId();
+        startedId = enroll("started");
+        untouchedId = enroll("untouched");
+
+        Long first = addLesson("Basics", 1);
+        secondLessonId = addLesson("Generics", 2);
+        transactionTemplate.executeWithoutResult(status -> lessonProgressService.lessonCompleted(
+                enrollmentRepository.findById(startedId).orElseThrow(), lessonRepository.findById(first).orElseThrow()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "analytics_rollups", "lessons", "enrollments", "courses",
+                "categories", "users");
+    }
+
+    @Test
+    void completingALessonCountsItAgainstTheCourseLessons() {
+        assertThat(enrollment(startedId).getCompletedLessonCount()).isEqualTo(1);
+        assertThat(enrollment(startedId).getProgress()).isEqualTo(50);
+        assertThat(courseRepository.findById(courseId).orElseThrow().getLessonCount()).isEqualTo(2);
+    }
+
+    @Test
+    void addingALessonRescalesOnlyStudentsWithCompletedLessons() {
+        jdbcTemplate.update("UPDATE enrollments SET progress = 7 WHERE id = ?", untouchedId);
+
+        addLesson("Streams", 3);
+
+        assertThat(enrollment(startedId).getProgress()).isEqualTo(33);
+        assertThat(enrollment(untouchedId).getProgress()).isEqualTo(7);
+        assertThat(courseRepository.findById(courseId).orElseThrow().getLessonCount()).isEqualTo(3);
+    }
+
+    @Test
+    void addingALessonReportsTheRescaledProgressToTheRollups() {
+        addLesson("Streams", 3);
+
+        assertThat(courseRollup().getProgressSum()).isEqualTo(33);
+        assertThat(analyticsRollupService.getRollup(RollupScope.STUDENT, enrollment(startedId).getStudent().getId())
+                .getProgressSum()).isEqualTo(33);
+    }
+
+    @Test
+    void removingALessonCompletesEnrollmentsItLiftsToFullProgress() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Lesson lesson = lessonRepository.findById(secondLessonId).orElseThrow();
+            lessonProgressService.lessonRemoved(lesson);
+            lessonRepository.delete(lesson);
+        });
+
+        Enrollment started = enrollment(startedId);
+        assertThat(started.getProgress()).isEqualTo(100);
+        assertThat(started.getStatus()).isEqualTo(EnrollmentStatus.COMPLETED);
+        assertThat(started.getIsCompleted()).isTrue();
+        assertThat(started.getCompletedAt()).isNotNull();
+        assertThat(courseRollup().getProgressSum()).isEqualTo(100);
+        assertThat(courseRollup().getCompletedEnrollments()).isEqualTo(1);
+        assertThat(courseRollup().getCompletionScoreSum()).isEqualTo(100);
+        assertThat(courseRepository.findById(courseId).orElseThrow().getLessonCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lessonChangesFromStaleCourseCopiesAreAllCounted() {
+        Course stale = courseRepository.findById(courseId).orElseThrow();
+
+        for (String title : new String[] {"Streams", "Records"}) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Lesson lesson = TestEntities.lesson(stale, title, 3);
+                lessonProgressService.lessonAdded(lesson);
+                lessonRepository.save(lesson);
+            });
+        }
+
+        assertThat(courseRepository.findById(courseId).orElseThrow().getLessonCount()).isEqualTo(4);
+    }
+
+    @Test
+    void buildersStartTheCountersAtZero() {
+        assertThat(Course.builder().build().getLessonCount()).isZero();
+        assertThat(Enrollment.builder().build().getCompletedLessonCount()).isZero();
+    }
+
+    private Long enroll(String username) {
+        User student = userRepository.save(TestEntities.user(username, Role.STUDENT));
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        return enrollmentRepository.save(TestEntities.enrollment(student, course, EnrollmentStatus.ACTIVE, 0)).getId();
+    }
+
+    private Long addLesson(String title, int order) {
+        return transactionTemplate.execute(status -> {
+            Lesson lesson = TestEntities.lesson(courseRepository.findById(courseId).orElseThrow(), title, order);
+            lessonProgressService.lessonAdded(lesson);
+            return lessonRepository.save(lesson).getId();
+        });
+    }
+
+    private AnalyticsRollup courseRollup() {
+        return analyticsRollupService.getRollup(RollupScope.COURSE, courseId);
+    }
+
+    private Enrollment enrollment(Long id) {
+        return enrollmentRepository.findById(id).orElseThrow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.edusmart.service;
+
+import com.edusmart.entity.RefreshTokenSession;
+import com.edusmart.exception.BadRequestException;
+import com.edusmart.repository.RefreshTokenSessionRepository;
+import com.edusmart.security.AuthenticatedPrincipalCache;
+import com.edusmart.security.JwtTokenProvider;
+import com.edusmart.security.LocalTokenDenylist;
+import com.edusmart.security.TokenDenylist;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RefreshTokenService.class, JwtTokenProvider.class, LocalTokenDenylist.class,
+        AuthenticatedPrincipalCache.class})
+@TestPropertySource(properties = {
+        "jwt.secret=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "jwt.expiration=500",
+        "jwt.refresh-expiration=600000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    @Autowired private RefreshTokenService refreshTokenService;
+    @Autowired private RefreshTokenSessionRepository sessionRepository;
+    @Autowired private JwtTokenProvider tokenProvider;
+    @Autowired private TokenDenylist tokenDenylist;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "refresh_token_sessions");
+    }
+
+    @Test
+    void rotationMovesTheSessionToTheNewRefreshToken() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.open(1L, "ada");
+
+        RefreshTokenService.IssuedTokens second = refreshTokenService.rotate(first.refreshToken());
+
+        assertThat(second.username()).isEqualTo("ada");
+        assertThat(sessionId(second.refreshToken())).isEqualTo(sessionId(first.refreshToken()));
+        RefreshTokenSession session = session(first.refreshToken());
+        assertThat(session.getCurrentTokenId()).isEqualTo(tokenProvider.parseClaims(second.refreshToken()).getId());
+        assertThat(session.isRevoked()).isFalse();
+        assertThat(refreshTokenService.rotate(second.refreshToken()).refreshToken()).isNotEqualTo(second.refreshToken());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheSessionAlthoughTheRequestFails() {
+        RefreshTokenService.IssuedTokens first = refreshTokenService.open(1L, "ada");
+        RefreshTokenService.IssuedTokens second = refreshTokenService.rotate(first.refreshToken());
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first.refreshToken()))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(session(first.refreshToken()).isRevoked()).isTrue();
+        assertThat(tokenDenylist.isRevoked(sessionId(first.refreshToken()))).isTrue();
+        assertThatThrownBy(() -> refreshTokenService.rotate(second.refreshToken()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void revokingAllSessionsOfAUserLeavesOtherUsersAlone() {
+        RefreshTokenService.IssuedTokens phone = refreshTokenService.open(1L, "ada");
+        RefreshTokenService.IssuedTokens laptop = refreshTokenService.open(1L, "ada");
+        RefreshTokenService.IssuedTokens other = refreshTokenService.open(2L, "grace");
+
+        refreshTokenService.revokeAll(1L);
+
+        assertThat(tokenDenylist.isRevoked(sessionId(phone.refreshToken()))).isTrue();
+        assertThat(tokenDenylist.isRevoked(sessionId(laptop.refreshToken()))).isTrue();
+        assertThat(tokenDenylist.isRevoked(sessionId(other.refreshToken()))).isFalse();
+        assertThat(refreshTokenService.rotate(other.refreshToken()).username()).isEqualTo("grace");
+    }
+
+    @Test
+    void denylistEntriesExpireWithTheAccessTokensTheyReject() throws InterruptedException {
+        RefreshTokenService.IssuedTokens tokens = refreshTokenService.open(1L, "ada");
+        refreshTokenService.revoke(tokens.refreshToken());
+        assertThat(tokenDenylist.isRevoked(sessionId(tokens.refreshToken()))).isTrue();
+
+        // Access tokens live 500 ms in this test, so the session is denied no longer than that
+        Thread.sleep(1000);
+
+        assertThat(tokenDenylist.isRevoked(sessionId(tokens.refreshToken()))).isFalse();
+        assertThat(session(tokens.refreshToken()).isRevoked()).isTrue();
+    }
+
+    private String sessionId(String refreshToken) {
+        return tokenProvider.getSessionId(tokenProvider.parseClaims(refreshToken));
+    }
+
+    private RefreshTokenSession session(String refreshToken) {
+        return sessionRepository.findById(sessionId(refreshToken)).orElseThrow();
+    }
+}
@@ -0,0 +1,62 @@
+package com.edusmart.support;
+
+import com.edusmart.entity.Category;
+import com.edusmart.entity.Course;
+import com.edusmart.entity.Enrollment;
+import com.edusmart.entity.Lesson;
+import com.edusmart.entity.User;
+import com.edusmart.entity.enums.EnrollmentStatus;
+import com.edusmart.entity.enums.Role;
+
+/**
+ * Minimal valid entities for repository-backed tests
+ */
+public final class TestEntities {
+
+    private TestEntities() {
+    }
+
+    public static User user(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@edusmart.test");
+        user.setPassword("{noop}secret");
+        user.setFirstName(username);
+        user.setLastName("Test");
+        user.setRole(role);
+        return user;
+    }
+
+    public static Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+
+    public static Course course(String title, User instructor, Category category) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setDescription(title + " description");
+        course.setInstructor(instructor);
+        course.setCategory(category);
+        course.setIsPublished(true);
+        return course;
+    }
+
+    public static Enrollment enrollment(User student, Course course, EnrollmentStatus status, int progress) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setStatus(status);
+        enrollment.setProgress(progress);
+        return enrollment;
+    }
+
+    public static Lesson lesson(Course course, String title, int order) {
+        Lesson lesson = new Lesson();
+        lesson.setCourse(course);
+        lesson.setTitle(title);
+        lesson.setLessonOrder(order);
+        return lesson;
+    }
+}
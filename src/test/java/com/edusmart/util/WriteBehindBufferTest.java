@@ -0,0 +1,104 @@
+package com.edusmart.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindBufferTest {
+
+    private final List<Map<String, Long>> written = new ArrayList<>();
+
+    @Test
+    void coalescesValuesPerKeyUntilFlushed() {
+        WriteBehindBuffer<String, Long> buffer = buffer(3, batch -> written.add(new HashMap<>(batch)));
+
+        buffer.record("a", 1L);
+        buffer.record("a", 2L);
+        buffer.record("b", 5L);
+
+        assertThat(buffer.get("a")).isEqualTo(3L);
+        assertThat(written).isEmpty();
+
+        buffer.flush();
+
+        assertThat(written).containsExactly(Map.of("a", 3L, "b", 5L));
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(buffer.get("a")).isNull();
+    }
+
+    @Test
+    void discardDropsTheBufferedValue() {
+        WriteBehindBuffer<String, Long> buffer = buffer(3, batch -> written.add(new HashMap<>(batch)));
+
+        buffer.record("a", 1L);
+        buffer.discard("a");
+        buffer.flush();
+
+        assertThat(written).isEmpty();
+    }
+
+    @Test
+    void failedBatchIsMergedWithNewerValuesAndRetried() {
+        int[] calls = {0};
+        WriteBehindBuffer<String, Long> buffer = buffer(3, batch -> {
+            if (calls[0]++ == 0) {
+                throw new IllegalStateException("database down");
+            }
+            written.add(new HashMap<>(batch));
+        });
+
+        buffer.record("a", 1L);
+        buffer.flush();
+        buffer.record("a", 2L);
+        buffer.flush();
+
+        assertThat(written).containsExactly(Map.of("a", 3L));
+    }
+
+    @Test
+    void poisonEntryIsDroppedAfterMaxAttemptsWithoutLosingTheRest() {
+        WriteBehindBuffer<String, Long> buffer = buffer(2, batch -> {
+            if (batch.containsKey("poison")) {
+                throw new IllegalArgumentException("cannot be written");
+            }
+            written.add(new HashMap<>(batch));
+        });
+
+        buffer.record("poison", 1L);
+        buffer.record("good", 1L);
+        buffer.flush();
+        assertThat(written).isEmpty();
+        assertThat(buffer.isEmpty()).isFalse();
+
+        buffer.flush();
+
+        assertThat(written).containsExactly(Map.of("good", 1L));
+        assertThat(buffer.isEmpty()).isTrue();
+        buffer.flush();
+        assertThat(written).hasSize(1);
+    }
+
+    @Test
+    void batchBeingWrittenStaysVisibleAsUnwritten() {
+        List<List<Long>> seenDuringWrite = new ArrayList<>();
+        AtomicReference<WriteBehindBuffer<String, Long>> buffer = new AtomicReference<>();
+        buffer.set(buffer(3, batch -> seenDuringWrite.add(buffer.get().unwritten())));
+
+        buffer.get().record("a", 7L);
+        buffer.get().flush();
+
+        assertThat(seenDuringWrite).containsExactly(List.of(7L));
+        assertThat(buffer.get().unwritten()).isEmpty();
+    }
+
+    private static WriteBehindBuffer<String, Long> buffer(int maxAttempts, Consumer<Map<String, Long>> writer) {
+        return new WriteBehindBuffer<>("test", Integer.MAX_VALUE, maxAttempts, Long::sum, writer);
+    }
+}